@@ -0,0 +1,65 @@
+package org.figuramc.figura.benchmark;
+
+import com.mojang.datafixers.util.Pair;
+import org.figuramc.figura.animation.Animation;
+import org.figuramc.figura.animation.AnimationPlayer;
+import org.figuramc.figura.animation.Interpolation;
+import org.figuramc.figura.animation.Keyframe;
+import org.figuramc.figura.animation.TransformType;
+import org.figuramc.figura.math.vector.FiguraVec3;
+import org.figuramc.figura.model.FiguraModelPart;
+import org.figuramc.figura.model.PartCustomization;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per channel work of AnimationPlayer.tick: keyframe search, interpolation and applying the transform to the part
+ * the profiler sections and the animation clock are left out, as they need a running client, so the time is set directly
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AnimationBenchmark {
+
+    private static final float LENGTH = 10f;
+
+    @Param({"LINEAR", "CATMULLROM", "BEZIER"})
+    public Interpolation interpolation;
+
+    @Param({"8", "64"})
+    public int keyframeCount;
+
+    private Animation animation;
+    private Keyframe[] keyframes;
+    private FiguraModelPart part;
+    private float time;
+
+    @Setup
+    public void setup() {
+        animation = new Animation(null, "model", "benchmark", Animation.LoopMode.LOOP, false, LENGTH, 0, 1, 0, 0);
+
+        keyframes = new Keyframe[keyframeCount];
+        for (int i = 0; i < keyframeCount; i++) {
+            FiguraVec3 target = FiguraVec3.of(Math.sin(i) * 45, Math.cos(i) * 45, i);
+            keyframes[i] = new Keyframe(null, animation, LENGTH * i / keyframeCount, interpolation,
+                    Pair.of(target, null), Pair.of(target, null),
+                    FiguraVec3.of(-1, -1, -1), FiguraVec3.of(1, 1, 1),
+                    FiguraVec3.of(-0.1, -0.1, -0.1), FiguraVec3.of(0.1, 0.1, 0.1)
+            );
+        }
+
+        part = new FiguraModelPart(null, "part", new PartCustomization(), new HashMap<>(), new ArrayList<>());
+    }
+
+    @Benchmark
+    public FiguraModelPart sample() {
+        // advance like a 20 tps animation
+        time = (time + 0.05f) % LENGTH;
+        animation.setTime(time);
+        AnimationPlayer.apply(animation, part, TransformType.ROTATION, keyframes, false);
+        return part;
+    }
+}
@@ -0,0 +1,79 @@
+package org.figuramc.figura.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Ticks a whole avatar through the headless harness
+ * a real avatar can be given with the "avatar" parameter, otherwise a small scripted avatar is generated
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AvatarBenchmark {
+
+    private static final String SCRIPT = """
+            local parts = {}
+            for i = 1, 64 do
+                parts[i] = models:newPart("part" .. i)
+            end
+
+            local time = 0
+            function events.tick()
+                time = time + 1
+            end
+
+            function events.render(delta)
+                for i, part in ipairs(parts) do
+                    part:setRot(time + delta, i, 0)
+                    part:setPos(0, math.sin((time + delta + i) * 0.1), 0)
+                end
+            end
+            """;
+
+    @Param({""})
+    public String avatar;
+
+    private HeadlessAvatar headless;
+    private Path generated;
+
+    @Setup
+    public void setup() throws Exception {
+        Path path;
+        if (avatar.isBlank()) {
+            generated = Files.createTempDirectory("figura-benchmark");
+            Files.writeString(generated.resolve("avatar.json"), "{\"name\": \"benchmark\"}");
+            Files.writeString(generated.resolve("script.lua"), SCRIPT);
+            path = generated;
+        } else {
+            path = Path.of(avatar);
+        }
+
+        headless = HeadlessAvatar.load(path);
+        if (headless.avatar.scriptError)
+            throw new IllegalStateException("the avatar scripts errored while loading");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (generated == null)
+            return;
+
+        try (Stream<Path> files = Files.walk(generated)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public long tick() {
+        headless.tick();
+        return headless.bufferSource.vertices;
+    }
+}
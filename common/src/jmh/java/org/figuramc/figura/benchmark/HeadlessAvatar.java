@@ -0,0 +1,209 @@
+package org.figuramc.figura.benchmark;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import net.minecraft.SharedConstants;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.texture.OverlayTexture;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.server.Bootstrap;
+import org.figuramc.figura.avatar.Avatar;
+import org.figuramc.figura.avatar.AvatarMetrics;
+import org.figuramc.figura.avatar.local.LocalAvatarLoader;
+import org.figuramc.figura.math.matrix.FiguraMat4;
+import org.figuramc.figura.model.rendering.PartFilterScheme;
+import org.figuramc.figura.permissions.PermissionPack;
+import org.figuramc.figura.permissions.Permissions;
+import org.figuramc.figura.utils.RollingHistogram;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Loads an avatar and ticks it without a game window or world, so avatar performance can be compared between builds
+ * there is no entity, so the events are called by name with no user, and world dependent apis return nil
+ * <p>
+ * usage: {@code HeadlessAvatar <avatar folder or .moon file> [ticks]}
+ */
+public class HeadlessAvatar {
+
+    private static boolean bootstrapped;
+
+    public final Avatar avatar;
+    public final CountingBufferSource bufferSource = new CountingBufferSource();
+    public final RollingHistogram tickTime = new RollingHistogram();
+    public final RollingHistogram renderTime = new RollingHistogram();
+    public final long loadTime;
+
+    private HeadlessAvatar(Avatar avatar, long loadTime) {
+        this.avatar = avatar;
+        this.loadTime = loadTime;
+    }
+
+    public static synchronized void bootstrap() {
+        if (bootstrapped)
+            return;
+
+        System.setProperty("figura.headless", "true");
+        AvatarMetrics.enabled = true;
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+        bootstrapped = true;
+    }
+
+    /**
+     * Loads an avatar, from either a local avatar folder or a .moon file, and runs its init scripts
+     *
+     * @param path - the avatar to load
+     */
+    public static HeadlessAvatar load(Path path) throws Exception {
+        bootstrap();
+
+        long time = System.nanoTime();
+        CompoundTag nbt = Files.isDirectory(path) ? LocalAvatarLoader.loadAvatarNbt(path) : NbtIo.readCompressed(path.toFile());
+
+        String name = path.getFileName().toString();
+        UUID owner = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+        PermissionPack.PlayerPermissionPack permissions = new PermissionPack.PlayerPermissionPack(new PermissionPack.CategoryPermissionPack(Permissions.Category.MAX), owner.toString());
+
+        Avatar avatar = Avatar.createHeadless(owner, name, permissions);
+        avatar.loadNow(nbt);
+
+        // there is no render system to upload textures to, nor an entity renderer to show hitboxes
+        if (avatar.renderer != null) {
+            avatar.renderer.textureUploader = texture -> {};
+            avatar.renderer.hitboxesShown = () -> false;
+        }
+
+        // runs the queued init before the event
+        avatar.run("ENTITY_INIT", avatar.init);
+        return new HeadlessAvatar(avatar, System.nanoTime() - time);
+    }
+
+    /**
+     * Runs one game tick followed by one frame
+     */
+    public void tick() {
+        long time = System.nanoTime();
+        avatar.tick.reset(avatar.permissions.get(Permissions.TICK_INST));
+        avatar.run("WORLD_TICK", avatar.worldTick);
+        avatar.run("TICK", avatar.tick);
+        tickTime.record(System.nanoTime() - time);
+
+        time = System.nanoTime();
+        render(0f);
+        renderTime.record(System.nanoTime() - time);
+    }
+
+    private void render(float delta) {
+        avatar.render(delta);
+        avatar.render.reset(avatar.permissions.get(Permissions.RENDER_INST));
+        FiguraMat4 poseMatrix = FiguraMat4.of();
+        avatar.run("RENDER", avatar.render, delta, "RENDER", poseMatrix);
+
+        if (avatar.renderer != null) {
+            avatar.renderer.allowMatrixUpdate = false;
+            avatar.renderer.setupRenderer(PartFilterScheme.MODEL, bufferSource, new PoseStack(), delta, 0xF000F0, 1f, OverlayTexture.NO_OVERLAY, false, false);
+            avatar.renderer.render();
+        }
+
+        avatar.run("POST_RENDER", avatar.render.post(), delta, "RENDER", poseMatrix);
+    }
+
+    public void printReport() {
+        print("load", loadTime);
+        print("tick", tickTime.snapshot());
+        print("render", renderTime.snapshot());
+        RollingHistogram vertices = avatar.metrics.get(AvatarMetrics.RENDER_VERTICES, PartFilterScheme.MODEL.name());
+        System.out.printf("vertices: %d per frame, %d total%n", vertices == null ? 0 : vertices.percentile(0.5), bufferSource.vertices);
+        System.out.printf("init instructions: %d%n", avatar.init.getTotal());
+    }
+
+    private static void print(String name, long nanos) {
+        System.out.printf("%s: %.3f ms%n", name, nanos / 1_000_000d);
+    }
+
+    private static void print(String name, RollingHistogram.Snapshot snapshot) {
+        System.out.printf("%s: mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", name,
+                snapshot.mean() / 1_000_000d, snapshot.p50() / 1_000_000d, snapshot.p99() / 1_000_000d, snapshot.max() / 1_000_000d);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args[0].isBlank()) {
+            System.err.println("usage: HeadlessAvatar <avatar folder or .moon file> [ticks]");
+            System.exit(1);
+        }
+
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        HeadlessAvatar headless = load(Path.of(args[0]));
+        if (headless.avatar.scriptError)
+            System.err.println("the avatar scripts errored while loading");
+
+        for (int i = 0; i < ticks; i++)
+            headless.tick();
+
+        headless.printReport();
+    }
+
+    /**
+     * Buffer source that only counts the vertices, as nothing is drawn
+     */
+    public static class CountingBufferSource implements MultiBufferSource {
+
+        public long vertices;
+
+        private final VertexConsumer consumer = new VertexConsumer() {
+            @Override
+            public VertexConsumer vertex(double x, double y, double z) {
+                return this;
+            }
+
+            @Override
+            public VertexConsumer color(int red, int green, int blue, int alpha) {
+                return this;
+            }
+
+            @Override
+            public VertexConsumer uv(float u, float v) {
+                return this;
+            }
+
+            @Override
+            public VertexConsumer overlayCoords(int u, int v) {
+                return this;
+            }
+
+            @Override
+            public VertexConsumer uv2(int u, int v) {
+                return this;
+            }
+
+            @Override
+            public VertexConsumer normal(float x, float y, float z) {
+                return this;
+            }
+
+            @Override
+            public void endVertex() {
+                vertices++;
+            }
+
+            @Override
+            public void defaultColor(int red, int green, int blue, int alpha) {
+            }
+
+            @Override
+            public void unsetDefaultColor() {
+            }
+        };
+
+        @Override
+        public VertexConsumer getBuffer(RenderType renderType) {
+            return consumer;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.figuramc.figura.benchmark;
+
+import org.figuramc.figura.lua.LuaTypeManager;
+import org.figuramc.figura.math.vector.FiguraVec3;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.compiler.LuaC;
+import org.luaj.vm2.lib.jse.JseBaseLib;
+import org.luaj.vm2.lib.jse.JseMathLib;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of calling whitelisted java methods from lua, using vectors as they are the most common
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LuaTypeManagerBenchmark {
+
+    private final LuaTypeManager typeManager = new LuaTypeManager();
+
+    private LuaValue a, b;
+    private LuaValue addLoop, lengthLoop;
+
+    @Setup
+    public void setup() {
+        typeManager.generateMetatableFor(FiguraVec3.class);
+        a = typeManager.javaToLua(FiguraVec3.of(1, 2, 3)).arg1();
+        b = typeManager.javaToLua(FiguraVec3.of(4, 5, 6)).arg1();
+
+        Globals globals = new Globals();
+        globals.load(new JseBaseLib());
+        globals.load(new JseMathLib());
+        LuaC.install(globals);
+
+        addLoop = globals.load("local a, b = ... for i = 1, 100 do a = a + b end return a", "add");
+        lengthLoop = globals.load("local a = ... local l = 0 for i = 1, 100 do l = l + a:length() end return l", "length");
+    }
+
+    @Benchmark
+    public Varargs javaToLua() {
+        return typeManager.javaToLua(FiguraVec3.of(1, 2, 3));
+    }
+
+    @Benchmark
+    public Varargs invokeMethod() {
+        return a.invokemethod("length");
+    }
+
+    @Benchmark
+    public LuaValue addMetamethod() {
+        return a.add(b);
+    }
+
+    // 100 calls per invocation, including the interpreter
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public Varargs luaAddLoop() {
+        return addLoop.invoke(LuaValue.varargsOf(a, b));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public Varargs luaMethodLoop() {
+        return lengthLoop.invoke(a);
+    }
+}
@@ -0,0 +1,92 @@
+package org.figuramc.figura.benchmark;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.FloatTag;
+import net.minecraft.nbt.ListTag;
+import org.figuramc.figura.model.FiguraModelPart;
+import org.figuramc.figura.model.FiguraModelPartReader;
+import org.figuramc.figura.model.rendering.texture.FiguraTextureSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a synthetic model made of groups of cubes, like a big Blockbench model
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModelPartReaderBenchmark {
+
+    private static final String[] FACES = {"n", "s", "e", "w", "u", "d"};
+
+    @Param({"16", "128"})
+    public int groups;
+
+    @Param({"16"})
+    public int cubesPerGroup;
+
+    private CompoundTag model;
+    private List<FiguraTextureSet> textureSets;
+
+    @Setup
+    public void setup() {
+        model = new CompoundTag();
+        model.putString("name", "models");
+
+        ListTag groupList = new ListTag();
+        for (int g = 0; g < groups; g++) {
+            CompoundTag group = new CompoundTag();
+            group.putString("name", "group" + g);
+            group.put("rot", vec(g, g * 2, g * 3));
+            group.put("piv", vec(g, 0, -g));
+
+            ListTag cubes = new ListTag();
+            for (int c = 0; c < cubesPerGroup; c++)
+                cubes.add(cube("cube" + c, c));
+            group.put("chld", cubes);
+
+            groupList.add(group);
+        }
+        model.put("chld", groupList);
+
+        textureSets = List.of(new FiguraTextureSet("benchmark", null, null, null, null));
+    }
+
+    private static CompoundTag cube(String name, int seed) {
+        CompoundTag cube = new CompoundTag();
+        cube.putString("name", name);
+        cube.put("f", vec(seed, seed, seed));
+        cube.put("t", vec(seed + 4, seed + 8, seed + 2));
+        cube.put("piv", vec(seed + 2, seed + 4, seed + 1));
+
+        CompoundTag faces = new CompoundTag();
+        for (String direction : FACES) {
+            CompoundTag face = new CompoundTag();
+            face.putShort("tex", (short) 0);
+            ListTag uv = new ListTag();
+            uv.add(FloatTag.valueOf(0));
+            uv.add(FloatTag.valueOf(0));
+            uv.add(FloatTag.valueOf(16));
+            uv.add(FloatTag.valueOf(16));
+            face.put("uv", uv);
+            faces.put(direction, face);
+        }
+        cube.put("cube_data", faces);
+        return cube;
+    }
+
+    private static ListTag vec(float x, float y, float z) {
+        ListTag list = new ListTag();
+        list.add(FloatTag.valueOf(x));
+        list.add(FloatTag.valueOf(y));
+        list.add(FloatTag.valueOf(z));
+        return list;
+    }
+
+    @Benchmark
+    public FiguraModelPart read() {
+        return FiguraModelPartReader.read(null, model, textureSets, false);
+    }
+}
@@ -0,0 +1,60 @@
+package org.figuramc.figura.benchmark;
+
+import org.figuramc.figura.model.PartCustomization;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PartCustomizationBenchmark {
+
+    @Param({"4", "16"})
+    public int depth;
+
+    private PartCustomization customization;
+    private PartCustomization[] parts;
+    private PartCustomization.PartCustomizationStack stack;
+
+    @Setup
+    public void setup() {
+        customization = createPart(1);
+
+        parts = new PartCustomization[depth];
+        for (int i = 0; i < depth; i++) {
+            parts[i] = createPart(i);
+            parts[i].recalculate();
+        }
+
+        stack = new PartCustomization.PartCustomizationStack();
+    }
+
+    private static PartCustomization createPart(int seed) {
+        PartCustomization part = new PartCustomization();
+        part.setPos(seed, seed * 0.5, -seed);
+        part.setRot(seed * 15, seed * 30, seed * 45);
+        part.setScale(1.1, 0.9, 1);
+        part.setPivot(0.5, 1.5, -0.5);
+        part.needsMatrixRecalculation = true;
+        return part;
+    }
+
+    @Benchmark
+    public PartCustomization recalculate() {
+        customization.needsMatrixRecalculation = true;
+        customization.recalculate();
+        return customization;
+    }
+
+    // the push and pop sequence done while walking a model tree
+    @Benchmark
+    public PartCustomization pushPop() {
+        for (PartCustomization part : parts)
+            stack.push(part);
+        PartCustomization top = stack.peek();
+        for (int i = 0; i < depth; i++)
+            stack.pop();
+        return top;
+    }
+}
@@ -0,0 +1,66 @@
+package org.figuramc.figura.benchmark;
+
+import org.figuramc.figura.lua.LuaTypeManager;
+import org.figuramc.figura.lua.api.ping.PingArg;
+import org.figuramc.figura.math.vector.FiguraVec3;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PingArgBenchmark {
+
+    private final LuaTypeManager typeManager = new LuaTypeManager();
+
+    // the old codec every client reads, and the opt-in compact one
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private Varargs small, large;
+    private byte[] smallBytes, largeBytes;
+
+    @Setup
+    public void setup() {
+        typeManager.generateMetatableFor(FiguraVec3.class);
+
+        // typical ping, a few primitives
+        small = LuaValue.varargsOf(LuaValue.valueOf(true), LuaValue.valueOf(42), LuaValue.valueOf(0.5), LuaValue.valueOf("wave"));
+
+        // state sync ping, a table of vectors and numbers
+        LuaTable table = new LuaTable();
+        for (int i = 1; i <= 64; i++) {
+            table.set(i, typeManager.javaToLua(FiguraVec3.of(i, i * 2, i * 3)).arg1());
+            table.set("key" + i, LuaValue.valueOf(i * 1000));
+        }
+        large = LuaValue.varargsOf(LuaValue.valueOf("sync"), table);
+
+        smallBytes = new PingArg(small).toByteArray(compact);
+        largeBytes = new PingArg(large).toByteArray(compact);
+    }
+
+    @Benchmark
+    public byte[] encodeSmall() {
+        return new PingArg(small).toByteArray(compact);
+    }
+
+    @Benchmark
+    public byte[] encodeLarge() {
+        return new PingArg(large).toByteArray(compact);
+    }
+
+    @Benchmark
+    public LuaValue[] decodeSmall() throws IOException {
+        return PingArg.fromByteArray(smallBytes, typeManager);
+    }
+
+    @Benchmark
+    public LuaValue[] decodeLarge() throws IOException {
+        return PingArg.fromByteArray(largeBytes, typeManager);
+    }
+}
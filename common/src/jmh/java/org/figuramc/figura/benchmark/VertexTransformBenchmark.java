@@ -0,0 +1,59 @@
+package org.figuramc.figura.benchmark;
+
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import net.minecraft.client.renderer.LightTexture;
+import net.minecraft.client.renderer.texture.OverlayTexture;
+import org.figuramc.figura.FiguraMod;
+import org.figuramc.figura.math.vector.FiguraVec3;
+import org.figuramc.figura.model.PartCustomization;
+import org.figuramc.figura.model.rendering.ImmediateAvatarRenderer;
+import org.figuramc.figura.model.rendering.Vertex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per vertex work of ImmediateAvatarRenderer.pushToBuffer, into a vertex consumer that only counts the vertices
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VertexTransformBenchmark {
+
+    @Param({"1024", "16384"})
+    public int faces;
+
+    private final FiguraVec3 uvFixer = FiguraVec3.of(64, 64, 1);
+    private final FiguraVec3 color = FiguraVec3.of(1, 1, 1);
+    private final HeadlessAvatar.CountingBufferSource bufferSource = new HeadlessAvatar.CountingBufferSource();
+
+    private List<Vertex> vertices;
+    private PartCustomization customization;
+    private VertexConsumer consumer;
+
+    @Setup
+    public void setup() {
+        HeadlessAvatar.bootstrap();
+
+        vertices = new ArrayList<>();
+        for (int i = 0; i < faces * 4; i++)
+            vertices.add(new Vertex(i % 16, (i / 16) % 16, i % 7, i % 64, (i / 64) % 64, 0, 1, 0));
+
+        customization = new PartCustomization();
+        customization.setPos(1, 2, 3);
+        customization.setRot(10, 20, 30);
+        customization.setScale(1.5, 1.5, 1.5);
+        customization.needsMatrixRecalculation = true;
+        customization.recalculate();
+
+        consumer = bufferSource.getBuffer(null);
+    }
+
+    @Benchmark
+    public long transform() {
+        ImmediateAvatarRenderer.pushVertices(consumer, vertices, vertices.size(), customization, uvFixer, color, FiguraMod.VERTEX_OFFSET, OverlayTexture.NO_OVERLAY, LightTexture.FULL_BRIGHT);
+        return bufferSource.vertices;
+    }
+}
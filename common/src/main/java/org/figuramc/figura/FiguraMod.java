@@ -4,9 +4,12 @@ import net.minecraft.client.Minecraft;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.Style;
 import net.minecraft.server.players.GameProfileCache;
+import net.minecraft.util.profiling.InactiveProfiler;
+import net.minecraft.util.profiling.ProfilerFiller;
 import net.minecraft.world.entity.Entity;
 import org.figuramc.figura.avatar.Avatar;
 import org.figuramc.figura.avatar.AvatarManager;
+import org.figuramc.figura.avatar.AvatarMetricsManager;
 import org.figuramc.figura.avatar.local.CacheAvatarLoader;
 import org.figuramc.figura.avatar.local.LocalAvatarFetcher;
 import org.figuramc.figura.avatar.local.LocalAvatarLoader;
@@ -16,8 +19,10 @@ import org.figuramc.figura.config.Configs;
 import org.figuramc.figura.entries.EntryPointManager;
 import org.figuramc.figura.font.Emojis;
 import org.figuramc.figura.lua.FiguraLuaPrinter;
+import org.figuramc.figura.lua.api.particle.ParticleAPI;
 import org.figuramc.figura.lua.docs.FiguraDocsManager;
 import org.figuramc.figura.mixin.SkullBlockEntityAccessor;
+import org.figuramc.figura.model.rendertasks.GlyphRunCache;
 import org.figuramc.figura.permissions.PermissionManager;
 import org.figuramc.figura.resources.FiguraRuntimeResources;
 import org.figuramc.figura.utils.*;
@@ -35,10 +40,13 @@ public class FiguraMod {
 
     public static final String MOD_ID = "figura";
     public static final String MOD_NAME = "Figura";
-    public static final FiguraModMetadata METADATA = FiguraModMetadata.getMetadataForMod(MOD_ID);
-    public static final Version VERSION = new Version(PlatformUtils.getFiguraModVersionString());
+    // running outside of a mod loader, like in benchmarks, so there is no platform to query
+    public static final boolean HEADLESS = Boolean.getBoolean("figura.headless");
+    public static final FiguraModMetadata METADATA = HEADLESS ? null : FiguraModMetadata.getMetadataForMod(MOD_ID);
+    public static final Version VERSION = new Version(HEADLESS ? "0.0.0" : PlatformUtils.getFiguraModVersionString());
     public static final Calendar CALENDAR = Calendar.getInstance();
-    public static final Path GAME_DIR = PlatformUtils.getGameDir().normalize();
+    public static final Path GAME_DIR = (HEADLESS ? Path.of("").toAbsolutePath() : PlatformUtils.getGameDir()).normalize();
+    public static final Path CONFIG_DIR = (HEADLESS ? GAME_DIR.resolve("config") : PlatformUtils.getConfigDir()).normalize();
     public static final Logger LOGGER = LoggerFactory.getLogger(MOD_NAME);
     public static final float VERTEX_OFFSET = -0.0005f;
 
@@ -63,12 +71,15 @@ public class FiguraMod {
         CacheAvatarLoader.init();
         FiguraDocsManager.init();
         FiguraRuntimeResources.init();
+        AvatarMetricsManager.init();
     }
 
     public static List<FiguraResourceListener> getResourceListeners() {
         List<FiguraResourceListener> listeners = new ArrayList<>();
         listeners.add(LocalAvatarLoader.AVATAR_LISTENER);
         listeners.add(Emojis.RESOURCE_LISTENER);
+        listeners.add(GlyphRunCache.RESOURCE_LISTENER);
+        listeners.add(ParticleAPI.RESOURCE_LISTENER);
         listeners.add(AvatarWizard.RESOURCE_LISTENER);
         listeners.add(AvatarManager.RESOURCE_RELOAD_EVENT);
         return listeners;
@@ -87,6 +98,8 @@ public class FiguraMod {
         FiguraLuaPrinter.printChatFromQueue();
         popPushProfiler("emojiAnim");
         Emojis.tickAnimations();
+        popPushProfiler("persistence");
+        PersistenceManager.tick();
         popProfiler();
         ticks++;
     }
@@ -157,31 +170,47 @@ public class FiguraMod {
         return Style.EMPTY.withColor(color);
     }
 
+    // -- platform -- //
+
+    public static boolean isModLoaded(String id) {
+        return !HEADLESS && PlatformUtils.isModLoaded(id);
+    }
+
+    // custom value from the mod metadata, empty when there is no metadata
+    public static String getMetadataValue(String key) {
+        return METADATA == null ? "" : METADATA.getCustomValueAsString(key);
+    }
+
     // -- profiler -- //
 
+    private static ProfilerFiller getProfiler() {
+        Minecraft minecraft = Minecraft.getInstance();
+        return minecraft == null ? InactiveProfiler.INSTANCE : minecraft.getProfiler();
+    }
+
     public static void pushProfiler(String name) {
-        Minecraft.getInstance().getProfiler().push(name);
+        getProfiler().push(name);
     }
 
     public static void pushProfiler(Avatar avatar) {
-        Minecraft.getInstance().getProfiler().push(avatar.entityName.isBlank() ? avatar.owner.toString() : avatar.entityName);
+        getProfiler().push(avatar.entityName.isBlank() ? avatar.owner.toString() : avatar.entityName);
     }
 
     public static void popPushProfiler(String name) {
-        Minecraft.getInstance().getProfiler().popPush(name);
+        getProfiler().popPush(name);
     }
 
     public static void popProfiler() {
-        Minecraft.getInstance().getProfiler().pop();
+        getProfiler().pop();
     }
 
     public static <T> T popReturnProfiler(T var) {
-        Minecraft.getInstance().getProfiler().pop();
+        getProfiler().pop();
         return var;
     }
 
     public static void popProfiler(int times) {
-        var profiler = Minecraft.getInstance().getProfiler();
+        var profiler = getProfiler();
         for (int i = 0; i < times; i++)
             profiler.pop();
     }
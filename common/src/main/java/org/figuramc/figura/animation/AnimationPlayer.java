@@ -46,47 +46,7 @@ public class AnimationPlayer {
                     return limit;
                 }
 
-                int currentIndex = Math.max(0, Mth.binarySearch(0, keyframes.length, index -> anim.frameTime <= keyframes[index].getTime()) - 1);
-                int nextIndex = Math.min(keyframes.length - 1, currentIndex + 1);
-
-                Keyframe current = keyframes[currentIndex];
-                Keyframe next = keyframes[nextIndex];
-
-                float delta;
-                if (current == next) {
-                    delta = 0;
-                } else {
-                    float timeDiff = anim.frameTime - current.getTime();
-                    delta = Math.min(Math.max(timeDiff / (next.getTime() - current.getTime()), 0), 1);
-                }
-
-                Interpolation interpolation = next.getInterpolation() == Interpolation.BEZIER ? Interpolation.BEZIER : current.getInterpolation();
-                FiguraVec3 transform = interpolation.generate(keyframes, currentIndex, nextIndex, anim.blend, delta, type);
-                type.apply(part, transform, merge);
-
-                switch (type) {
-                    case ROTATION, GLOBAL_ROT -> {
-                        if (anim.getOverrideRot())
-                            part.animationOverride |= 1;
-                        else if (!merge) {
-                            part.animationOverride = part.animationOverride & 6;
-                        }
-                    }
-                    case POSITION -> {
-                        if (anim.getOverridePos())
-                            part.animationOverride |= 2;
-                        else if (!merge) {
-                            part.animationOverride = part.animationOverride & 5;
-                        }
-                    }
-                    case SCALE -> {
-                        if (anim.getOverrideScale())
-                            part.animationOverride |= 4;
-                        else if (!merge) {
-                            part.animationOverride = part.animationOverride & 3;
-                        }
-                    }
-                }
+                apply(anim, part, type, keyframes, merge);
 
                 limit--;
                 FiguraMod.popProfiler();
@@ -99,6 +59,55 @@ public class AnimationPlayer {
         return limit;
     }
 
+    /**
+     * Samples the keyframes of a channel at the animation time, and applies the transform to the part
+     *
+     * @param merge - if the transform is added to the one of another animation with the same priority
+     */
+    public static void apply(Animation anim, FiguraModelPart part, TransformType type, Keyframe[] keyframes, boolean merge) {
+        int currentIndex = Math.max(0, Mth.binarySearch(0, keyframes.length, index -> anim.frameTime <= keyframes[index].getTime()) - 1);
+        int nextIndex = Math.min(keyframes.length - 1, currentIndex + 1);
+
+        Keyframe current = keyframes[currentIndex];
+        Keyframe next = keyframes[nextIndex];
+
+        float delta;
+        if (current == next) {
+            delta = 0;
+        } else {
+            float timeDiff = anim.frameTime - current.getTime();
+            delta = Math.min(Math.max(timeDiff / (next.getTime() - current.getTime()), 0), 1);
+        }
+
+        Interpolation interpolation = next.getInterpolation() == Interpolation.BEZIER ? Interpolation.BEZIER : current.getInterpolation();
+        FiguraVec3 transform = interpolation.generate(keyframes, currentIndex, nextIndex, anim.blend, delta, type);
+        type.apply(part, transform, merge);
+
+        switch (type) {
+            case ROTATION, GLOBAL_ROT -> {
+                if (anim.getOverrideRot())
+                    part.animationOverride |= 1;
+                else if (!merge) {
+                    part.animationOverride = part.animationOverride & 6;
+                }
+            }
+            case POSITION -> {
+                if (anim.getOverridePos())
+                    part.animationOverride |= 2;
+                else if (!merge) {
+                    part.animationOverride = part.animationOverride & 5;
+                }
+            }
+            case SCALE -> {
+                if (anim.getOverrideScale())
+                    part.animationOverride |= 4;
+                else if (!merge) {
+                    part.animationOverride = part.animationOverride & 3;
+                }
+            }
+        }
+    }
+
     public static void clear(Animation anim) {
         FiguraVec3 zero = FiguraVec3.of();
         for (Map.Entry<FiguraModelPart, List<Animation.AnimationChannel>> entry : anim.animationParts) {
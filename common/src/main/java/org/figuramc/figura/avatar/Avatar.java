@@ -1,7 +1,5 @@
 package org.figuramc.figura.avatar;
 
-import com.mojang.blaze3d.audio.OggAudioStream;
-import com.mojang.blaze3d.audio.SoundBuffer;
 import com.mojang.blaze3d.platform.Lighting;
 import com.mojang.blaze3d.platform.NativeImage;
 import com.mojang.blaze3d.systems.RenderSystem;
@@ -35,13 +33,16 @@ import org.figuramc.figura.backend2.NetworkStuff;
 import org.figuramc.figura.config.Configs;
 import org.figuramc.figura.lua.FiguraLuaPrinter;
 import org.figuramc.figura.lua.FiguraLuaRuntime;
+import org.figuramc.figura.lua.LuaLogBuffer;
 import org.figuramc.figura.lua.api.TextureAPI;
 import org.figuramc.figura.lua.api.data.FiguraBuffer;
-import org.figuramc.figura.lua.api.entity.EntityAPI;
+import org.figuramc.figura.lua.api.event.EventsAPI;
+import org.figuramc.figura.lua.api.event.LuaEvent;
 import org.figuramc.figura.lua.api.net.FiguraSocket;
 import org.figuramc.figura.lua.api.particle.ParticleAPI;
 import org.figuramc.figura.lua.api.ping.PingArg;
 import org.figuramc.figura.lua.api.ping.PingFunction;
+import org.figuramc.figura.lua.api.sound.CustomSound;
 import org.figuramc.figura.lua.api.sound.SoundAPI;
 import org.figuramc.figura.lua.api.world.BlockStateAPI;
 import org.figuramc.figura.lua.api.world.ItemStackAPI;
@@ -71,13 +72,13 @@ import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.Varargs;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 // the avatar class
 // contains all things related to the avatar
@@ -110,33 +111,65 @@ public class Avatar {
     private final Queue<Runnable> events = new ConcurrentLinkedQueue<>();
     public final ArrayList<FiguraSocket> openSockets = new ArrayList<>();
     public final ArrayList<FiguraBuffer> openBuffers = new ArrayList<>();
+    public final AvatarIOExecutor ioExecutor;
     public AvatarRenderer renderer;
     public FiguraLuaRuntime luaRuntime;
     public EntityRenderMode renderMode = EntityRenderMode.OTHER;
 
     public final PermissionPack.PlayerPermissionPack permissions;
 
-    public final Map<String, SoundBuffer> customSounds = new HashMap<>();
+    public final Map<String, CustomSound> customSounds = new HashMap<>();
     public final Map<Integer, Animation> animations = new HashMap<>();
 
     // runtime status
     public boolean hasTexture, scriptError;
     public Component errorText;
-    public Set<Permissions> noPermissions = new HashSet<>();
+    public Set<Permissions> noPermissions = new HashSet<>() {
+        @Override
+        public boolean add(Permissions permission) {
+            return changed(super.add(permission));
+        }
+
+        @Override
+        public boolean remove(Object permission) {
+            return changed(super.remove(permission));
+        }
+
+        @Override
+        public void clear() {
+            changed(!isEmpty());
+            super.clear();
+        }
+
+        private boolean changed(boolean changed) {
+            if (changed) badgesChanged();
+            return changed;
+        }
+    };
     public Set<Permissions> permissionsToTick = new HashSet<>();
     public int lastPlayingSound = 0;
     public int versionStatus = 0;
+    // bumped when the state shown in the badges changes, so they are only built again then
+    public int badgeVersion = 0;
+    public final AvatarMetrics metrics = new AvatarMetrics();
+    public final LuaLogBuffer log = new LuaLogBuffer(this);
 
     // limits
     public int animationComplexity;
     public final Instructions complexity;
     public final Instructions init, render, worldRender, tick, worldTick, animation;
     public final RefilledNumber particlesRemaining, soundsRemaining;
+    private static final int LIVE_PARTICLE_SECONDS = 10;
+
     private Avatar(UUID owner, EntityType<?> type, String name) {
+        this(owner, type, name, type == EntityType.PLAYER && FiguraMod.isLocal(owner), type == EntityType.PLAYER ? PermissionManager.get(owner) : PermissionManager.getMobPermissions(owner));
+    }
+
+    private Avatar(UUID owner, EntityType<?> type, String name, boolean isHost, PermissionPack.PlayerPermissionPack permissions) {
         this.owner = owner;
         this.entityType = type;
-        this.isHost = type == EntityType.PLAYER && FiguraMod.isLocal(owner);
-        this.permissions = type == EntityType.PLAYER ? PermissionManager.get(owner) : PermissionManager.getMobPermissions(owner);
+        this.isHost = isHost;
+        this.permissions = permissions;
         this.complexity = new Instructions(permissions.get(Permissions.COMPLEXITY));
         this.init = new Instructions(permissions.get(Permissions.INIT_INST));
         this.render = new Instructions(permissions.get(Permissions.RENDER_INST));
@@ -147,6 +180,7 @@ public class Avatar {
         this.particlesRemaining = new RefilledNumber(permissions.get(Permissions.PARTICLES));
         this.soundsRemaining = new RefilledNumber(permissions.get(Permissions.SOUNDS));
         this.entityName = name == null ? "" : name;
+        this.ioExecutor = new AvatarIOExecutor(owner.toString());
     }
 
     public Avatar(UUID owner) {
@@ -157,6 +191,18 @@ public class Avatar {
         this(entity.getUUID(), entity.getType(), entity.getName().getString());
     }
 
+    /**
+     * Creates an avatar which is not tied to the client, like a remote player avatar
+     * the permissions are given directly, as there might be no permission manager loaded
+     */
+    public static Avatar createHeadless(UUID owner, String name, PermissionPack.PlayerPermissionPack permissions) {
+        return new Avatar(owner, EntityType.PLAYER, name, false, permissions);
+    }
+
+    public void badgesChanged() {
+        badgeVersion++;
+    }
+
     public void load(CompoundTag nbt) {
         Runnable toRun = () -> {
             this.nbt = nbt;
@@ -176,65 +222,87 @@ public class Avatar {
             return;
         }
 
-        tasks.thenRun(() -> {
-            try {
-                // metadata
-                CompoundTag metadata = nbt.getCompound("metadata");
-                name = metadata.getString("name");
-                authors = metadata.getString("authors");
-                version = new Version(metadata.getString("ver"));
-                if (metadata.contains("id"))
-                    id = metadata.getString("id");
-                if (metadata.contains("color"))
-                    color = metadata.getString("color");
-                if (metadata.contains("minify"))
-                    minify = metadata.getBoolean("minify");
-                if (nbt.contains("resources")) {
-                    CompoundTag res = nbt.getCompound("resources");
-                    for (String k :
-                            res.getAllKeys()) {
-                        resources.put(k, res.getByteArray(k));
-                    }
+        tasks.thenRun(this::loadNbt);
+    }
+
+    /**
+     * Loads the avatar on the calling thread, without waiting for other loading tasks
+     * used by the headless harness, where there is no game to synchronize with
+     */
+    public void loadNow(CompoundTag nbt) {
+        this.nbt = nbt;
+        loaded = false;
+
+        if (nbt == null) {
+            loaded = true;
+            return;
+        }
+
+        loadNbt();
+    }
+
+    private void loadNbt() {
+        try {
+            // metadata
+            CompoundTag metadata = nbt.getCompound("metadata");
+            name = metadata.getString("name");
+            authors = metadata.getString("authors");
+            version = new Version(metadata.getString("ver"));
+            if (metadata.contains("id"))
+                id = metadata.getString("id");
+            if (metadata.contains("color"))
+                color = metadata.getString("color");
+            if (metadata.contains("minify"))
+                minify = metadata.getBoolean("minify");
+            if (nbt.contains("resources")) {
+                CompoundTag res = nbt.getCompound("resources");
+                for (String k :
+                        res.getAllKeys()) {
+                    resources.put(k, res.getByteArray(k));
                 }
-                for (String key : metadata.getAllKeys()) {
-                    if (key.contains("badge_color_")) {
-                        badgeToColor.put(key.replace("badge_color_", ""), metadata.getString(key));
-                    }
+            }
+            for (String key : metadata.getAllKeys()) {
+                if (key.contains("badge_color_")) {
+                    badgeToColor.put(key.replace("badge_color_", ""), metadata.getString(key));
                 }
-                fileSize = getFileSize();
-                versionStatus = getVersionStatus();
-                if (entityName.isBlank())
-                    entityName = name;
-
-                // animations and models
-                loadAnimations();
-                renderer = new ImmediateAvatarRenderer(this);
-
-                // sounds and script
-                loadCustomSounds();
-                createLuaRuntime();
-            } catch (Exception e) {
-                FiguraMod.LOGGER.error("", e);
-                clean();
-                this.nbt = null;
-                this.renderer = null;
-                this.luaRuntime = null;
             }
+            fileSize = getFileSize();
+            versionStatus = getVersionStatus();
+            if (entityName.isBlank())
+                entityName = name;
+
+            // animations and models
+            loadAnimations();
+            renderer = new ImmediateAvatarRenderer(this);
+
+            // sounds and script
+            loadCustomSounds();
+            createLuaRuntime();
+        } catch (Exception e) {
+            FiguraMod.LOGGER.error("", e);
+            clean();
+            this.nbt = null;
+            this.renderer = null;
+            this.luaRuntime = null;
+        }
 
-            loaded = true;
-        });
+        loaded = true;
     }
 
     public void tick() {
         if (scriptError || luaRuntime == null || !loaded)
             return;
 
+        // finished io of the scripts
+        ioExecutor.tick();
+
         // fetch this avatar entity
         if (luaRuntime.getUser() == null) {
             Entity entity = EntityUtils.getEntityByUUID(owner);
             if (entity != null) {
                 luaRuntime.setUser(entity);
-                run("ENTITY_INIT", init.post());
+                LuaEvent event = getEvent(e -> e.ENTITY_INIT, init.post());
+                if (event != null) run(event, init);
             }
         }
 
@@ -260,7 +328,8 @@ public class Avatar {
         // call events
         FiguraMod.pushProfiler("worldTick");
         worldTick.reset(permissions.get(Permissions.WORLD_TICK_INST));
-        run("WORLD_TICK", worldTick);
+        LuaEvent worldTickEvent = getEvent(e -> e.WORLD_TICK, worldTick);
+        if (worldTickEvent != null) run(worldTickEvent, worldTick);
 
         FiguraMod.popPushProfiler("tick");
         tick.reset(permissions.get(Permissions.TICK_INST));
@@ -283,7 +352,8 @@ public class Avatar {
 
         render.reset(permissions.get(Permissions.RENDER_INST));
         worldRender.reset(permissions.get(Permissions.WORLD_RENDER_INST));
-        run("WORLD_RENDER", worldRender, delta);
+        LuaEvent event = getEvent(e -> e.WORLD_RENDER, worldRender);
+        if (event != null) run(event, worldRender, delta);
     }
 
     public void runPing(int id, byte[] data) {
@@ -327,7 +397,15 @@ public class Avatar {
             return null;
 
         // run event
-        Varargs ret = luaRuntime.run(toRun, limit, args);
+        Varargs ret;
+        if (AvatarMetrics.enabled) {
+            long time = System.nanoTime();
+            long allocated = AvatarMetrics.allocatedBytes();
+            ret = luaRuntime.run(toRun, limit, args);
+            recordRun(toRun, System.nanoTime() - time, allocated);
+        } else {
+            ret = luaRuntime.run(toRun, limit, args);
+        }
 
         // stuff that this run produced
         flushQueuedEvents();
@@ -336,6 +414,39 @@ public class Avatar {
         return ret;
     }
 
+    private void recordRun(Object toRun, long time, long allocated) {
+        String name;
+        if (toRun instanceof LuaEvent event)
+            name = event.getName();
+        else if (toRun instanceof String event)
+            name = event.toUpperCase();
+        else
+            name = "FUNCTION";
+
+        metrics.record(AvatarMetrics.EVENT_TIME, name, time);
+        if (luaRuntime != null)
+            metrics.record(AvatarMetrics.EVENT_INSTRUCTIONS, name, luaRuntime.getInstructions());
+        if (allocated >= 0)
+            metrics.record(AvatarMetrics.EVENT_ALLOCATION, name, AvatarMetrics.allocatedBytes() - allocated);
+    }
+
+    /**
+     * Gets an event of this avatar, but only if the script has registered functions on it
+     * so callers can skip converting the event arguments when nothing is listening
+     * when skipping, the queued events are still flushed and the instructions limit is still updated, like an empty run would
+     */
+    private LuaEvent getEvent(Function<EventsAPI, LuaEvent> getter, Instructions limit) {
+        if (!scriptError && luaRuntime != null && loaded && luaRuntime.events != null) {
+            LuaEvent event = getter.apply(luaRuntime.events);
+            if (luaRuntime.events.hasListeners(event))
+                return event;
+        }
+
+        flushQueuedEvents();
+        limit.use(0);
+        return null;
+    }
+
     public void punish(int amount) {
         if (luaRuntime != null)
             luaRuntime.takeInstructions(amount);
@@ -354,18 +465,24 @@ public class Avatar {
     }
 
     public void tickEvent() {
-        if (loaded && luaRuntime != null && luaRuntime.getUser() != null)
-            run("TICK", tick);
+        if (loaded && luaRuntime != null && luaRuntime.getUser() != null) {
+            LuaEvent event = getEvent(e -> e.TICK, tick);
+            if (event != null) run(event, tick);
+        }
     }
 
     public void renderEvent(float delta, FiguraMat4 poseMatrix) {
-        if (loaded && luaRuntime != null && luaRuntime.getUser() != null)
-            run("RENDER", render, delta, renderMode.name(), poseMatrix);
+        if (loaded && luaRuntime != null && luaRuntime.getUser() != null) {
+            LuaEvent event = getEvent(e -> e.RENDER, render);
+            if (event != null) run(event, render, delta, renderMode.name(), poseMatrix);
+        }
     }
 
     public void postRenderEvent(float delta, FiguraMat4 poseMatrix) {
-        if (loaded && luaRuntime != null && luaRuntime.getUser() != null)
-            run("POST_RENDER", render.post(), delta, renderMode.name(), poseMatrix);
+        if (loaded && luaRuntime != null && luaRuntime.getUser() != null) {
+            LuaEvent event = getEvent(e -> e.POST_RENDER, render.post());
+            if (event != null) run(event, render, delta, renderMode.name(), poseMatrix);
+        }
         renderMode = EntityRenderMode.OTHER;
     }
 
@@ -376,35 +493,42 @@ public class Avatar {
         if (renderer != null)
             renderer.allowMatrixUpdate = false;
 
-        run("POST_WORLD_RENDER", worldRender.post(), delta);
+        LuaEvent event = getEvent(e -> e.POST_WORLD_RENDER, worldRender.post());
+        if (event != null) run(event, worldRender, delta);
     }
 
-    public boolean skullRenderEvent(float delta, BlockStateAPI block, ItemStackAPI item, EntityAPI<?> entity, String mode) {
+    public boolean skullRenderEvent(float delta, BlockStateAPI block, ItemStackAPI item, Entity entity, String mode) {
         Varargs result = null;
-        if (loaded && renderer != null && renderer.allowSkullRendering)
-            result = run("SKULL_RENDER", render, delta, block, item, entity, mode);
+        if (loaded && renderer != null && renderer.allowSkullRendering) {
+            LuaEvent event = getEvent(e -> e.SKULL_RENDER, render);
+            if (event != null) result = run(event, render, delta, block, item, entity, mode);
+        }
         return isCancelled(result);
     }
 
     public boolean useItemEvent(ItemStackAPI stack, String type, int particleCount) {
-        Varargs result = loaded ? run("USE_ITEM", tick, stack, type, particleCount) : null;
+        LuaEvent event = loaded ? getEvent(e -> e.USE_ITEM, tick) : null;
+        Varargs result = event != null ? run(event, tick, stack, type, particleCount) : null;
         return isCancelled(result);
     }
 
-    public boolean arrowRenderEvent(float delta, EntityAPI<?> arrow) {
+    public boolean arrowRenderEvent(float delta, Entity arrow) {
         Varargs result = null;
-        if (loaded) result = run("ARROW_RENDER", render, delta, arrow);
+        LuaEvent event = loaded ? getEvent(e -> e.ARROW_RENDER, render) : null;
+        if (event != null) result = run(event, render, delta, arrow);
         return isCancelled(result);
     }
 
-    public boolean tridentRenderEvent(float delta, EntityAPI<?> trident) {
+    public boolean tridentRenderEvent(float delta, Entity trident) {
         Varargs result = null;
-        if (loaded) result = run("TRIDENT_RENDER", render, delta, trident);
+        LuaEvent event = loaded ? getEvent(e -> e.TRIDENT_RENDER, render) : null;
+        if (event != null) result = run(event, render, delta, trident);
         return isCancelled(result);
     }
 
     public boolean itemRenderEvent(ItemStackAPI item, String mode, FiguraVec3 pos, FiguraVec3 rot, FiguraVec3 scale, boolean leftHanded, PoseStack stack, MultiBufferSource bufferSource, int light, int overlay) {
-        Varargs result = loaded ? run("ITEM_RENDER", render, item, mode, pos, rot, scale, leftHanded) : null;
+        LuaEvent event = loaded ? getEvent(e -> e.ITEM_RENDER, render) : null;
+        Varargs result = event != null ? run(event, render, item, mode, pos, rot, scale, leftHanded) : null;
         if (result == null)
             return false;
 
@@ -417,22 +541,26 @@ public class Avatar {
     }
 
     public void playSoundEvent(String id, FiguraVec3 pos, float vol, float pitch, boolean loop, String category, String file) {
-        if (loaded) run("ON_PLAY_SOUND", tick, id, pos, vol, pitch, loop, category, file);
+        LuaEvent event = loaded ? getEvent(e -> e.ON_PLAY_SOUND, tick) : null;
+        if (event != null) run(event, tick, id, pos, vol, pitch, loop, category, file);
     }
 
     public void resourceReloadEvent() {
-        if (loaded) run("RESOURCE_RELOAD", tick);
+        LuaEvent event = loaded ? getEvent(e -> e.RESOURCE_RELOAD, tick) : null;
+        if (event != null) run(event, tick);
     }
 
     // -- host only events -- // 
 
     public String chatSendMessageEvent(String message) { // piped event
-        Varargs val = loaded ? run("CHAT_SEND_MESSAGE", tick, message) : null;
+        LuaEvent event = loaded ? getEvent(e -> e.CHAT_SEND_MESSAGE, tick) : null;
+        Varargs val = event != null ? run(event, tick, message) : null;
         return val == null || (!val.isnil(1) && !Configs.CHAT_MESSAGES.value) ? message : val.isnil(1) ? "" : val.arg(1).tojstring();
     }
 
     public Pair<String, Integer> chatReceivedMessageEvent(String message, String json) { // special case
-        Varargs val = loaded ? run("CHAT_RECEIVE_MESSAGE", tick, message, json) : null;
+        LuaEvent event = loaded ? getEvent(e -> e.CHAT_RECEIVE_MESSAGE, tick) : null;
+        Varargs val = event != null ? run(event, tick, message, json) : null;
         if (val == null)
             return null;
 
@@ -448,27 +576,32 @@ public class Avatar {
     }
 
     public boolean mouseScrollEvent(double delta) {
-        Varargs result = loaded ? run("MOUSE_SCROLL", tick, delta) : null;
+        LuaEvent event = loaded ? getEvent(e -> e.MOUSE_SCROLL, tick) : null;
+        Varargs result = event != null ? run(event, tick, delta) : null;
         return isCancelled(result);
     }
 
     public boolean mouseMoveEvent(double x, double y) {
-        Varargs result = loaded ? run("MOUSE_MOVE", tick, x, y) : null;
+        LuaEvent event = loaded ? getEvent(e -> e.MOUSE_MOVE, tick) : null;
+        Varargs result = event != null ? run(event, tick, x, y) : null;
         return isCancelled(result);
     }
 
     public boolean mousePressEvent(int button, int action, int modifiers) {
-        Varargs result = loaded ? run("MOUSE_PRESS", tick, button, action, modifiers) : null;
+        LuaEvent event = loaded ? getEvent(e -> e.MOUSE_PRESS, tick) : null;
+        Varargs result = event != null ? run(event, tick, button, action, modifiers) : null;
         return isCancelled(result);
     }
 
     public boolean keyPressEvent(int key, int action, int modifiers) {
-        Varargs result = loaded ? run("KEY_PRESS", tick, key, action, modifiers) : null;
+        LuaEvent event = loaded ? getEvent(e -> e.KEY_PRESS, tick) : null;
+        Varargs result = event != null ? run(event, tick, key, action, modifiers) : null;
         return isCancelled(result);
     }
 
     public void charTypedEvent(String chars, int modifiers, int codePoint) {
-        if (loaded) run("CHAR_TYPED", tick, chars, modifiers, codePoint);
+        LuaEvent event = loaded ? getEvent(e -> e.CHAR_TYPED, tick) : null;
+        if (event != null) run(event, tick, chars, modifiers, codePoint);
     }
 
     // -- rendering events -- // 
@@ -928,16 +1061,18 @@ public class Avatar {
 
         clearSounds();
         clearParticles();
+        ioExecutor.close();
         closeSockets();
         closeBuffers();
+        log.clear();
 
         events.clear();
     }
 
     public void clearSounds() {
         SoundAPI.getSoundEngine().figura$stopSound(owner, null);
-        for (SoundBuffer value : customSounds.values())
-            value.releaseAlBuffer();
+        for (CustomSound value : customSounds.values())
+            value.release();
     }
 
     public void closeSockets() {
@@ -968,6 +1103,14 @@ public class Avatar {
         ParticleAPI.getParticleEngine().figura$clearParticles(owner);
     }
 
+    // how many particles of this avatar can be alive at once, some seconds worth of the spawn rate
+    public int getMaxLiveParticles() {
+        int rate = permissions.get(Permissions.PARTICLES);
+        if (Permissions.PARTICLES.checkInfinity(rate))
+            return Integer.MAX_VALUE;
+        return rate * LIVE_PARTICLE_SECONDS;
+    }
+
     private int getFileSize() {
         try {
             // get size
@@ -1086,10 +1229,15 @@ public class Avatar {
     }
 
     public void loadSound(String name, byte[] data) throws Exception {
-        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(data); OggAudioStream oggAudioStream = new OggAudioStream(inputStream)) {
-            SoundBuffer sound = new SoundBuffer(oggAudioStream.readAll(), oggAudioStream.getFormat());
-            this.customSounds.put(name, sound);
-        }
+        this.customSounds.put(name, new CustomSound(data));
+    }
+
+    // how many sounds of this avatar can play at once, the same as its sounds per second
+    public int getMaxVoices() {
+        int sounds = permissions.get(Permissions.SOUNDS);
+        if (Permissions.SOUNDS.checkInfinity(sounds))
+            return Integer.MAX_VALUE;
+        return Math.max(sounds, 1);
     }
 
     public FiguraTexture registerTexture(String name, NativeImage image, boolean ignoreSize) {
@@ -0,0 +1,172 @@
+package org.figuramc.figura.avatar;
+
+import org.figuramc.figura.FiguraMod;
+import org.figuramc.figura.lua.api.data.FiguraFuture;
+import org.luaj.vm2.LuaError;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the blocking io started by the scripts of one avatar, instead of the shared common pool
+ * each avatar has a few threads and a bounded queue, so one avatar can only slow down itself
+ * results are queued and handed to the script futures on the tick thread, a batch per tick
+ */
+public class AvatarIOExecutor {
+
+    private static final int THREADS = 2;
+    private static final int MAX_PENDING = 32;
+    private static final int MAX_RESULTS_PER_TICK = 64;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final String name;
+    private final Queue<Result> results = new ConcurrentLinkedQueue<>();
+    private final Set<Future<?>> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private ThreadPoolExecutor executor;
+    private volatile boolean closed;
+
+    public AvatarIOExecutor(String name) {
+        this.name = name;
+    }
+
+    // threads are only created when the avatar does io, and stop when it is idle
+    private synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            AtomicInteger count = new AtomicInteger();
+            executor = new ThreadPoolExecutor(THREADS, THREADS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+                Thread thread = new Thread(task, "Figura IO (" + name + ") #" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    private void reserve() {
+        if (closed)
+            throw new LuaError("This avatar was unloaded");
+        if (pendingCount.incrementAndGet() > MAX_PENDING) {
+            pendingCount.decrementAndGet();
+            throw new LuaError("Too many pending io operations, the limit is %s".formatted(MAX_PENDING));
+        }
+    }
+
+    /**
+     * Runs a task in the avatar io threads
+     *
+     * @param task - the blocking work, its result or error completes the future
+     * @param future - the script future, only completed on the tick thread
+     */
+    public <T> FiguraFuture<T> submit(Callable<T> task, FiguraFuture<T> future) {
+        reserve();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            Future<?> running = getExecutor().submit(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+            // cancelling the result interrupts the task
+            result.whenComplete((v, t) -> {
+                if (result.isCancelled()) running.cancel(true);
+            });
+        } catch (RejectedExecutionException e) {
+            pendingCount.decrementAndGet();
+            throw new LuaError("This avatar was unloaded");
+        }
+        track(result, future);
+        return future;
+    }
+
+    /**
+     * Delivers the result of work running elsewhere, such as http requests, on the tick thread
+     * it still counts towards the pending limit and is cancelled when the avatar unloads
+     *
+     * @param start - starts the work, only called once there is room for it, so refused work is never started
+     */
+    public <T> FiguraFuture<T> await(Supplier<CompletableFuture<T>> start, FiguraFuture<T> future) {
+        reserve();
+        CompletableFuture<T> work;
+        try {
+            work = start.get();
+        } catch (Throwable t) {
+            pendingCount.decrementAndGet();
+            throw t;
+        }
+        track(work, future);
+        return future;
+    }
+
+    private <T> void track(CompletableFuture<T> work, FiguraFuture<T> future) {
+        pending.add(work);
+        work.whenComplete((value, error) -> {
+            pending.remove(work);
+            pendingCount.decrementAndGet();
+            if (closed) {
+                discard(value);
+                return;
+            }
+            Result result = new Result(value, () -> future.handle(value, error instanceof CompletionException e && e.getCause() != null ? e.getCause() : error));
+            results.add(result);
+            // closed while adding, after the results were drained
+            if (closed && results.remove(result))
+                discard(value);
+        });
+        // closed while the work was being queued
+        if (closed)
+            work.cancel(true);
+    }
+
+    // results nobody is going to read are closed, so sockets and streams are not leaked
+    private static void discard(Object value) {
+        if (value instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {}
+        }
+    }
+
+    /**
+     * Completes the script futures of the finished work, called every tick
+     */
+    public void tick() {
+        Result result;
+        for (int i = 0; i < MAX_RESULTS_PER_TICK && (result = results.poll()) != null; i++) {
+            try {
+                result.delivery.run();
+            } catch (Exception e) {
+                FiguraMod.LOGGER.error("Failed to deliver io result of " + name, e);
+            }
+        }
+    }
+
+    /**
+     * Cancels the pending work and stops the threads, further tasks are refused
+     */
+    public void close() {
+        closed = true;
+        for (Future<?> work : pending)
+            work.cancel(true);
+        pending.clear();
+
+        // finished but not delivered, so they are closed too
+        Result result;
+        while ((result = results.poll()) != null)
+            discard(result.value);
+
+        synchronized (this) {
+            if (executor != null)
+                executor.shutdownNow();
+        }
+    }
+
+    // the value is kept next to its delivery, so it can still be closed if it is never delivered
+    private record Result(Object value, Runnable delivery) {}
+}
@@ -193,6 +193,7 @@ public class AvatarManager {
         if (user != null) user.clear();
 
         NetworkStuff.clear(id);
+        Badges.clearCache(id);
         FiguraMod.debug("Cleared avatars of " + id);
     }
 
@@ -210,6 +211,7 @@ public class AvatarManager {
         LOADED_USERS.clear();
         FETCHED_USERS.clear();
         clearCEMAvatars();
+        Badges.clearCache();
 
         localUploaded = true;
         AvatarList.selectedEntry = null;
@@ -0,0 +1,122 @@
+package org.figuramc.figura.avatar;
+
+import com.google.gson.JsonObject;
+import org.figuramc.figura.FiguraMod;
+import org.figuramc.figura.utils.RollingHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Performance metrics of an avatar, kept as rolling histograms grouped by what was measured
+ * like "event_time" -> "TICK", or "render_vertices" -> "WORLD"
+ * nothing is collected until enabled, by the metrics command or the MXBean, so the hot paths only read a flag
+ */
+public class AvatarMetrics {
+
+    // metric groups
+    public static final String EVENT_TIME = "event_time"; // nanoseconds
+    public static final String EVENT_INSTRUCTIONS = "event_instructions";
+    public static final String EVENT_ALLOCATION = "event_allocation"; // bytes
+    public static final String RENDER_TIME = "render_time"; // nanoseconds
+    public static final String RENDER_VERTICES = "render_vertices";
+    public static final String RENDER_FACES = "render_faces";
+    public static final String TEXTURE_UPLOAD = "texture_upload"; // bytes
+    public static final String PING = "ping"; // bytes
+
+    // ticks per window, so the histograms cover the last 10 to 20 seconds
+    private static final int WINDOW = 200;
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN;
+    static {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled())
+            THREAD_BEAN = sunBean;
+        else
+            THREAD_BEAN = null;
+    }
+
+    public static volatile boolean enabled;
+
+    private final Map<String, Map<String, RollingHistogram>> groups = new ConcurrentHashMap<>();
+    private int windowStart = FiguraMod.ticks;
+
+    public void record(String group, String name, long value) {
+        if (!enabled)
+            return;
+
+        if (FiguraMod.ticks - windowStart >= WINDOW)
+            rotate();
+
+        groups.computeIfAbsent(group, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, k -> new RollingHistogram())
+                .record(value);
+    }
+
+    private synchronized void rotate() {
+        if (FiguraMod.ticks - windowStart < WINDOW)
+            return;
+
+        // skip a window when nothing was recorded for a while, so old values are not reported as recent
+        boolean stale = FiguraMod.ticks - windowStart >= WINDOW * 2;
+        windowStart = FiguraMod.ticks;
+        for (Map<String, RollingHistogram> group : groups.values()) {
+            for (RollingHistogram histogram : group.values()) {
+                if (stale) histogram.reset();
+                else histogram.rotate();
+            }
+        }
+    }
+
+    public void reset() {
+        groups.clear();
+    }
+
+    public RollingHistogram get(String group, String name) {
+        Map<String, RollingHistogram> map = groups.get(group);
+        return map == null ? null : map.get(name);
+    }
+
+    // sorted snapshot of all metrics
+    public Map<String, Map<String, RollingHistogram.Snapshot>> snapshot() {
+        Map<String, Map<String, RollingHistogram.Snapshot>> result = new TreeMap<>();
+        for (Map.Entry<String, Map<String, RollingHistogram>> group : groups.entrySet()) {
+            Map<String, RollingHistogram.Snapshot> map = new TreeMap<>();
+            for (Map.Entry<String, RollingHistogram> entry : group.getValue().entrySet())
+                map.put(entry.getKey(), entry.getValue().snapshot());
+            result.put(group.getKey(), map);
+        }
+        return result;
+    }
+
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, Map<String, RollingHistogram.Snapshot>> group : snapshot().entrySet()) {
+            JsonObject groupJson = new JsonObject();
+            for (Map.Entry<String, RollingHistogram.Snapshot> entry : group.getValue().entrySet()) {
+                RollingHistogram.Snapshot snapshot = entry.getValue();
+                JsonObject obj = new JsonObject();
+                obj.addProperty("count", snapshot.count());
+                obj.addProperty("min", snapshot.min());
+                obj.addProperty("max", snapshot.max());
+                obj.addProperty("mean", snapshot.mean());
+                obj.addProperty("p50", snapshot.p50());
+                obj.addProperty("p90", snapshot.p90());
+                obj.addProperty("p99", snapshot.p99());
+                groupJson.add(entry.getKey(), obj);
+            }
+            json.add(group.getKey(), groupJson);
+        }
+        return json;
+    }
+
+    /**
+     * @return the bytes allocated so far by the current thread, or -1 when the JVM does not support it
+     */
+    public static long allocatedBytes() {
+        return THREAD_BEAN == null ? -1 : THREAD_BEAN.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,25 @@
+package org.figuramc.figura.avatar;
+
+/**
+ * JMX view of the avatar metrics, registered as "org.figuramc.figura:type=AvatarMetrics"
+ */
+public interface AvatarMetricsMXBean {
+
+    // owner uuids of the loaded avatars
+    String[] getAvatars();
+
+    // same data as the metrics json export
+    String getJson();
+
+    long getCount(String owner, String group, String name);
+
+    double getMean(String owner, String group, String name);
+
+    long getPercentile(String owner, String group, String name, double percentile);
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    void reset();
+}
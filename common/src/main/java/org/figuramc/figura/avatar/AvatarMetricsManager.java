@@ -0,0 +1,110 @@
+package org.figuramc.figura.avatar;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import org.figuramc.figura.FiguraMod;
+import org.figuramc.figura.utils.RollingHistogram;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+public class AvatarMetricsManager {
+
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
+
+    public static void init() {
+        try {
+            ObjectName name = new ObjectName(FiguraMod.MOD_ID, "type", "AvatarMetrics");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name))
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), name);
+        } catch (Exception e) {
+            FiguraMod.LOGGER.warn("Failed to register the avatar metrics MBean", e);
+        }
+    }
+
+    public static JsonObject toJson() {
+        JsonObject root = new JsonObject();
+        root.addProperty("ticks", FiguraMod.ticks);
+
+        JsonObject avatars = new JsonObject();
+        for (Avatar avatar : AvatarManager.getLoadedAvatars()) {
+            JsonObject obj = avatar.metrics.toJson();
+            obj.addProperty("name", avatar.entityName);
+            avatars.add(avatar.owner.toString(), obj);
+        }
+        root.add("avatars", avatars);
+
+        return root;
+    }
+
+    // writes the metrics of all loaded avatars next to the debug data
+    public static Path export() throws IOException {
+        Path targetPath = FiguraMod.getFiguraDirectory().resolve("metrics_data.json");
+        Files.writeString(targetPath, GSON.toJson(toJson()));
+        return targetPath;
+    }
+
+    // stopping also clears the collected data, as it would not be updated anymore
+    public static void setEnabled(boolean enabled) {
+        AvatarMetrics.enabled = enabled;
+        if (!enabled) reset();
+    }
+
+    public static void reset() {
+        for (Avatar avatar : AvatarManager.getLoadedAvatars())
+            avatar.metrics.reset();
+    }
+
+    private static RollingHistogram get(String owner, String group, String name) {
+        Avatar avatar = AvatarManager.getLoadedAvatar(UUID.fromString(owner));
+        RollingHistogram histogram = avatar == null ? null : avatar.metrics.get(group, name);
+        return histogram == null ? new RollingHistogram() : histogram;
+    }
+
+    private static class Bean implements AvatarMetricsMXBean {
+        @Override
+        public String[] getAvatars() {
+            return AvatarManager.getLoadedAvatars().stream().map(avatar -> avatar.owner.toString()).toArray(String[]::new);
+        }
+
+        @Override
+        public String getJson() {
+            return GSON.toJson(toJson());
+        }
+
+        @Override
+        public long getCount(String owner, String group, String name) {
+            return get(owner, group, name).snapshot().count();
+        }
+
+        @Override
+        public double getMean(String owner, String group, String name) {
+            return get(owner, group, name).snapshot().mean();
+        }
+
+        @Override
+        public long getPercentile(String owner, String group, String name, double percentile) {
+            return get(owner, group, name).percentile(percentile);
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return AvatarMetrics.enabled;
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            AvatarMetricsManager.setEnabled(enabled);
+        }
+
+        @Override
+        public void reset() {
+            AvatarMetricsManager.reset();
+        }
+    }
+}
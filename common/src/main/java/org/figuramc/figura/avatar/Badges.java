@@ -15,27 +15,74 @@ import org.figuramc.figura.utils.FiguraText;
 import org.figuramc.figura.utils.TextUtils;
 import org.figuramc.figura.utils.ui.UIHelper;
 
-import java.util.BitSet;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Badges {
 
     public static final ResourceLocation FONT = new FiguraIdentifier("badges");
 
+    // badges are rendered every frame for every player, so we keep the last built badges
+    // and only build them again when any of their inputs changes
+    // entries are removed when the avatars of the player are cleared
+    private static final Map<UUID, BadgeState> BADGES_CACHE = new ConcurrentHashMap<>();
+    // nameplate texts with badges, per player and place
+    private static final Map<NameplateKey, NameplateState> NAMEPLATE_CACHE = new ConcurrentHashMap<>();
+    // every badges build gets a new version, 0 is no badges
+    private static int nextVersion = 1;
+
     public static Component fetchBadges(UUID id) {
+        BadgeState state = fetchState(id);
+        return state == null ? Component.empty() : state.badges;
+    }
+
+    private static BadgeState fetchState(UUID id) {
         if (PermissionManager.get(id).getCategory() == Permissions.Category.BLOCKED)
-            return Component.empty();
+            return null;
 
         // get user data
         Pair<BitSet, BitSet> pair = AvatarManager.getBadges(id);
         if (pair == null)
-            return Component.empty();
+            return null;
+
+        Avatar avatar = AvatarManager.getAvatarForPlayer(id);
+        boolean sound = avatar != null && Configs.SOUND_BADGE.value && isPlayingSound(avatar, id);
+
+        BadgeState state = BADGES_CACHE.get(id);
+        if (state != null && state.matches(pair, avatar, sound))
+            return state;
+
+        state = new BadgeState(pair, avatar, sound, buildBadges(pair, avatar, sound), nextVersion++);
+        BADGES_CACHE.put(id, state);
+        return state;
+    }
 
+    public static void clearCache() {
+        BADGES_CACHE.clear();
+        NAMEPLATE_CACHE.clear();
+    }
+
+    public static void clearCache(UUID id) {
+        BADGES_CACHE.remove(id);
+        NAMEPLATE_CACHE.keySet().removeIf(key -> key.id.equals(id));
+    }
+
+    private static boolean isPlayingSound(Avatar avatar, UUID id) {
+        if (avatar.lastPlayingSound > 0)
+            return true;
+
+        if (SoundAPI.getSoundEngine().figura$isPlaying(id)) {
+            avatar.lastPlayingSound = 20;
+            return true;
+        }
+
+        return false;
+    }
+
+    private static Component buildBadges(Pair<BitSet, BitSet> pair, Avatar avatar, boolean sound) {
         MutableComponent badges = Component.empty().withStyle(Style.EMPTY.withFont(FONT).withColor(ChatFormatting.WHITE).withObfuscated(false));
 
         // avatar badges
-        Avatar avatar = AvatarManager.getAvatarForPlayer(id);
         if (avatar != null) {
 
             // -- loading -- // 
@@ -108,14 +155,8 @@ public class Badges {
 
 
         // sound
-        if (avatar != null && Configs.SOUND_BADGE.value) {
-            if (avatar.lastPlayingSound > 0) {
-                badges.append(System.SOUND.badge);
-            } else if (SoundAPI.getSoundEngine().figura$isPlaying(id)) {
-                avatar.lastPlayingSound = 20;
-                badges.append(System.SOUND.badge);
-            }
-        }
+        if (sound)
+            badges.append(System.SOUND.badge);
 
 
         // -- return -- // 
@@ -135,7 +176,38 @@ public class Badges {
     }
 
     public static Component appendBadges(Component text, UUID id, boolean allow) {
-        Component badges = allow ? fetchBadges(id) : Component.empty();
+        return appendBadges(text, allow ? fetchBadges(id) : Component.empty());
+    }
+
+    /**
+     * Builds the nameplate text of a player, the custom text with its name and badges, or the name with the badges
+     * the result is kept until the custom text, the name or the badges version changes
+     *
+     * @param place - the nameplate being built, each one is cached separately
+     * @param custom - the avatar custom text, compared by identity as it is only replaced when the script sets it
+     * @param singleLine - if line breaks should be removed and the text trimmed
+     */
+    public static Component nameplate(UUID id, String place, Component custom, String name, boolean allow, boolean singleLine) {
+        BadgeState badges = allow ? fetchState(id) : null;
+        int version = badges == null ? 0 : badges.version;
+
+        NameplateKey key = new NameplateKey(id, place);
+        NameplateState state = NAMEPLATE_CACHE.get(key);
+        if (state != null && state.custom == custom && state.version == version && state.name.equals(name))
+            return state.text;
+
+        Component nameComponent = Component.literal(name);
+        Component text = custom == null ? nameComponent : singleLine ? TextUtils.replaceInText(custom.copy(), "\n|\\\\n", " ") : custom.copy();
+        text = TextUtils.replaceInText(text, "\\$\\{name\\}", nameComponent);
+        text = appendBadges(text, badges == null ? Component.empty() : badges.badges);
+        if (singleLine)
+            text = TextUtils.trim(text);
+
+        NAMEPLATE_CACHE.put(key, new NameplateState(custom, name, version, text));
+        return text;
+    }
+
+    private static Component appendBadges(Component text, Component badges) {
         boolean custom = hasCustomBadges(text);
 
         // no custom badges text
@@ -148,6 +220,38 @@ public class Badges {
         return text;
     }
 
+    private record NameplateKey(UUID id, String place) {}
+
+    private record NameplateState(Component custom, String name, int version, Component text) {}
+
+    // the inputs used to build the badges of a player
+    // the avatar state is compared by its badge version, and the loading badge is built every time as it is animated
+    private static class BadgeState {
+        private final Pair<BitSet, BitSet> pair;
+        private final Avatar avatar;
+        private final boolean loaded, sound;
+        private final int avatarVersion;
+        private final Component badges;
+        private final int version;
+
+        private BadgeState(Pair<BitSet, BitSet> pair, Avatar avatar, boolean sound, Component badges, int version) {
+            this.pair = pair;
+            this.avatar = avatar;
+            this.sound = sound;
+            this.badges = badges;
+            this.version = version;
+            this.loaded = avatar == null || avatar.loaded;
+            this.avatarVersion = avatar == null ? 0 : avatar.badgeVersion;
+        }
+
+        private boolean matches(Pair<BitSet, BitSet> pair, Avatar avatar, boolean sound) {
+            if (this.pair != pair || this.avatar != avatar || this.sound != sound)
+                return false;
+
+            return avatar == null || loaded && avatar.loaded && avatarVersion == avatar.badgeVersion;
+        }
+    }
+
     public enum System {
         DEFAULT("△"),
         PERMISSIONS("\uD83D\uDEE1"),
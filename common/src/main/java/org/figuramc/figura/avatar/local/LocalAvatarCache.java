@@ -0,0 +1,177 @@
+package org.figuramc.figura.avatar.local;
+
+import org.figuramc.figura.FiguraMod;
+import org.figuramc.figura.utils.IOUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * cache of the data derived from each file of the local avatar
+ * used for hot-swapping, so only the files which content changed are processed again
+ */
+public class LocalAvatarCache {
+
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Path> used = ConcurrentHashMap.newKeySet();
+    private Path root;
+
+    /**
+     * Prepares the cache for a new load of the avatar at the given path
+     * the cache is dropped when loading a different avatar
+     *
+     * @param path - the avatar folder
+     */
+    public void begin(Path path) {
+        if (!path.equals(root)) {
+            entries.clear();
+            root = path;
+        }
+        used.clear();
+    }
+
+    /**
+     * Finishes the current load, dropping the entries of the files that were not used anymore
+     */
+    public void end() {
+        entries.keySet().retainAll(used);
+        used.clear();
+    }
+
+    /**
+     * Gets the data derived from a file, only processing it when the file changed since the last load
+     *
+     * @param file - the file to load
+     * @param key - extra data that the result depends on, like parser settings
+     * @param loader - function that processes the file contents
+     * @return the cached or freshly processed data
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Path file, Object key, FileLoader<T> loader) throws Exception {
+        used.add(file);
+
+        Entry entry = entries.get(file);
+        if (entry != null && entry.key.equals(key) && entry.isValid()) {
+            for (Fingerprint dependency : entry.dependencies)
+                used.add(dependency.path);
+            return (T) entry.value;
+        }
+
+        byte[] bytes = IOUtils.readFileBytes(file);
+        Fingerprint fingerprint = Fingerprint.of(file, bytes);
+
+        // content did not change, only the file metadata
+        if (entry != null && entry.key.equals(key) && entry.fingerprint.hash == fingerprint.hash && entry.dependenciesValid()) {
+            entries.put(file, new Entry(fingerprint, entry.dependencies, key, entry.value));
+            return (T) entry.value;
+        }
+
+        Result<T> result = loader.load(bytes);
+        List<Fingerprint> dependencies = result.dependencies().stream().map(Fingerprint::of).toList();
+        entries.put(file, new Entry(fingerprint, dependencies, key, result.value()));
+        FiguraMod.debug("Processed avatar file \"{}\"", file);
+        return result.value();
+    }
+
+    /**
+     * Same as {@link #get}, but only checks the file size and modification time
+     * the loader reads the file itself, so big files can be streamed instead of fully read for hashing
+     *
+     * @param file - the file to load
+     * @param key - extra data that the result depends on
+     * @param loader - function that reads and processes the file
+     * @return the cached or freshly processed data
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getByMetadata(Path file, Object key, Callable<T> loader) throws Exception {
+        used.add(file);
+
+        Entry entry = entries.get(file);
+        if (entry != null && entry.key.equals(key) && entry.fingerprint.matches())
+            return (T) entry.value;
+
+        Fingerprint fingerprint = Fingerprint.ofMetadata(file);
+        T value = loader.call();
+        entries.put(file, new Entry(fingerprint, List.of(), key, value));
+        FiguraMod.debug("Processed avatar file \"{}\"", file);
+        return value;
+    }
+
+    @FunctionalInterface
+    public interface FileLoader<T> {
+        Result<T> load(byte[] bytes) throws Exception;
+    }
+
+    /**
+     * The data derived from a file
+     *
+     * @param value - the processed data
+     * @param dependencies - other files read while processing, which also invalidate the entry when changed
+     */
+    public record Result<T>(T value, Collection<Path> dependencies) {
+        public static <T> Result<T> of(T value) {
+            return new Result<>(value, List.of());
+        }
+    }
+
+    private record Entry(Fingerprint fingerprint, List<Fingerprint> dependencies, Object key, Object value) {
+        private boolean isValid() {
+            return fingerprint.matches() && dependenciesValid();
+        }
+
+        private boolean dependenciesValid() {
+            for (Fingerprint dependency : dependencies) {
+                if (!dependency.matches())
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    private record Fingerprint(Path path, long size, long modified, long hash) {
+        private static Fingerprint of(Path path, byte[] bytes) {
+            BasicFileAttributes attributes = attributes(path);
+            CRC32C crc = new CRC32C();
+            crc.update(bytes);
+            return new Fingerprint(path, bytes.length, attributes == null ? -1 : attributes.lastModifiedTime().toMillis(), crc.getValue());
+        }
+
+        private static Fingerprint of(Path path) {
+            try {
+                return of(path, IOUtils.readFileBytes(path));
+            } catch (IOException e) {
+                // missing dependencies never match, so they get checked again next load
+                return new Fingerprint(path, -1, -1, -1);
+            }
+        }
+
+        // metadata taken before reading the file, so changes made while reading are detected next time
+        private static Fingerprint ofMetadata(Path path) {
+            BasicFileAttributes attributes = attributes(path);
+            return attributes == null ? new Fingerprint(path, -1, -1, -1) : new Fingerprint(path, attributes.size(), attributes.lastModifiedTime().toMillis(), 0);
+        }
+
+        // quick check using the file metadata
+        private boolean matches() {
+            BasicFileAttributes attributes = attributes(path);
+            return attributes != null && attributes.size() == size && attributes.lastModifiedTime().toMillis() == modified;
+        }
+
+        private static BasicFileAttributes attributes(Path path) {
+            try {
+                return Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -12,12 +12,15 @@ import org.figuramc.figura.utils.FileTexture;
 import org.figuramc.figura.utils.IOUtils;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.*;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Stream;
 
 /**
@@ -30,10 +33,20 @@ public class LocalAvatarFetcher {
      * the whole filesystem of avatars.
      */
     public static final List<AvatarPath> ALL_AVATARS = new ArrayList<>();
-    private static final Map<String, Properties> SAVED_DATA = new HashMap<>();
+    private static final Map<String, Properties> SAVED_DATA = new ConcurrentHashMap<>();
 
     private static final Map<Path, WatchKey> WATCHED_KEYS = new HashMap<>();
 
+    // parsed avatar.json and icons, reused while the files are not modified
+    private static final Map<URI, CachedFile<AvatarMetadataParser.Metadata>> METADATA_CACHE = new ConcurrentHashMap<>();
+    private static final Map<URI, CachedFile<FileTexture>> ICON_CACHE = new ConcurrentHashMap<>();
+
+    // paths changed since the last scan, only the folders containing them are scanned again
+    private static final Set<Path> CHANGED_PATHS = new HashSet<>();
+    private static final ForkJoinPool SCAN_POOL = new ForkJoinPool(Math.max(Runtime.getRuntime().availableProcessors() - 1, 1));
+    private static FolderPath lastRoot;
+    private static boolean lastFileNames, fullRescan = true;
+
     private static boolean requireReload = true, loaded;
 
     /**
@@ -44,9 +57,23 @@ public class LocalAvatarFetcher {
         loaded = false;
         FiguraMod.debug("Reloading Avatar List...");
 
+        // get what changed since the last scan
+        Set<Path> changed;
+        FolderPath previous;
+        synchronized (CHANGED_PATHS) {
+            changed = Set.copyOf(CHANGED_PATHS);
+            CHANGED_PATHS.clear();
+
+            boolean fileNames = Configs.WARDROBE_FILE_NAMES.value;
+            previous = fullRescan || fileNames != lastFileNames ? null : lastRoot;
+            lastFileNames = fileNames;
+            fullRescan = false;
+        }
+
         // load avatars
         FolderPath root = new FolderPath(getLocalAvatarDirectory());
-        root.fetch();
+        root.fetch(previous, changed);
+        lastRoot = root;
 
         // add new avatars
         ALL_AVATARS.clear();
@@ -59,7 +86,7 @@ public class LocalAvatarFetcher {
             return CompletableFuture.completedFuture(null);
 
         requireReload = false;
-        return CompletableFuture.runAsync(LocalAvatarFetcher::loadAvatars);
+        return CompletableFuture.runAsync(LocalAvatarFetcher::loadAvatars, SCAN_POOL);
     }
 
     public static void tick() {
@@ -72,14 +99,23 @@ public class LocalAvatarFetcher {
 
             for (WatchEvent<?> event : key.pollEvents()) {
                 WatchEvent.Kind<?> kind = event.kind();
-                if (kind == StandardWatchEventKinds.OVERFLOW)
+                if (kind == StandardWatchEventKinds.OVERFLOW) {
+                    // events were lost, so we do not know what changed
+                    synchronized (CHANGED_PATHS) {
+                        fullRescan = true;
+                    }
+                    reload = true;
                     continue;
+                }
 
-                if (kind == StandardWatchEventKinds.ENTRY_CREATE && !LocalAvatarLoader.IS_WINDOWS) {
-                    Path child = entry.getKey().resolve((Path) event.context());
-                    LocalAvatarLoader.addWatchKey(child, WATCHED_KEYS::put);
+                Path child = entry.getKey().resolve((Path) event.context());
+                synchronized (CHANGED_PATHS) {
+                    CHANGED_PATHS.add(child);
                 }
 
+                if (kind == StandardWatchEventKinds.ENTRY_CREATE && !LocalAvatarLoader.IS_WINDOWS)
+                    LocalAvatarLoader.addWatchKey(child, WATCHED_KEYS::put);
+
                 reload = true;
             }
 
@@ -100,6 +136,13 @@ public class LocalAvatarFetcher {
         WATCHED_KEYS.clear();
         SAVED_DATA.clear();
         ALL_AVATARS.clear();
+        METADATA_CACHE.clear();
+        ICON_CACHE.clear();
+        synchronized (CHANGED_PATHS) {
+            CHANGED_PATHS.clear();
+            fullRescan = true;
+        }
+        lastRoot = null;
         requireReload = true;
         loaded = false;
         init();
@@ -183,6 +226,44 @@ public class LocalAvatarFetcher {
         }
     }
 
+    // true when the path was changed, or contains changed files
+    private static boolean isChanged(Path path, Set<Path> changed) {
+        if (path.getFileSystem() != FileSystems.getDefault())
+            return true;
+
+        for (Path p : changed) {
+            if (p.startsWith(path))
+                return true;
+        }
+        return false;
+    }
+
+    private static AvatarMetadataParser.Metadata readMetadata(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        URI key = file.toUri();
+
+        CachedFile<AvatarMetadataParser.Metadata> cached = METADATA_CACHE.get(key);
+        if (cached != null && cached.matches(attributes))
+            return cached.value();
+
+        AvatarMetadataParser.Metadata metadata = AvatarMetadataParser.read(IOUtils.readFile(file));
+        METADATA_CACHE.put(key, new CachedFile<>(attributes.size(), attributes.lastModifiedTime(), metadata));
+        return metadata;
+    }
+
+    private static FileTexture readIcon(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        URI key = file.toUri();
+
+        CachedFile<FileTexture> cached = ICON_CACHE.get(key);
+        if (cached != null && cached.matches(attributes))
+            return cached.value();
+
+        FileTexture texture = FileTexture.of(file);
+        ICON_CACHE.put(key, new CachedFile<>(attributes.size(), attributes.lastModifiedTime(), texture));
+        return texture;
+    }
+
     public static boolean isLoaded() {
         return loaded && !isReloadRequired();
     }
@@ -238,8 +319,7 @@ public class LocalAvatarFetcher {
             if (!(this instanceof FolderPath)) {
                 // metadata
                 try {
-                    String str = IOUtils.readFile(path.resolve("avatar.json"));
-                    AvatarMetadataParser.Metadata metadata = AvatarMetadataParser.read(str);
+                    AvatarMetadataParser.Metadata metadata = readMetadata(path.resolve("avatar.json"));
 
                     name = Configs.WARDROBE_FILE_NAMES.value || metadata.name == null || metadata.name.isBlank() ? filename : metadata.name;
                     description = metadata.description == null ? "" : metadata.description;
@@ -300,7 +380,7 @@ public class LocalAvatarFetcher {
                 iconLoaded = true;
                 try {
                     if (iconPath != null)
-                        this.iconTexture = FileTexture.of(iconPath);
+                        this.iconTexture = readIcon(iconPath);
                 } catch (Exception e) {
                     FiguraMod.LOGGER.error("Failed to load icon for \"" + path + "\"", e);
                 }
@@ -362,51 +442,78 @@ public class LocalAvatarFetcher {
          * We only want our FolderPath to contain sub-folders that actually have avatars.
          */
         public boolean fetch() {
+            return fetch(null, Set.of());
+        }
+
+        /**
+         * Same as {@link #fetch()}, but reuses the children of a previous scan of this folder
+         * when nothing inside them has changed.
+         * Sub-paths are scanned in parallel, while still keeping the file order.
+         * @param previous The previous scan of this folder, or null for a full scan.
+         * @param changed The paths that changed since the previous scan.
+         */
+        public boolean fetch(FolderPath previous, Set<Path> changed) {
             List<Path> files = IOUtils.listPaths(getPath());
             if (files == null)
                 return false;
 
-            boolean found = false;
-
             Path folderPath = this.path.getFileSystem() == FileSystems.getDefault() ? path : this.folder;
 
-            // iterate over all files on this path
-            // but skip non-folders
-            for (Path path : files) {
-                if (isAvatar(path)) {
-                    children.add(new AvatarPath(path, folderPath));
+            Map<Path, AvatarPath> previousChildren = new HashMap<>();
+            if (previous != null) {
+                for (AvatarPath child : previous.children)
+                    previousChildren.put(child.getTheActualPathForThis(), child);
+            }
+
+            List<ForkJoinTask<AvatarPath>> tasks = new ArrayList<>();
+            for (Path path : files)
+                tasks.add(ForkJoinTask.adapt(() -> scan(path, folderPath, previousChildren.get(path), changed)));
+            ForkJoinTask.invokeAll(tasks);
+
+            boolean found = false;
+            for (ForkJoinTask<AvatarPath> task : tasks) {
+                AvatarPath child = task.join();
+                if (child != null) {
+                    children.add(child);
                     found = true;
-                } else if (Files.isDirectory(path)) {
-                    FolderPath folder = new FolderPath(path, folderPath);
-                    if (folder.fetch()) {
-                        children.add(folder);
-                        found = true;
-                    }
-                } else if (IOUtils.getFileNameOrEmpty(path).endsWith(".zip")) {
-                    try {
-                        FileSystem opened = FileSystems.newFileSystem(path);
-                        if ("jar".equalsIgnoreCase(opened.provider().getScheme())) {
-                            Path newPath = opened.getPath("");
-                            if (isAvatar(newPath)) {
-                                children.add(new AvatarPath(newPath, folderPath, path));
-                                found = true;
-                            } else {
-                                FolderPath folder = new FolderPath(opened, folderPath, path);
-                                if (folder.fetch()) {
-                                    children.add(folder);
-                                    found = true;
-                                } else
-                                    opened.close();
-                            }
-                        } else
-                            opened.close();
-                    } catch (IOException ignored) {}
                 }
             }
 
             return found;
         }
 
+        // returns the avatar (or folder with avatars) at this path, or null if there is none
+        private static AvatarPath scan(Path path, Path folderPath, AvatarPath previous, Set<Path> changed) {
+            if (previous != null && !isChanged(previous.getTheActualPathForThis(), changed))
+                return previous;
+
+            if (isAvatar(path))
+                return new AvatarPath(path, folderPath);
+
+            if (Files.isDirectory(path)) {
+                FolderPath folder = new FolderPath(path, folderPath);
+                return folder.fetch(previous instanceof FolderPath f ? f : null, changed) ? folder : null;
+            }
+
+            if (IOUtils.getFileNameOrEmpty(path).endsWith(".zip")) {
+                try {
+                    FileSystem opened = FileSystems.newFileSystem(path);
+                    if ("jar".equalsIgnoreCase(opened.provider().getScheme())) {
+                        Path newPath = opened.getPath("");
+                        if (isAvatar(newPath))
+                            return new AvatarPath(newPath, folderPath, path);
+
+                        FolderPath folder = new FolderPath(opened, folderPath, path);
+                        if (folder.fetch())
+                            return folder;
+                    }
+                    opened.close();
+                } catch (IOException ignored) {}
+            }
+
+            return null;
+        }
+
         @Override
         public boolean search(String query) {
             boolean result = super.search(query);
@@ -424,6 +531,12 @@ public class LocalAvatarFetcher {
         }
     }
 
+    private record CachedFile<T>(long size, FileTime modified, T value) {
+        private boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && modified.equals(attributes.lastModifiedTime());
+        }
+    }
+
     private static class Properties {
         public boolean expanded = true;
         public boolean favourite;
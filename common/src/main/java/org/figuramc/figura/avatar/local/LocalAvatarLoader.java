@@ -7,6 +7,7 @@ import net.minecraft.server.packs.resources.Resource;
 import org.figuramc.figura.FiguraMod;
 import org.figuramc.figura.avatar.AvatarManager;
 import org.figuramc.figura.avatar.UserData;
+import org.figuramc.figura.config.Configs;
 import org.figuramc.figura.gui.FiguraToast;
 import org.figuramc.figura.parsers.AvatarMetadataParser;
 import org.figuramc.figura.parsers.BlockbenchModelParser;
@@ -16,9 +17,14 @@ import org.figuramc.figura.utils.FiguraText;
 import org.figuramc.figura.utils.IOUtils;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.BiConsumer;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPOutputStream;
@@ -31,6 +37,8 @@ public class LocalAvatarLoader {
 
     public static final boolean IS_WINDOWS = Util.getPlatform() == Util.OS.WINDOWS;
     private static final HashMap<Path, WatchKey> KEYS = new HashMap<>();
+    private static final LocalAvatarCache CACHE = new LocalAvatarCache();
+    private static final ForkJoinPool WORKER_POOL = new ForkJoinPool(Math.max(Runtime.getRuntime().availableProcessors() - 1, 1));
 
     private static CompletableFuture<Void> tasks;
     private static Path lastLoadedPath;
@@ -109,45 +117,7 @@ public class LocalAvatarLoader {
         Path finalPath = path;
         async(() -> {
             try {
-                // load as folder
-                CompoundTag nbt = new CompoundTag();
-
-                // scripts
-                loadState = LoadState.SCRIPTS;
-                loadScripts(finalPath, nbt);
-
-                // custom sounds
-                loadState = LoadState.SOUNDS;
-                loadSounds(finalPath, nbt);
-
-                // models
-                CompoundTag textures = new CompoundTag();
-                ListTag animations = new ListTag();
-                BlockbenchModelParser modelParser = new BlockbenchModelParser();
-
-                loadState = LoadState.MODELS;
-                CompoundTag models = loadModels(finalPath, finalPath, modelParser, textures, animations, "");
-                models.putString("name", "models");
-
-                // metadata
-                loadState = LoadState.METADATA;
-                String metadata = IOUtils.readFile(finalPath.resolve("avatar.json"));
-                nbt.put("metadata", AvatarMetadataParser.parse(metadata, IOUtils.getFileNameOrEmpty(finalPath)));
-                AvatarMetadataParser.injectToModels(metadata, models);
-                AvatarMetadataParser.injectToTextures(metadata, textures);
-
-                // return :3
-                if (!models.isEmpty())
-                    nbt.put("models", models);
-                if (!textures.isEmpty())
-                    nbt.put("textures", textures);
-                if (!animations.isEmpty())
-                    nbt.put("animations", animations);
-                CompoundTag metadataTag = nbt.getCompound("metadata");
-                if (metadataTag.contains("resources_paths")) {
-                    loadResources(nbt, metadataTag.getList("resources_paths", Tag.TAG_STRING), finalPath);
-                    metadataTag.remove("resource_paths");
-                }
+                CompoundTag nbt = loadAvatarNbt(finalPath);
 
                 // load
                 target.loadAvatar(nbt);
@@ -158,35 +128,108 @@ public class LocalAvatarLoader {
             }
         });
     }
-    private static void loadResources(CompoundTag nbt, ListTag pathsTag, Path parentPath) {
+
+    /**
+     * Reads the avatar folder into its nbt, on the calling thread
+     *
+     * @param path - the avatar folder
+     * @return the avatar nbt, the same as the one uploaded to the backend
+     */
+    public static CompoundTag loadAvatarNbt(Path path) throws Exception {
+        // load as folder
+        CompoundTag nbt = new CompoundTag();
+        CACHE.begin(path);
+
+        // scripts
+        loadState = LoadState.SCRIPTS;
+        loadScripts(path, nbt);
+
+        // custom sounds
+        loadState = LoadState.SOUNDS;
+        loadSounds(path, nbt);
+
+        // models
+        CompoundTag textures = new CompoundTag();
+        ListTag animations = new ListTag();
+
+        loadState = LoadState.MODELS;
+        CompoundTag models = loadModels(path, textures, animations);
+        models.putString("name", "models");
+
+        // metadata
+        loadState = LoadState.METADATA;
+        String metadata = IOUtils.readFile(path.resolve("avatar.json"));
+        nbt.put("metadata", AvatarMetadataParser.parse(metadata, IOUtils.getFileNameOrEmpty(path)));
+        AvatarMetadataParser.injectToModels(metadata, models);
+        AvatarMetadataParser.injectToTextures(metadata, textures);
+
+        // return :3
+        if (!models.isEmpty())
+            nbt.put("models", models);
+        if (!textures.isEmpty())
+            nbt.put("textures", textures);
+        if (!animations.isEmpty())
+            nbt.put("animations", animations);
+        CompoundTag metadataTag = nbt.getCompound("metadata");
+        if (metadataTag.contains("resources_paths")) {
+            loadResources(nbt, metadataTag.getList("resources_paths", Tag.TAG_STRING), path);
+            metadataTag.remove("resource_paths");
+        }
+        CACHE.end();
+
+        return nbt;
+    }
+
+    private static void loadResources(CompoundTag nbt, ListTag pathsTag, Path parentPath) throws Exception {
         ArrayList<PathMatcher> pathMatchers = new ArrayList<>();
-        FileSystem fs = FileSystems.getDefault();
+        FileSystem fs = parentPath.getFileSystem();
         for (int i = 0; i < pathsTag.size(); i++) {
             pathMatchers.add(fs.getPathMatcher("glob:".concat(pathsTag.getString(i))));
         }
-        Map<String, Path> pathMap = new HashMap<>();
-        matchPathsRecursive(pathMap, parentPath, parentPath, pathMatchers);
-        CompoundTag resourcesTag = new CompoundTag();
-        for (String p:
-                pathMap.keySet()) {
-            try (FileInputStream fis = new FileInputStream(pathMap.get(p).toFile())) {
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                GZIPOutputStream gos = new GZIPOutputStream(baos);
-                int i;
-                while ((i = fis.read()) != -1) {
-                    gos.write(i);
+
+        // compress every matched file in parallel
+        Path root = parentPath.toAbsolutePath();
+        Map<String, ForkJoinTask<byte[]>> tasks = new HashMap<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                Path relative = root.relativize(file.toAbsolutePath()).normalize();
+                for (PathMatcher m : pathMatchers) {
+                    if (m.matches(relative)) {
+                        tasks.put(unixifyPath(relative.toString()), WORKER_POOL.submit(() -> CACHE.getByMetadata(file, "resource", () -> compressResource(file))));
+                        break;
+                    }
                 }
-                gos.close();
-                resourcesTag.put(unixifyPath(p), new ByteArrayTag(baos.toByteArray()));
-                baos.close();
+                return FileVisitResult.CONTINUE;
             }
-            catch (IOException e) {
-                throw new RuntimeException(e);
+        });
+
+        CompoundTag resourcesTag = new CompoundTag();
+        try {
+            for (Map.Entry<String, ForkJoinTask<byte[]>> entry : tasks.entrySet()) {
+                try {
+                    resourcesTag.put(entry.getKey(), new ByteArrayTag(entry.getValue().get()));
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception cause)
+                        throw cause;
+                    throw e;
+                }
             }
+        } finally {
+            for (ForkJoinTask<byte[]> task : tasks.values())
+                task.cancel(false);
         }
         nbt.put("resources", resourcesTag);
     }
 
+    private static byte[] compressResource(Path file) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = Files.newInputStream(file); GZIPOutputStream gos = new GZIPOutputStream(baos, 8192)) {
+            is.transferTo(gos);
+        }
+        return baos.toByteArray();
+    }
+
     private static String unixifyPath(String original) {
         Path p = Path.of(original);
         String[] components = new String[p.getNameCount()];
@@ -196,27 +239,7 @@ public class LocalAvatarLoader {
         return String.join("/", components);
     }
 
-    private static void matchPathsRecursive(Map<String, Path> pathMap, Path parent, Path current, ArrayList<PathMatcher> matchers) {
-        File f = current.toFile();
-        if (f.isFile()) {
-            Path relative = parent.toAbsolutePath().relativize(current.toAbsolutePath()).normalize();
-            for (PathMatcher m :
-                    matchers) {
-                if (m.matches(relative)) {
-                    pathMap.put(relative.toString(), current);
-                    break;
-                }
-            }
-        }
-        else {
-            for (File fl :
-                    current.toFile().listFiles()) {
-                matchPathsRecursive(pathMap, parent, fl.toPath(), matchers);
-            }
-        }
-    }
-
-    private static void loadScripts(Path path, CompoundTag nbt) throws IOException {
+    private static void loadScripts(Path path, CompoundTag nbt) throws Exception {
         List<Path> scripts = IOUtils.getFilesByExtension(path, ".lua");
         if (scripts.size() > 0) {
             CompoundTag scriptsNbt = new CompoundTag();
@@ -226,13 +249,15 @@ public class LocalAvatarLoader {
                         .replaceFirst(pathRegex, "")
                         .replaceAll("[/\\\\]", ".");
                 name = name.substring(0, name.length() - 4);
-                scriptsNbt.put(name, LuaScriptParser.parseScript(name, IOUtils.readFile(script)));
+                String scriptName = name;
+                ByteArrayTag parsed = CACHE.get(script, Configs.FORMAT_SCRIPT.value, bytes -> LocalAvatarCache.Result.of(LuaScriptParser.parseScript(scriptName, new String(bytes, StandardCharsets.UTF_8))));
+                scriptsNbt.put(name, parsed.copy());
             }
             nbt.put("scripts", scriptsNbt);
         }
     }
 
-    private static void loadSounds(Path path, CompoundTag nbt) throws IOException {
+    private static void loadSounds(Path path, CompoundTag nbt) throws Exception {
         List<Path> sounds = IOUtils.getFilesByExtension(path, ".ogg");
         if (sounds.size() > 0) {
             CompoundTag soundsNbt = new CompoundTag();
@@ -242,53 +267,109 @@ public class LocalAvatarLoader {
                         .replaceFirst(pathRegex, "")
                         .replaceAll("[/\\\\]", ".");
                 name = name.substring(0, name.length() - 4);
-                soundsNbt.putByteArray(name, IOUtils.readFileBytes(sound));
+                soundsNbt.putByteArray(name, CACHE.get(sound, "", LocalAvatarCache.Result::of));
             }
             nbt.put("sounds", soundsNbt);
         }
     }
 
-    private static CompoundTag loadModels(Path avatarFolder, Path currentFile, BlockbenchModelParser parser, CompoundTag textures, ListTag animations, String folders) throws Exception {
-        CompoundTag result = new CompoundTag();
+    private static CompoundTag loadModels(Path avatarFolder, CompoundTag textures, ListTag animations) throws Exception {
+        // the models are parsed in parallel, but merged in the folder order, so their ids never change between loads
+        List<ModelNode> nodes = submitModels(avatarFolder, avatarFolder, "");
+        try {
+            return mergeModels(nodes, textures, animations);
+        } finally {
+            cancelModels(nodes);
+        }
+    }
+
+    private static List<ModelNode> submitModels(Path avatarFolder, Path currentFile, String folders) {
+        List<ModelNode> nodes = new ArrayList<>();
         List<Path> subFiles = IOUtils.listPaths(currentFile);
-        ListTag children = new ListTag();
-        if (subFiles != null)
-            for (Path file : subFiles) {
-                if (IOUtils.isHidden(file))
-                    continue;
-                String name = IOUtils.getFileNameOrEmpty(file);
-                if (Files.isDirectory(file)) {
-                    CompoundTag subfolder = loadModels(avatarFolder, file, parser, textures, animations, folders + name + ".");
-                    if (!subfolder.isEmpty()) {
-                        subfolder.putString("name", name);
-                        BlockbenchModelParser.parseParent(name, subfolder);
-                        children.add(subfolder);
-                    }
-                } else if (file.toString().toLowerCase().endsWith(".bbmodel")) {
-                    BlockbenchModelParser.ModelData data = parser.parseModel(avatarFolder, file, IOUtils.readFile(file), name.substring(0, name.length() - 8), folders);
-                    children.add(data.modelNbt());
-                    animations.addAll(data.animationList());
-
-                    CompoundTag dataTag = data.textures();
-                    if (dataTag.isEmpty())
-                        continue;
-
-                    if (textures.isEmpty()) {
-                        textures.put("data", new ListTag());
-                        textures.put("src", new CompoundTag());
-                    }
+        if (subFiles == null)
+            return nodes;
+
+        for (Path file : subFiles) {
+            if (IOUtils.isHidden(file))
+                continue;
+            String name = IOUtils.getFileNameOrEmpty(file);
+            if (Files.isDirectory(file)) {
+                nodes.add(new ModelNode(name, null, submitModels(avatarFolder, file, folders + name + ".")));
+            } else if (file.toString().toLowerCase().endsWith(".bbmodel")) {
+                String modelName = name.substring(0, name.length() - 8);
+                nodes.add(new ModelNode(name, WORKER_POOL.submit(() -> parseModel(avatarFolder, file, modelName, folders)), null));
+            }
+        }
+
+        return nodes;
+    }
+
+    private static BlockbenchModelParser.ModelData parseModel(Path avatarFolder, Path file, String modelName, String folders) throws Exception {
+        // each model is parsed on its own, then its ids are shifted to fit with the models before it
+        return CACHE.get(file, "", bytes -> {
+            Reader reader = new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+            BlockbenchModelParser.ModelData modelData = new BlockbenchModelParser().parseModel(avatarFolder, file, reader, modelName, folders);
+            return new LocalAvatarCache.Result<>(modelData, modelData.textureFiles());
+        });
+    }
 
-                    textures.getList("data", Tag.TAG_COMPOUND).addAll(dataTag.getList("data", Tag.TAG_COMPOUND));
-                    textures.getCompound("src").merge(dataTag.getCompound("src"));
+    private static CompoundTag mergeModels(List<ModelNode> nodes, CompoundTag textures, ListTag animations) throws Exception {
+        CompoundTag result = new CompoundTag();
+        ListTag children = new ListTag();
+        for (ModelNode node : nodes) {
+            if (node.model() == null) {
+                CompoundTag subfolder = mergeModels(node.children(), textures, animations);
+                if (!subfolder.isEmpty()) {
+                    subfolder.putString("name", node.name());
+                    BlockbenchModelParser.parseParent(node.name(), subfolder);
+                    children.add(subfolder);
                 }
+                continue;
+            }
+
+            BlockbenchModelParser.ModelData parsed;
+            try {
+                parsed = node.model().get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception cause)
+                    throw cause;
+                throw e;
             }
 
+            int textureOffset = textures.getList("data", Tag.TAG_COMPOUND).size();
+            BlockbenchModelParser.ModelData data = BlockbenchModelParser.relocate(parsed, textureOffset, animations.size());
+            children.add(data.modelNbt());
+            animations.addAll(data.animationList());
+
+            CompoundTag dataTag = data.textures();
+            if (dataTag.isEmpty())
+                continue;
+
+            if (textures.isEmpty()) {
+                textures.put("data", new ListTag());
+                textures.put("src", new CompoundTag());
+            }
+
+            textures.getList("data", Tag.TAG_COMPOUND).addAll(dataTag.getList("data", Tag.TAG_COMPOUND));
+            textures.getCompound("src").merge(dataTag.getCompound("src"));
+        }
+
         if (children.size() > 0)
             result.put("chld", children);
 
         return result;
     }
 
+    // stops the models that are still being parsed, in case another one failed
+    private static void cancelModels(List<ModelNode> nodes) {
+        for (ModelNode node : nodes) {
+            if (node.model() != null)
+                node.model().cancel(false);
+            else
+                cancelModels(node.children());
+        }
+    }
+
     /**
      * Tick the watched key for hotswapping avatars
      */
@@ -380,6 +461,9 @@ public class LocalAvatarLoader {
         return loadError;
     }
 
+    // a folder (with children) or a model being parsed
+    private record ModelNode(String name, ForkJoinTask<BlockbenchModelParser.ModelData> model, List<ModelNode> children) {}
+
     private enum LoadState {
         UNKNOWN,
         SCRIPTS,
@@ -3,6 +3,7 @@ package org.figuramc.figura.backend2.websocket;
 import net.minecraft.network.chat.Component;
 import org.figuramc.figura.FiguraMod;
 import org.figuramc.figura.avatar.Avatar;
+import org.figuramc.figura.avatar.AvatarMetrics;
 import org.figuramc.figura.avatar.AvatarManager;
 import org.figuramc.figura.backend2.NetworkStuff;
 import org.figuramc.figura.config.Configs;
@@ -65,6 +66,7 @@ public class S2CMessageHandler {
         bytes.get(data);
 
         avatar.runPing(id, data);
+        avatar.metrics.record(AvatarMetrics.PING, "in", data.length);
         NetworkStuff.pingsReceived++;
         if (NetworkStuff.lastPing == 0) NetworkStuff.lastPing = FiguraMod.ticks;
     }
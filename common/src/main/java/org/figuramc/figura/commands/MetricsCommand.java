@@ -0,0 +1,130 @@
+package org.figuramc.figura.commands;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.network.chat.ClickEvent;
+import net.minecraft.network.chat.Style;
+import org.figuramc.figura.FiguraMod;
+import org.figuramc.figura.avatar.Avatar;
+import org.figuramc.figura.avatar.AvatarManager;
+import org.figuramc.figura.avatar.AvatarMetrics;
+import org.figuramc.figura.avatar.AvatarMetricsManager;
+import org.figuramc.figura.utils.FiguraClientCommandSource;
+import org.figuramc.figura.utils.FiguraText;
+import org.figuramc.figura.utils.RollingHistogram;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+class MetricsCommand {
+
+    public static LiteralArgumentBuilder<FiguraClientCommandSource> getCommand() {
+        LiteralArgumentBuilder<FiguraClientCommandSource> metrics = LiteralArgumentBuilder.literal("metrics");
+        metrics.executes(MetricsCommand::printSummary);
+
+        // start
+        LiteralArgumentBuilder<FiguraClientCommandSource> start = LiteralArgumentBuilder.literal("start");
+        start.executes(context -> {
+            AvatarMetricsManager.setEnabled(true);
+            context.getSource().figura$sendFeedback(FiguraText.of("command.metrics.start"));
+            return 1;
+        });
+        metrics.then(start);
+
+        // stop
+        LiteralArgumentBuilder<FiguraClientCommandSource> stop = LiteralArgumentBuilder.literal("stop");
+        stop.executes(context -> {
+            AvatarMetricsManager.setEnabled(false);
+            context.getSource().figura$sendFeedback(FiguraText.of("command.metrics.stop"));
+            return 1;
+        });
+        metrics.then(stop);
+
+        // export
+        LiteralArgumentBuilder<FiguraClientCommandSource> export = LiteralArgumentBuilder.literal("export");
+        export.executes(MetricsCommand::export);
+        metrics.then(export);
+
+        // reset
+        LiteralArgumentBuilder<FiguraClientCommandSource> reset = LiteralArgumentBuilder.literal("reset");
+        reset.executes(context -> {
+            AvatarMetricsManager.reset();
+            context.getSource().figura$sendFeedback(FiguraText.of("command.metrics.reset"));
+            return 1;
+        });
+        metrics.then(reset);
+
+        return metrics;
+    }
+
+    // lists the loaded avatars, slowest first
+    private static int printSummary(CommandContext<FiguraClientCommandSource> context) {
+        if (!AvatarMetrics.enabled) {
+            context.getSource().figura$sendError(FiguraText.of("command.metrics.disabled"));
+            return 0;
+        }
+
+        List<Avatar> avatars = AvatarManager.getLoadedAvatars();
+        if (avatars.isEmpty()) {
+            context.getSource().figura$sendError(FiguraText.of("command.metrics.empty"));
+            return 0;
+        }
+
+        avatars.sort(Comparator.comparingLong(MetricsCommand::totalTime).reversed());
+        for (Avatar avatar : avatars) {
+            Map<String, Map<String, RollingHistogram.Snapshot>> snapshot = avatar.metrics.snapshot();
+            Map.Entry<String, RollingHistogram.Snapshot> event = slowest(snapshot.get(AvatarMetrics.EVENT_TIME));
+            Map.Entry<String, RollingHistogram.Snapshot> render = slowest(snapshot.get(AvatarMetrics.RENDER_TIME));
+
+            context.getSource().figura$sendFeedback(FiguraText.of("command.metrics.entry",
+                    avatar.entityName,
+                    event == null ? "-" : event.getKey(), event == null ? "-" : toMillis(event.getValue().p99()),
+                    render == null ? "-" : render.getKey(), render == null ? "-" : toMillis(render.getValue().p99())
+            ));
+        }
+
+        return 1;
+    }
+
+    private static int export(CommandContext<FiguraClientCommandSource> context) {
+        try {
+            Path targetPath = AvatarMetricsManager.export();
+            context.getSource().figura$sendFeedback(
+                    FiguraText.of("command.metrics.export.success")
+                            .append(" ")
+                            .append(FiguraText.of("command.click_to_open")
+                                    .setStyle(Style.EMPTY.withClickEvent(new ClickEvent(ClickEvent.Action.OPEN_FILE, targetPath.toString())).withUnderlined(true))
+                            )
+            );
+            return 1;
+        } catch (Exception e) {
+            context.getSource().figura$sendError(FiguraText.of("command.metrics.export.error"));
+            FiguraMod.LOGGER.error("Failed to save " + FiguraMod.MOD_NAME + " metrics!", e);
+            return 0;
+        }
+    }
+
+    // time spent by the avatar in the recorded windows
+    private static long totalTime(Avatar avatar) {
+        long total = 0;
+        for (Map.Entry<String, Map<String, RollingHistogram.Snapshot>> group : avatar.metrics.snapshot().entrySet()) {
+            if (!group.getKey().equals(AvatarMetrics.EVENT_TIME) && !group.getKey().equals(AvatarMetrics.RENDER_TIME))
+                continue;
+            for (RollingHistogram.Snapshot snapshot : group.getValue().values())
+                total += (long) (snapshot.mean() * snapshot.count());
+        }
+        return total;
+    }
+
+    private static Map.Entry<String, RollingHistogram.Snapshot> slowest(Map<String, RollingHistogram.Snapshot> group) {
+        if (group == null)
+            return null;
+        return group.entrySet().stream().max(Comparator.comparingLong(entry -> entry.getValue().p99())).orElse(null);
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000d);
+    }
+}
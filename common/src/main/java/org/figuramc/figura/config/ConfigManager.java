@@ -3,12 +3,12 @@ package org.figuramc.figura.config;
 import com.google.gson.*;
 import com.mojang.blaze3d.platform.InputConstants;
 import org.figuramc.figura.FiguraMod;
-import org.figuramc.figura.utils.PlatformUtils;
+import org.figuramc.figura.utils.PersistenceManager;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -16,7 +16,7 @@ import java.util.Map;
 
 public final class ConfigManager {
 
-    private static final File FILE = new File(PlatformUtils.getConfigDir().resolve(FiguraMod.MOD_ID + ".json").toString());
+    private static final File FILE = new File(FiguraMod.CONFIG_DIR.resolve(FiguraMod.MOD_ID + ".json").toString());
     private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
     public static final List<ConfigType<?>> REGISTRY = new ArrayList<>();
     public static final Map<String, ConfigType.Category> CATEGORIES_REGISTRY = new LinkedHashMap<>();
@@ -75,7 +75,8 @@ public final class ConfigManager {
         if (initializing)
             return;
 
-        try {
+        // only snapshot the values when the save actually happens, the json writing and disk access are done in the background
+        PersistenceManager.markDirty(FILE.toPath(), () -> {
             JsonObject configJson = new JsonObject();
             configJson.addProperty("CONFIG_VERSION", Configs.CONFIG_VERSION);
 
@@ -96,15 +97,11 @@ public final class ConfigManager {
                     configJson.addProperty(id, String.valueOf(config.value));
             }
 
-            String jsonString = GSON.toJson(configJson);
-            FileWriter fileWriter = new FileWriter(FILE);
-            fileWriter.write(jsonString);
-            fileWriter.close();
-
-            FiguraMod.debug("Successfully saved config file");
-        } catch (Exception e) {
-            FiguraMod.LOGGER.error("Failed to save config file!", e);
-        }
+            return os -> {
+                os.write(GSON.toJson(configJson).getBytes(StandardCharsets.UTF_8));
+                FiguraMod.debug("Successfully saved config file");
+            };
+        });
     }
 
     public static void applyConfig() {
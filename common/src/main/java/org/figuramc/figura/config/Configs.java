@@ -252,6 +252,12 @@ public class Configs {
         this.tooltip = FiguraText.of(tooltip + "1")
                 .append("\n")
                 .append(FiguraText.of(tooltip + "2").withStyle(ChatFormatting.RED));
+    }},
+            COMPACT_PINGS = new ConfigType.BoolConfig("compact_pings", DEV, false) {{
+        String tooltip = "config.compact_pings.tooltip.";
+        this.tooltip = FiguraText.of(tooltip + "1")
+                .append("\n")
+                .append(FiguraText.of(tooltip + "2").withStyle(ChatFormatting.RED));
     }},
             CHAT_MESSAGES = new ConfigType.BoolConfig("chat_messages", DEV, false) {{
                 this.name = this.name.copy().withStyle(ChatFormatting.RED);
@@ -10,7 +10,9 @@ import java.util.UUID;
 public interface ParticleEngineAccessor {
 
     <T extends ParticleOptions> Particle figura$makeParticle(T parameters, double x, double y, double z, double velocityX, double velocityY, double velocityZ);
-    void figura$spawnParticle(Particle particle, UUID owner);
+    boolean figura$spawnParticle(Particle particle, UUID owner, int limit);
+    void figura$untrackParticle(Particle particle);
     void figura$clearParticles(UUID owner);
+    int figura$getParticleCount(UUID owner);
     SpriteSet figura$getParticleSprite(ResourceLocation particleID);
 }
@@ -0,0 +1,10 @@
+package org.figuramc.figura.ducks;
+
+import java.util.UUID;
+
+public interface ParticleOwnerAccessor {
+    UUID figura$getOwner();
+    void figura$setOwner(UUID owner, int index);
+    int figura$getIndex();
+    void figura$setIndex(int index);
+}
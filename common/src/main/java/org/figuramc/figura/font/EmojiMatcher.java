@@ -0,0 +1,115 @@
+package org.figuramc.figura.font;
+
+import java.util.*;
+
+/**
+ * Aho-Corasick automaton over the emoji names, with their delimiters, and shortcuts
+ * finds every emoji in a single pass over the text, instead of splitting it at the delimiters and testing each shortcut against it
+ */
+public class EmojiMatcher {
+
+    public static final EmojiMatcher EMPTY = new EmojiMatcher(List.of());
+
+    private final Node root = new Node();
+
+    public EmojiMatcher(Collection<String> patterns) {
+        // build the trie
+        for (String pattern : patterns) {
+            if (pattern.isEmpty())
+                continue;
+
+            Node node = root;
+            for (int i = 0; i < pattern.length(); i++)
+                node = node.children.computeIfAbsent(pattern.charAt(i), c -> new Node());
+            node.length = pattern.length();
+        }
+
+        // breadth first to link the failure transitions
+        Deque<Node> queue = new ArrayDeque<>();
+        for (Node child : root.children.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                char c = entry.getKey();
+                Node child = entry.getValue();
+
+                Node fail = node.fail;
+                while (fail != root && !fail.children.containsKey(c))
+                    fail = fail.fail;
+                Node target = fail.children.get(c);
+                child.fail = target != null && target != child ? target : root;
+
+                // longest proper suffix which is also a pattern
+                child.output = child.fail.length > 0 ? child.fail : child.fail.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return root.children.isEmpty();
+    }
+
+    /**
+     * Finds the patterns in the text, preferring the leftmost and then the longest match, without overlaps
+     *
+     * @param text - the text to search
+     * @param filter - rejects matches which should not count at their position
+     * @return pairs of start index and length of each match, in order, or null when nothing was found
+     */
+    public int[] find(String text, Filter filter) {
+        if (isEmpty())
+            return null;
+
+        // longest match starting at each index
+        int[] longest = null;
+
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            Node next;
+            while ((next = node.children.get(c)) == null && node != root)
+                node = node.fail;
+            node = next == null ? root : next;
+
+            for (Node out = node.length > 0 ? node : node.output; out != null; out = out.output) {
+                if (longest == null)
+                    longest = new int[text.length()];
+                int start = i - out.length + 1;
+                if (out.length > longest[start] && filter.accept(start, out.length))
+                    longest[start] = out.length;
+            }
+        }
+
+        if (longest == null)
+            return null;
+
+        int count = 0;
+        int[] matches = new int[text.length() * 2];
+        for (int i = 0; i < text.length(); i++) {
+            int length = longest[i];
+            if (length > 0) {
+                matches[count++] = i;
+                matches[count++] = length;
+                i += length - 1;
+            }
+        }
+
+        return Arrays.copyOf(matches, count);
+    }
+
+    public interface Filter {
+        boolean accept(int start, int length);
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private Node fail;
+        private Node output;
+        private int length;
+    }
+}
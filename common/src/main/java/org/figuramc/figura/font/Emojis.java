@@ -15,12 +15,23 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.function.Function;
 
 public class Emojis {
 
     private static final Map<String, EmojiContainer> EMOJIS = new HashMap<>();
-    private static final Map<String, EmojiContainer> SHORTCUT_LOOKUP = new HashMap<>();
+    // everything the matcher finds, ":name:" for names and the shortcuts as they are
+    private static final Map<String, EmojiMatch> MATCH_LOOKUP = new HashMap<>();
+    private static EmojiMatcher matcher = EmojiMatcher.EMPTY;
+
+    // converted text, as the same signs, tooltips and names are converted again every frame
+    // keyed by the text pieces and their styles, as callers might change their component after converting it
+    // animated emojis only change the font glyph, so the components stay valid
+    private static final Map<List<Object>, MutableComponent> CACHE = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, MutableComponent> eldest) {
+            return size() > 512;
+        }
+    });
 
     public static final char DELIMITER = ':';
     public static final char ESCAPE = '\\';
@@ -28,6 +39,8 @@ public class Emojis {
     // listener to load emojis from the resource pack
     public static final FiguraResourceListener RESOURCE_LISTENER = FiguraResourceListener.createResourceListener("emojis", manager -> {
         EMOJIS.clear();
+        MATCH_LOOKUP.clear();
+        CACHE.clear();
 
         for (Map.Entry<ResourceLocation, Resource> emojis : manager.listResources("emojis", location -> location.getNamespace().equals(FiguraMod.MOD_ID) && location.getPath().endsWith(".json")).entrySet()) {
             ResourceLocation location = emojis.getKey();
@@ -44,13 +57,23 @@ public class Emojis {
                 JsonObject json = JsonParser.parseReader(new InputStreamReader(stream, StandardCharsets.UTF_8)).getAsJsonObject();
                 EmojiContainer container = new EmojiContainer(name, json);
                 EMOJIS.put(name, container);
-                container.getLookup().getShortcuts().forEach(shortcut -> SHORTCUT_LOOKUP.put(shortcut, container));
 
             } catch (Exception e) {
                 FiguraMod.LOGGER.error("Failed to load {} emojis", name, e);
             }
         }
 
+        // names use the first container that has them, same as getEmoji
+        for (EmojiContainer container : EMOJIS.values()) {
+            for (String emoji : container.getLookup().getNames())
+                MATCH_LOOKUP.putIfAbsent(DELIMITER + emoji + DELIMITER, new EmojiMatch(container, emoji, false));
+        }
+        for (EmojiContainer container : EMOJIS.values()) {
+            for (String shortcut : container.getLookup().getShortcuts())
+                MATCH_LOOKUP.put(shortcut, new EmojiMatch(container, shortcut, true));
+        }
+        matcher = new EmojiMatcher(MATCH_LOOKUP.keySet());
+
         // check for duplicates
         HashMap<String, List<String>> duplicates = new HashMap<>();
         HashMap<String, String> map = new HashMap<>();
@@ -95,6 +118,28 @@ public class Emojis {
     }
 
     public static MutableComponent applyEmojis(Component text) {
+        List<Object> key = cacheKey(text);
+        MutableComponent cached = CACHE.get(key);
+        if (cached == null) {
+            cached = convert(text);
+            CACHE.put(key, cached);
+        }
+        // callers are free to modify the returned component
+        return cached.copy();
+    }
+
+    // the text pieces and their styles, which are immutable, and all the conversion depends on
+    private static List<Object> cacheKey(Component text) {
+        List<Object> key = new ArrayList<>();
+        text.visit((style, string) -> {
+            key.add(string);
+            key.add(style);
+            return Optional.empty();
+        }, Style.EMPTY);
+        return key;
+    }
+
+    private static MutableComponent convert(Component text) {
         Component newText = TextUtils.parseLegacyFormatting(text);
         MutableComponent ret = Component.empty();
         newText.visit((style, string) -> {
@@ -105,113 +150,56 @@ public class Emojis {
     }
 
     private static MutableComponent convertEmoji(String string, Style style) {
-
-        // string lists, every odd index is an emoji
-        List<String> strings = new ArrayList<>();
-
-        // temp variables
-        StringBuilder current = new StringBuilder();
-        boolean escaped = false;
-        boolean inside = false;
-
-        // iterate over every char
-        for (int i = 0; i < string.length(); i++) {
-            char c = string.charAt(i);
-
-            // escape sequence
-            if (c == ESCAPE) {
-                escaped = !escaped;
-                // append only if the next char is not the delimiter
-                if (i + 1 == string.length() || string.charAt(i + 1) != DELIMITER)
-                    current.append(c);
-                // delimiter, only if not escaped
-            } else if (c == DELIMITER && !escaped) {
-                // toggle inside status
-                inside = !inside;
-                // and also append to the list
-                strings.add(current.toString());
-                current = new StringBuilder();
-                // otherwise just add to the queue
-            } else {
-                escaped = false;
-                current.append(c);
-
-                // space character breaks current emoji parsing
-                if (c == ' ' && inside) {
-                    inside = false;
-                    // removed last appended emoji, as were undoing the parsing of the emoji
-                    String removed = strings.remove(strings.size() - 1);
-                    // replace current with the removed string, adding back the delimiter and appending the current parsed text
-                    current = new StringBuilder(removed).append(DELIMITER).append(current);
+        // remove the escape chars, keeping where the escaped delimiters are, as they cannot start or end a name
+        String cleaned = string;
+        BitSet escapedDelimiters = null;
+        if (string.indexOf(ESCAPE) != -1) {
+            StringBuilder builder = new StringBuilder(string.length());
+            escapedDelimiters = new BitSet();
+            boolean escaped = false;
+            for (int i = 0; i < string.length(); i++) {
+                char c = string.charAt(i);
+                if (c == ESCAPE) {
+                    escaped = !escaped;
+                    // append only if the next char is not the delimiter
+                    if (i + 1 == string.length() || string.charAt(i + 1) != DELIMITER)
+                        builder.append(c);
+                } else {
+                    if (c == DELIMITER && escaped)
+                        escapedDelimiters.set(builder.length());
+                    escaped = false;
+                    builder.append(c);
                 }
             }
-        }
-
-        // if the queue is not flushed
-        if (current.length() > 0 || inside) {
-            String toAdd = current.toString();
-            // if we left inside, we want to keep the text within the last index
-            // also keep the delimiter since its end was not found
-            if (inside) {
-                int index = strings.size() - 1;
-                String s = strings.get(index) + DELIMITER + toAdd;
-                strings.set(index, s);
-                // otherwise just add what is remaining
-            } else {
-                strings.add(toAdd);
-            }
+            cleaned = builder.toString();
         }
 
         MutableComponent result = Component.empty().withStyle(style);
 
-        // now we parse the list
-        for (int i = 0; i < strings.size(); i++) {
-            String s = strings.get(i);
-
-            // even: append text
-            if (i % 2 == 0) {
-                // Find all emoji shortcuts in string
-                List<String> shortcuts = SHORTCUT_LOOKUP.keySet().stream().filter(s::contains).toList();
-
-                // Replace all shortcuts
-                if (shortcuts.size() > 0) {
-                    while (s.length() > 0) {
-                        boolean anyFound = false;
-                        for (String shortcut : shortcuts) {
-                            if (s.startsWith(shortcut)) {
-                                s = s.substring(shortcut.length());
-                                result.append(SHORTCUT_LOOKUP.get(shortcut).getShortcutComponent(shortcut));
-                                anyFound = true;
-                                break;
-                            }
-                        }
-                        if (!anyFound) {
-                            result.append(String.valueOf(s.charAt(0)));
-                            s = s.substring(1);
-                        }
-                    }
-                }
-                // Otherwise append as normal
-                else {
-                    result.append(s);
-                }
-            }
-            // odd: format and append emoji
-            else {
-                appendEmoji(result, s, Emojis::getEmoji);
-            }
+        String text = cleaned;
+        BitSet escapes = escapedDelimiters;
+        int[] matches = matcher.find(text, (start, length) -> escapes == null || MATCH_LOOKUP.get(text.substring(start, start + length)).shortcut ||
+                !escapes.get(start) && !escapes.get(start + length - 1));
+        if (matches == null) {
+            result.append(text);
+            return result;
         }
 
-        return result;
-    }
+        int last = 0;
+        for (int i = 0; i < matches.length; i += 2) {
+            int start = matches[i];
+            int end = start + matches[i + 1];
+            if (start > last)
+                result.append(text.substring(last, start));
 
-    private static void appendEmoji(MutableComponent result, String s, Function<String, Component> converter) {
-        Component emoji = converter.apply(s);
-        if (emoji != null) {
-            result.append(emoji);
-        } else {
-            result.append(DELIMITER + s + DELIMITER);
+            result.append(MATCH_LOOKUP.get(text.substring(start, end)).component());
+            last = end;
         }
+
+        if (last < text.length())
+            result.append(text.substring(last));
+
+        return result;
     }
 
     public static Component getEmoji(String emojiAlias) {
@@ -266,6 +254,12 @@ public class Emojis {
         return emojis;
     }
 
+    private record EmojiMatch(EmojiContainer container, String key, boolean shortcut) {
+        private Component component() {
+            return shortcut ? container.getShortcutComponent(key) : container.getEmojiComponent(key);
+        }
+    }
+
     public static void tickAnimations() {
         for (EmojiContainer container : EMOJIS.values()) {
             container.tickAnimations();
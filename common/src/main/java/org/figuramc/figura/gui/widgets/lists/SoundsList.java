@@ -1,6 +1,5 @@
 package org.figuramc.figura.gui.widgets.lists;
 
-import com.mojang.blaze3d.audio.SoundBuffer;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.Font;
@@ -13,6 +12,7 @@ import org.figuramc.figura.avatar.Avatar;
 import org.figuramc.figura.gui.widgets.AbstractContainerElement;
 import org.figuramc.figura.gui.widgets.Label;
 import org.figuramc.figura.gui.widgets.ParentedButton;
+import org.figuramc.figura.lua.api.sound.CustomSound;
 import org.figuramc.figura.lua.api.sound.LuaSound;
 import org.figuramc.figura.lua.api.sound.SoundAPI;
 import org.figuramc.figura.utils.FiguraIdentifier;
@@ -90,7 +90,7 @@ public class SoundsList extends AbstractList {
         if (owner == null)
             return;
 
-        for (Map.Entry<String, SoundBuffer> entry : owner.customSounds.entrySet()) {
+        for (Map.Entry<String, CustomSound> entry : owner.customSounds.entrySet()) {
             SoundElement sound = new SoundElement(getWidth() - 22, entry.getKey(), entry.getValue(), this, owner);
             sounds.add(sound);
             children.add(sound);
@@ -110,13 +110,13 @@ public class SoundsList extends AbstractList {
 
         private final Component size;
         private final String name;
-        private final SoundBuffer sound;
+        private final CustomSound sound;
         private final Avatar owner;
         private final SoundsList parent;
 
         private final ParentedButton play, stop;
 
-        public SoundElement(int width, String name, SoundBuffer sound, SoundsList parent, Avatar owner) {
+        public SoundElement(int width, String name, CustomSound sound, SoundsList parent, Avatar owner) {
             super(0, 0, width, 20);
             this.name = name;
             this.sound = sound;
@@ -26,6 +26,7 @@ import org.figuramc.figura.lua.api.nameplate.NameplateCustomization;
 import org.figuramc.figura.lua.api.nameplate.NameplateCustomizationGroup;
 import org.figuramc.figura.lua.api.particle.LuaParticle;
 import org.figuramc.figura.lua.api.particle.ParticleAPI;
+import org.figuramc.figura.lua.api.particle.ParticleTemplate;
 import org.figuramc.figura.lua.api.ping.PingAPI;
 import org.figuramc.figura.lua.api.ping.PingFunction;
 import org.figuramc.figura.lua.api.sound.LuaSound;
@@ -38,6 +39,7 @@ import org.figuramc.figura.lua.api.world.BiomeAPI;
 import org.figuramc.figura.lua.api.world.BlockStateAPI;
 import org.figuramc.figura.lua.api.world.ItemStackAPI;
 import org.figuramc.figura.lua.api.world.WorldAPI;
+import org.figuramc.figura.lua.api.world.WorldSnapshot;
 import org.figuramc.figura.math.matrix.FiguraMat2;
 import org.figuramc.figura.math.matrix.FiguraMat3;
 import org.figuramc.figura.math.matrix.FiguraMat4;
@@ -95,6 +97,7 @@ public class FiguraAPIManager {
 
         add(ParticleAPI.class);
         add(LuaParticle.class);
+        add(ParticleTemplate.class);
 
         add(VanillaModelAPI.class);
         add(VanillaPart.class);
@@ -117,6 +120,7 @@ public class FiguraAPIManager {
         add(MatricesAPI.class);
 
         add(WorldAPI.class);
+        add(WorldSnapshot.class);
         add(BiomeAPI.class);
         add(BlockStateAPI.class);
         add(ItemStackAPI.class);
@@ -188,7 +192,7 @@ public class FiguraAPIManager {
         put("avatar", r -> r.avatar_meta = new AvatarAPI(r.owner));
         put("vectors", r -> VectorsAPI.INSTANCE);
         put("matrices", r -> MatricesAPI.INSTANCE);
-        put("world", r -> WorldAPI.INSTANCE);
+        put("world", r -> new WorldAPI(r.owner));
         put("pings", r -> r.ping = new PingAPI(r.owner));
         put("textures", r -> r.texture = new TextureAPI(r.owner));
         put("config", r -> new ConfigAPI(r.owner));
@@ -19,10 +19,10 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Set;
+import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class FiguraLuaPrinter {
 
@@ -53,17 +53,29 @@ public class FiguraLuaPrinter {
 
     // print a string either on chat or console
     public static void sendLuaMessage(Object message, String owner) {
-        MutableComponent component = Component.empty()
+        showMessage(getLuaMessage(message, owner), false);
+    }
+
+    // log a message of an avatar, which is only formatted when shown
+    private static void logLuaMessage(FiguraLuaRuntime runtime, Supplier<Component> message) {
+        Avatar owner = runtime.owner;
+        owner.log.add(() -> getLuaMessage(message.get(), owner.entityName), false);
+    }
+
+    private static MutableComponent getLuaMessage(Object message, String owner) {
+        return Component.empty()
                 .append(Component.literal("[lua] ").withStyle(ColorUtils.Colors.LUA_LOG.style))
                 .append(Component.literal(owner))
                 .append(Component.literal(" : ").withStyle(ColorUtils.Colors.LUA_LOG.style))
                 .append(message instanceof Component c ? c : Component.literal(message.toString()))
                 .append(Component.literal("\n"));
+    }
 
-        if (Configs.LOG_LOCATION.value == 0)
-            sendLuaChatMessage(component);
+    private static void showMessage(Component message, boolean chatOnly) {
+        if (chatOnly || Configs.LOG_LOCATION.value == 0)
+            sendLuaChatMessage(message);
         else
-            FiguraMod.LOGGER.info(component.getString());
+            FiguraMod.LOGGER.info(message.getString());
     }
 
     // print an error, errors should always show up on chat
@@ -96,14 +108,15 @@ public class FiguraLuaPrinter {
                 int sub = split[0].indexOf(left);
 
                 String name = sub == -1 ? split[0] : split[0].substring(sub + left.length(), split[0].indexOf("\"]"));
-                String src = owner.luaRuntime.scripts.get(name);
-                if (src == null)
-                    break line;
 
                 // line
                 int line = Integer.parseInt(split[1].split("\\D", 2)[0]);
 
-                String str = src.split("\n")[line - 1].trim();
+                String str = owner.luaRuntime.getScriptLine(name, line);
+                if (str == null)
+                    break line;
+
+                str = str.trim();
                 if (str.length() > 96)
                     str = str.substring(0, 96) + " [...]";
 
@@ -118,6 +131,7 @@ public class FiguraLuaPrinter {
                 .append(Component.literal("\n"));
 
         owner.errorText = TextUtils.replaceTabs(Component.literal(message).withStyle(ColorUtils.Colors.LUA_ERROR.style));
+        owner.badgesChanged();
 
         if ((owner.entityType == EntityType.PLAYER && !Configs.LOG_OTHERS.value && !FiguraMod.isLocal(owner.owner)) || owner.permissions.getCategory() == Permissions.Category.BLOCKED)
             return;
@@ -134,24 +148,29 @@ public class FiguraLuaPrinter {
         if (config == 0 || config == 1 && !owner.isHost)
             return;
 
-        MutableComponent text = Component.empty()
-                .append(Component.literal("[ping] ").withStyle(ColorUtils.Colors.LUA_PING.style))
-                .append(Component.literal(owner.entityName))
-                .append(Component.literal(" : ").withStyle(ColorUtils.Colors.LUA_PING.style))
-                .append(ping)
-                .append(Component.literal(" :: ").withStyle(ColorUtils.Colors.LUA_PING.style))
-                .append(size + " bytes")
-                .append(Component.literal(" :: ").withStyle(ColorUtils.Colors.LUA_PING.style));
-
-        for (LuaValue arg : args)
-            text.append(getPrintText(owner.luaRuntime.typeManager, arg, true, false)).append("\t");
-
-        text.append(Component.literal("\n"));
+        FiguraLuaRuntime runtime = owner.luaRuntime;
+        if (runtime == null)
+            return;
 
-        if (Configs.LOG_LOCATION.value == 0)
-            sendLuaChatMessage(text);
-        else
-            FiguraMod.LOGGER.info(text.getString());
+        PrintValue[] values = new PrintValue[args.length];
+        for (int i = 0; i < args.length; i++)
+            values[i] = PrintValue.of(runtime.typeManager, args[i], true, false);
+
+        owner.log.add(() -> {
+            MutableComponent text = Component.empty()
+                    .append(Component.literal("[ping] ").withStyle(ColorUtils.Colors.LUA_PING.style))
+                    .append(Component.literal(owner.entityName))
+                    .append(Component.literal(" : ").withStyle(ColorUtils.Colors.LUA_PING.style))
+                    .append(ping)
+                    .append(Component.literal(" :: ").withStyle(ColorUtils.Colors.LUA_PING.style))
+                    .append(size + " bytes")
+                    .append(Component.literal(" :: ").withStyle(ColorUtils.Colors.LUA_PING.style));
+
+            for (PrintValue value : values)
+                text.append(value.toText()).append("\t");
+
+            return text.append(Component.literal("\n"));
+        }, false);
     }
 
     // print functions
@@ -161,14 +180,23 @@ public class FiguraLuaPrinter {
             if (!Configs.LOG_OTHERS.value && !FiguraMod.isLocal(runtime.owner.owner))
                 return NIL;
 
-            MutableComponent text = Component.empty();
-            for (int i = 0; i < args.narg(); i++)
-                text.append(getPrintText(runtime.typeManager, args.arg(i + 1), true, false)).append("\t");
+            PrintValue[] values = new PrintValue[args.narg()];
+            StringBuilder str = new StringBuilder();
+            for (int i = 0; i < values.length; i++) {
+                values[i] = PrintValue.of(runtime.typeManager, args.arg(i + 1), true, false);
+                str.append(values[i].text()).append("\t");
+            }
 
             // prints the value, either on chat or console
-            sendLuaMessage(text, runtime.owner.entityName);
-
-            return LuaValue.valueOf(text.getString());
+            // the text with the tooltips is only built when the message is shown
+            logLuaMessage(runtime, () -> {
+                MutableComponent text = Component.empty();
+                for (PrintValue value : values)
+                    text.append(value.toText()).append("\t");
+                return text;
+            });
+
+            return LuaValue.valueOf(str.toString());
         }
 
         @Override
@@ -192,11 +220,8 @@ public class FiguraLuaPrinter {
 
             TextUtils.allowScriptEvents = false;
 
-            if (!local) {
-                sendLuaChatMessage(TextUtils.removeClickableObjects(text));
-            } else {
-                sendLuaChatMessage(text);
-            }
+            Component message = local ? text : TextUtils.removeClickableObjects(text);
+            runtime.owner.log.add(() -> message, true);
 
             return LuaValue.valueOf(text.getString());
         }
@@ -223,7 +248,7 @@ public class FiguraLuaPrinter {
             }
 
             if (!silent)
-                sendLuaMessage(text, runtime.owner.entityName);
+                logLuaMessage(runtime, () -> text);
 
             return LuaValue.valueOf(text.getString());
         }
@@ -250,9 +275,7 @@ public class FiguraLuaPrinter {
 
         String spacing = "\t".repeat(indent - 1);
 
-        LuaTable table = value.checktable();
-        for (LuaValue key : table.keys())
-            text.append(getTableEntry(typeManager, spacing, key, table.get(key), hasTooltip, depth, indent));
+        forEachEntry(typeManager, value, (key, entry) -> text.append(getTableEntry(typeManager, spacing, key, entry, hasTooltip, depth, indent)));
 
         text.append(spacing).append(Component.literal("}").withStyle(ChatFormatting.GRAY));
         return text;
@@ -271,38 +294,51 @@ public class FiguraLuaPrinter {
 
         String spacing = "\t".repeat(indent - 1);
 
+        forEachEntry(typeManager, value, (key, entry) -> text.append(getTableEntry(typeManager, spacing, key, entry, hasTooltip, depth, indent)));
+
+        text.append(spacing).append(Component.literal("}").withStyle(ChatFormatting.GRAY));
+        return text;
+    }
+
+    // the entries of a table, or the whitelisted fields and methods of an userdata
+    private static void forEachEntry(LuaTypeManager typeManager, LuaValue value, BiConsumer<LuaValue, LuaValue> consumer) {
+        if (value.istable()) {
+            LuaTable table = value.checktable();
+            for (LuaValue key : table.keys())
+                consumer.accept(key, table.get(key));
+            return;
+        }
+
         Object data = value.checkuserdata();
         Class<?> clazz = data.getClass();
-        if (clazz.isAnnotationPresent(LuaWhitelist.class)) {
-            // fields
-            Set<String> fields = new HashSet<>();
-            for (Field field : clazz.getFields()) {
-                String name = field.getName();
-                if (!field.isAnnotationPresent(LuaWhitelist.class) || fields.contains(name))
-                    continue;
-
-                try {
-                    Object obj = field.get(data);
-                    text.append(getTableEntry(typeManager, spacing, LuaValue.valueOf(name), typeManager.javaToLua(obj).arg1(), hasTooltip, depth, indent));
-                    fields.add(name);
-                } catch (Exception e) {
-                    FiguraMod.LOGGER.error("", e);
-                }
-            }
+        if (!clazz.isAnnotationPresent(LuaWhitelist.class))
+            return;
+
+        // fields
+        Set<String> fields = new HashSet<>();
+        for (Field field : clazz.getFields()) {
+            String name = field.getName();
+            if (!field.isAnnotationPresent(LuaWhitelist.class) || fields.contains(name))
+                continue;
 
-            // methods
-            Set<String> methods = new HashSet<>();
-            for (Method method : clazz.getMethods()) {
-                String name = method.getName();
-                if (method.isAnnotationPresent(LuaWhitelist.class) && !name.startsWith("__") && !methods.contains(name)) {
-                    text.append(getTableEntry(typeManager, spacing, LuaValue.valueOf(name), typeManager.getWrapper(method), hasTooltip, depth, indent));
-                    methods.add(name);
-                }
+            try {
+                Object obj = field.get(data);
+                consumer.accept(LuaValue.valueOf(name), typeManager.javaToLua(obj).arg1());
+                fields.add(name);
+            } catch (Exception e) {
+                FiguraMod.LOGGER.error("", e);
             }
         }
 
-        text.append(spacing).append(Component.literal("}").withStyle(ChatFormatting.GRAY));
-        return text;
+        // methods
+        Set<String> methods = new HashSet<>();
+        for (Method method : clazz.getMethods()) {
+            String name = method.getName();
+            if (method.isAnnotationPresent(LuaWhitelist.class) && !name.startsWith("__") && !methods.contains(name)) {
+                consumer.accept(LuaValue.valueOf(name), typeManager.getWrapper(method));
+                methods.add(name);
+            }
+        }
     }
 
     private static MutableComponent getTableEntry(LuaTypeManager typeManager, String spacing, LuaValue key, LuaValue value, boolean hasTooltip, int depth, int indent) {
@@ -326,27 +362,65 @@ public class FiguraLuaPrinter {
 
     // fancyString just means to add quotation marks around strings.
     private static MutableComponent getPrintText(LuaTypeManager typeManager, LuaValue value, boolean hasTooltip, boolean quoteStrings) {
-        String ret;
+        return PrintValue.of(typeManager, value, hasTooltip, quoteStrings).toText();
+    }
 
-        // format value
-        if (!(value instanceof LuaString) && value.isnumber()) {
-            Double d = value.checkdouble();
-            ret = d == Math.rint(d) ? value.tojstring() : df.format(d);
-        } else {
-            ret = value.tojstring();
-            if (value.isstring() && quoteStrings)
-                ret = "\"" + ret + "\"";
+    /**
+     * The text of a printed value, copied when printed, so the message does not change if the script edits the value before it is shown
+     * tables and userdata also copy their entries for the tooltip, which is the same as a printTable with depth 1
+     */
+    private record PrintValue(String text, Style style, String type, PrintValue[] entries) {
+
+        private static PrintValue of(LuaTypeManager typeManager, LuaValue value, boolean hasTooltip, boolean quoteStrings) {
+            String text = getPrintString(value, quoteStrings);
+            Style style = getTypeColor(value);
+            if (!hasTooltip || !(value.istable() || value.isuserdata()))
+                return new PrintValue(text, style, null, null);
+
+            // keys and values, one after the other
+            List<PrintValue> entries = new ArrayList<>();
+            forEachEntry(typeManager, value, (key, entry) -> {
+                entries.add(of(typeManager, key, false, true));
+                entries.add(of(typeManager, entry, false, true));
+            });
+            return new PrintValue(text, style, value.istable() ? "table:" : "userdata:", entries.toArray(new PrintValue[0]));
         }
 
-        MutableComponent text = Component.literal(ret).withStyle(getTypeColor(value));
+        private MutableComponent toText() {
+            MutableComponent text = Component.literal(this.text).withStyle(style);
+            if (entries == null)
+                return text;
+
+            // table tooltip
+            MutableComponent table = Component.empty()
+                    .append(Component.literal(type).withStyle(style))
+                    .append(Component.literal(" {\n").withStyle(ChatFormatting.GRAY));
+
+            for (int i = 0; i < entries.length; i += 2) {
+                table.append("\t")
+                        .append(Component.literal("[").withStyle(ChatFormatting.GRAY))
+                        .append(entries[i].toText())
+                        .append(Component.literal("] = ").withStyle(ChatFormatting.GRAY))
+                        .append(entries[i + 1].toText())
+                        .append("\n");
+            }
 
-        // table tooltip
-        if (hasTooltip && (value.istable() || value.isuserdata())) {
-            Component table = TextUtils.replaceTabs(tableToText(typeManager, value, 1, 1, false));
-            text.withStyle(Style.EMPTY.withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, table)));
+            table.append(Component.literal("}").withStyle(ChatFormatting.GRAY));
+            return text.withStyle(Style.EMPTY.withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, TextUtils.replaceTabs(table))));
         }
+    }
 
-        return text;
+    // plain text of a value, the same as the print text without the styling
+    private static String getPrintString(LuaValue value, boolean quoteStrings) {
+        if (!(value instanceof LuaString) && value.isnumber()) {
+            double d = value.checkdouble();
+            return d == Math.rint(d) ? value.tojstring() : df.format(d);
+        }
+
+        String ret = value.tojstring();
+        if (value.isstring() && quoteStrings)
+            ret = "\"" + ret + "\"";
+        return ret;
     }
 
     private static Style getTypeColor(LuaValue value) {
@@ -376,6 +450,25 @@ public class FiguraLuaPrinter {
     private static int charsQueued = 0;
     private static final int MAX_CHARS_PER_TICK = 10_000;
 
+    private static final LuaLogBuffer.Output LOG_OUTPUT = new LuaLogBuffer.Output() {
+        @Override
+        public void message(Avatar owner, Component message, boolean chatOnly) {
+            try {
+                showMessage(message, chatOnly);
+            } catch (LuaError e) {
+                // overflowing the chat stops the avatar that printed too much, like when it printed directly
+                owner.log.clear();
+                if (owner.luaRuntime != null)
+                    owner.luaRuntime.error(e);
+            }
+        }
+
+        @Override
+        public Component dropped(Avatar owner, int count) {
+            return getLuaMessage(Component.literal(count + " messages were dropped, printing too much!").withStyle(ColorUtils.Colors.LUA_ERROR.style), owner.entityName);
+        }
+    };
+
     /**
      * Sends a message making use of the queue
      * @param message to send
@@ -393,9 +486,13 @@ public class FiguraLuaPrinter {
 
     public static void clearPrintQueue() {
         chatQueue.clear();
+        charsQueued = 0;
     }
 
     public static void printChatFromQueue() {
+        // messages logged by the avatars
+        LuaLogBuffer.flushAll(LOG_OUTPUT);
+
         if (chatQueue.isEmpty())
             return;
 
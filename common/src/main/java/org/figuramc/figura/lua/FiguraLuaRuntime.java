@@ -35,6 +35,7 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -63,6 +64,7 @@ public class FiguraLuaRuntime {
     private final LuaFunction setHookFunction;
     private final LuaFunction getInfoFunction;
     protected final Map<String, String> scripts = new HashMap<>();
+    private final Map<String, int[]> lineOffsets = new ConcurrentHashMap<>();
     private final Map<String, Varargs> loadedScripts = new HashMap<>();
     private final Stack<String> loadingScripts = new Stack<>();
     public final LuaTypeManager typeManager = new LuaTypeManager();
@@ -97,6 +99,40 @@ public class FiguraLuaRuntime {
         setGlobal("figuraMetatables", figuraMetatables);
     }
 
+    /**
+     * Gets a line of a script, using an index of where each line starts, built on the first lookup
+     *
+     * @param name - the script name
+     * @param line - the line number, starting at 1
+     * @return the line, or null if the script or line does not exist
+     */
+    public String getScriptLine(String name, int line) {
+        String src = scripts.get(name);
+        if (src == null)
+            return null;
+
+        int[] offsets = lineOffsets.computeIfAbsent(name, k -> {
+            int count = 1;
+            for (int i = 0; i < src.length(); i++) {
+                if (src.charAt(i) == '\n')
+                    count++;
+            }
+
+            int[] arr = new int[count];
+            for (int i = 0, j = 1; i < src.length(); i++) {
+                if (src.charAt(i) == '\n')
+                    arr[j++] = i + 1;
+            }
+            return arr;
+        });
+
+        if (line < 1 || line > offsets.length)
+            return null;
+
+        int end = line < offsets.length ? offsets[line] - 1 : src.length();
+        return src.substring(offsets[line - 1], end);
+    }
+
     public void registerClass(Class<?> clazz) {
         typeManager.generateMetatableFor(clazz);
     }
@@ -403,6 +439,7 @@ public class FiguraLuaRuntime {
     public void error(Throwable e) {
         FiguraLuaPrinter.sendLuaError(parseError(e), owner);
         owner.scriptError = true;
+        owner.badgesChanged();
         owner.luaRuntime = null;
         owner.clearParticles();
         owner.clearSounds();
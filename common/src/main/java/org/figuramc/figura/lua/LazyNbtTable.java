@@ -0,0 +1,61 @@
+package org.figuramc.figura.lua;
+
+import net.minecraft.nbt.CompoundTag;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Lua table of a compound tag, which only converts the tags that are indexed
+ * iterating the table converts everything, same as {@link NbtToLua#convert}
+ * the tag is only read, so it can be shared between tables
+ */
+public class LazyNbtTable extends LuaTable {
+
+    private final CompoundTag tag;
+    private Set<String> pending;
+
+    public LazyNbtTable(CompoundTag tag) {
+        this.tag = tag;
+        this.pending = tag.isEmpty() ? null : new HashSet<>(tag.getAllKeys());
+    }
+
+    private void convertKey(String key) {
+        if (pending != null && pending.remove(key))
+            super.rawset(LuaValue.valueOf(key), NbtToLua.convertLazy(tag.get(key)));
+    }
+
+    private void convertAll() {
+        if (pending == null)
+            return;
+
+        Set<String> keys = pending;
+        pending = null;
+        for (String key : keys)
+            super.rawset(LuaValue.valueOf(key), NbtToLua.convertLazy(tag.get(key)));
+    }
+
+    @Override
+    public LuaValue rawget(LuaValue key) {
+        if (pending != null && key.type() == LuaValue.TSTRING)
+            convertKey(key.tojstring());
+        return super.rawget(key);
+    }
+
+    @Override
+    public void rawset(LuaValue key, LuaValue value) {
+        // a written key is not converted later
+        if (pending != null && key.type() == LuaValue.TSTRING)
+            pending.remove(key.tojstring());
+        super.rawset(key, value);
+    }
+
+    @Override
+    public Varargs next(LuaValue key) {
+        convertAll();
+        return super.next(key);
+    }
+}
@@ -0,0 +1,128 @@
+package org.figuramc.figura.lua;
+
+import net.minecraft.network.chat.Component;
+import org.figuramc.figura.FiguraMod;
+import org.figuramc.figura.avatar.Avatar;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded buffer of the messages logged by an avatar, waiting to be shown
+ * messages are only formatted when shown, and only a few messages of each avatar are shown per tick
+ * the values in a message are copied when it is added, only building the components is left for later
+ * when the buffer is full, the oldest messages are dropped
+ */
+public class LuaLogBuffer {
+
+    private static final int CAPACITY = 256;
+    private static final int MAX_PER_TICK = 16;
+
+    // buffers with messages to show, in the order they were first written
+    private static final Set<LuaLogBuffer> PENDING = new LinkedHashSet<>();
+
+    private final Avatar owner;
+    private final Entry[] entries = new Entry[CAPACITY];
+    private int head, size, dropped;
+
+    /**
+     * @param owner - the avatar logging the messages
+     */
+    public LuaLogBuffer(Avatar owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Adds a message to the buffer
+     *
+     * @param message - formats the message, only called when the message is shown, so it should not read script values
+     * @param chatOnly - if the message should always go to chat, ignoring the log location config
+     */
+    public void add(Supplier<Component> message, boolean chatOnly) {
+        synchronized (PENDING) {
+            if (size == CAPACITY) {
+                // overwrite the oldest
+                entries[head] = null;
+                head = (head + 1) % CAPACITY;
+                size--;
+                dropped++;
+            }
+
+            entries[(head + size) % CAPACITY] = new Entry(message, chatOnly);
+            size++;
+            PENDING.add(this);
+        }
+    }
+
+    /**
+     * Drops the messages not shown yet, like when the avatar is unloaded
+     */
+    public void clear() {
+        synchronized (PENDING) {
+            for (int i = 0; i < size; i++)
+                entries[(head + i) % CAPACITY] = null;
+            head = size = dropped = 0;
+            PENDING.remove(this);
+        }
+    }
+
+    /**
+     * Shows the messages of this tick, from all buffers
+     *
+     * @param output - receives the messages, formatted
+     */
+    public static void flushAll(Output output) {
+        Entry[] taken;
+        Avatar[] owners;
+        int count = 0;
+
+        // take the entries while locked, but format them outside of the lock
+        synchronized (PENDING) {
+            if (PENDING.isEmpty())
+                return;
+
+            taken = new Entry[PENDING.size() * (MAX_PER_TICK + 1)];
+            owners = new Avatar[taken.length];
+
+            Iterator<LuaLogBuffer> iterator = PENDING.iterator();
+            while (iterator.hasNext()) {
+                LuaLogBuffer buffer = iterator.next();
+                if (buffer.dropped > 0) {
+                    int dropped = buffer.dropped;
+                    owners[count] = buffer.owner;
+                    taken[count++] = new Entry(() -> output.dropped(buffer.owner, dropped), false);
+                    buffer.dropped = 0;
+                }
+
+                int amount = Math.min(buffer.size, MAX_PER_TICK);
+                for (int i = 0; i < amount; i++) {
+                    owners[count] = buffer.owner;
+                    taken[count++] = buffer.entries[buffer.head];
+                    buffer.entries[buffer.head] = null;
+                    buffer.head = (buffer.head + 1) % CAPACITY;
+                }
+                buffer.size -= amount;
+
+                if (buffer.size == 0)
+                    iterator.remove();
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            try {
+                output.message(owners[i], taken[i].message.get(), taken[i].chatOnly);
+            } catch (Exception e) {
+                FiguraMod.LOGGER.error("Failed to format lua message", e);
+            }
+        }
+    }
+
+    public interface Output {
+        void message(Avatar owner, Component message, boolean chatOnly);
+        Component dropped(Avatar owner, int count);
+    }
+
+    private record Entry(Supplier<Component> message, boolean chatOnly) {}
+}
@@ -1,6 +1,9 @@
 package org.figuramc.figura.lua;
 
+import com.google.common.collect.MapMaker;
 import net.minecraft.network.chat.Component;
+import net.minecraft.world.entity.Entity;
+import org.figuramc.figura.lua.api.entity.EntityAPI;
 import org.figuramc.figura.lua.docs.FiguraDocsManager;
 import org.figuramc.figura.lua.docs.LuaTypeDoc;
 import org.luaj.vm2.*;
@@ -13,6 +16,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * One LuaTypeManager per LuaRuntime, so that people can be allowed to edit the metatables within.
@@ -21,6 +25,12 @@ public class LuaTypeManager {
 
     private final Map<Class<?>, LuaTable> metatables = new HashMap<>();
 
+    // entity userdata, so the same entity is always the same lua value while the script holds it
+    // weak identity keys, as entities compare by their network id
+    private final Map<Entity, LuaValue> entityCache = new MapMaker().weakKeys().weakValues().makeMap();
+    // the same userdata by uuid, as it moves to the new entity when the old one respawns
+    private final Map<UUID, LuaValue> entityByUUID = new MapMaker().weakValues().makeMap();
+
     public void generateMetatableFor(Class<?> clazz) {
         if (metatables.containsKey(clazz))
             return;
@@ -220,6 +230,44 @@ public class LuaTypeManager {
         return result;
     }
 
+    /**
+     * Gets the userdata of an entity, only creating its EntityAPI when the entity was not wrapped before
+     */
+    public LuaValue wrapEntity(Entity entity) {
+        if (entity == null)
+            return LuaValue.NIL;
+
+        LuaValue cached = getCachedEntity(entity);
+        return cached != null ? cached : cacheEntity(entity, wrap(EntityAPI.wrap(entity)));
+    }
+
+    private LuaValue wrapEntity(EntityAPI<?> entityAPI) {
+        Entity entity = entityAPI.getEntity();
+        LuaValue cached = getCachedEntity(entity);
+        return cached != null ? cached : cacheEntity(entity, wrap(entityAPI));
+    }
+
+    private LuaValue getCachedEntity(Entity entity) {
+        LuaValue cached = entityCache.get(entity);
+        if (cached != null)
+            return cached;
+
+        // the userdata of the entity before it respawned, which swaps to the new entity once checked
+        cached = entityByUUID.get(entity.getUUID());
+        if (cached != null && cached.checkuserdata() instanceof EntityAPI<?> api && api.isLoaded() && api.getEntity() == entity) {
+            entityCache.put(entity, cached);
+            return cached;
+        }
+
+        return null;
+    }
+
+    private LuaValue cacheEntity(Entity entity, LuaValue value) {
+        entityCache.put(entity, value);
+        entityByUUID.put(entity.getUUID(), value);
+        return value;
+    }
+
     private LuaValue wrapMap(Map<?, ?> map) {
         LuaTable table = new LuaTable();
 
@@ -332,6 +380,10 @@ public class LuaTypeManager {
             return wrapArray(val);
         else if (val instanceof Component c)
             return LuaValue.valueOf(Component.Serializer.toJson(c));
+        else if (val instanceof EntityAPI<?> e)
+            return wrapEntity(e);
+        else if (val instanceof Entity e)
+            return wrapEntity(e);
         else
             return wrap(val);
     }
@@ -59,4 +59,24 @@ public class NbtToLua {
 
         return builder.apply(tag);
     }
+
+    /**
+     * Same as {@link #convert}, but compound tags are only converted when their keys are indexed
+     */
+    public static LuaValue convertLazy(Tag tag) {
+        if (tag instanceof CompoundTag compound)
+            return new LazyNbtTable(compound);
+
+        if (tag instanceof ListTag list) {
+            LuaTable table = new LuaTable();
+            int i = 1;
+            for (Tag children : list) {
+                table.set(i, convertLazy(children));
+                i++;
+            }
+            return table;
+        }
+
+        return convert(tag);
+    }
 }
@@ -119,6 +119,7 @@ public class AvatarAPI {
             FiguraVec3 vec = LuaUtils.parseOneArgVec("setColor", r, h, b, 1d);
             avatar.badgeToColor.put(badge, ColorUtils.rgbToHex(vec));
         }
+        avatar.badgesChanged();
         return this;
     }
 
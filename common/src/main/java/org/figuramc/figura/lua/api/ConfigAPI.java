@@ -13,14 +13,16 @@ import org.figuramc.figura.math.matrix.FiguraMatrix;
 import org.figuramc.figura.math.vector.FiguraVector;
 import org.figuramc.figura.utils.IOUtils;
 import org.figuramc.figura.utils.MathUtils;
+import org.figuramc.figura.utils.PersistenceManager;
 import org.luaj.vm2.*;
 
 import java.io.BufferedReader;
-import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 
 @LuaWhitelist
 @LuaTypeDoc(
@@ -31,6 +33,10 @@ public class ConfigAPI {
 
     private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
 
+    // json of every config file read so far, kept updated by saves, so the disk is only read once
+    // the files are written in the background, so the disk might not be up to date
+    private static final Map<Path, JsonObject> STORE = new HashMap<>();
+
     private enum Type {
         BOOL,
         INT,
@@ -62,7 +68,12 @@ public class ConfigAPI {
     }
 
     public static void clearAllData() {
-        IOUtils.deleteFile(getConfigDataDir());
+        Path dir = getConfigDataDir();
+        synchronized (STORE) {
+            STORE.clear();
+        }
+        PersistenceManager.discard(dir);
+        IOUtils.deleteFile(dir);
     }
 
     private Path getPath() {
@@ -80,22 +91,31 @@ public class ConfigAPI {
     }
 
     // write
-    private void write() {
+    private void write(String key, LuaValue val) {
         // parse file target
         Path path = getPath();
 
-        // parse the table
-        JsonObject root = new JsonObject();
-        for (LuaValue key : luaTable.keys())
-            root.add(key.toString(), writeArg(luaTable.get(key), new JsonObject()));
-
-        // write file
-        try (OutputStream fs = Files.newOutputStream(path)) {
-            fs.write(GSON.toJson(root).getBytes());
-        } catch (Exception e) {
-            FiguraMod.LOGGER.error("", e);
-            throw new LuaError("Failed to save avatar data file");
+        // only the changed key is parsed
+        JsonElement json = val.isnil() ? JsonNull.INSTANCE : writeArg(val, new JsonObject());
+        synchronized (STORE) {
+            JsonObject root = STORE.computeIfAbsent(path, p -> new JsonObject());
+            if (json == JsonNull.INSTANCE)
+                root.remove(key);
+            else
+                root.add(key, json);
         }
+
+        // the file is written later, with every change made until then
+        PersistenceManager.markDirty(path, () -> {
+            JsonObject copy;
+            synchronized (STORE) {
+                JsonObject root = STORE.get(path);
+                if (root == null)
+                    return null;
+                copy = root.deepCopy();
+            }
+            return os -> os.write(GSON.toJson(copy).getBytes());
+        });
     }
 
     private static JsonElement writeArg(LuaValue val, JsonObject obj) {
@@ -176,19 +196,10 @@ public class ConfigAPI {
         if (loaded) return;
         luaTable = new LuaTable();
 
-        // read file
         Path path = getPath();
-        JsonObject root;
-
-        if (!Files.exists(path))
-            return;
-
-        try (BufferedReader reader = Files.newBufferedReader(path)) {
-            JsonElement element = JsonParser.parseReader(reader);
-            if (element.isJsonNull())
-                return;
+        JsonObject root = readFile(path);
 
-            root = element.getAsJsonObject();
+        try {
             for (String key : root.keySet())
                 luaTable.set(key, readArg(root.get(key), owner));
         } catch (Exception e) {
@@ -199,6 +210,32 @@ public class ConfigAPI {
         loaded = true;
     }
 
+    // the stored json of a file, read from the disk only the first time
+    private static JsonObject readFile(Path path) {
+        synchronized (STORE) {
+            JsonObject cached = STORE.get(path);
+            if (cached != null)
+                return cached;
+        }
+
+        JsonObject root = new JsonObject();
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path)) {
+                JsonElement element = JsonParser.parseReader(reader);
+                if (!element.isJsonNull())
+                    root = element.getAsJsonObject();
+            } catch (Exception e) {
+                FiguraMod.LOGGER.error("", e);
+                throw new LuaError("Failed to load avatar data file");
+            }
+        }
+
+        synchronized (STORE) {
+            JsonObject cached = STORE.putIfAbsent(path, root);
+            return cached != null ? cached : root;
+        }
+    }
+
     private static LuaValue readArg(JsonElement json, Avatar owner) {
         JsonObject obj = json.getAsJsonObject();
         Type type = Type.valueOf(obj.get("type").getAsString());
@@ -290,7 +327,7 @@ public class ConfigAPI {
 
         val = val != null && (val.isboolean() || val.isstring() || val.isnumber() || val.istable() || val.isuserdata(FiguraVector.class) || val.isuserdata(FiguraMatrix.class)) ? val : LuaValue.NIL;
         luaTable.set(key, val);
-        write();
+        write(key, val);
 
         return this;
     }
@@ -374,6 +374,7 @@ public class HostAPI {
 
         BitSet set = pride ? badges.getFirst() : badges.getSecond();
         set.set(index, value);
+        owner.badgesChanged();
         return this;
     }
 
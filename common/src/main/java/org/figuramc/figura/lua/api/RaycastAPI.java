@@ -1,10 +1,12 @@
 package org.figuramc.figura.lua.api;
 
+import java.util.*;
 import java.util.function.Predicate;
 
 import org.figuramc.figura.avatar.Avatar;
+import org.figuramc.figura.lua.LuaNotNil;
 import org.figuramc.figura.lua.LuaWhitelist;
-import org.figuramc.figura.lua.api.entity.EntityAPI;
+import org.figuramc.figura.lua.api.world.BlockStateAPI;
 import org.figuramc.figura.lua.api.world.WorldAPI;
 import org.figuramc.figura.lua.docs.LuaMethodDoc;
 import org.figuramc.figura.lua.docs.LuaMethodOverload;
@@ -13,18 +15,24 @@ import org.figuramc.figura.math.vector.FiguraVec3;
 import org.figuramc.figura.utils.LuaUtils;
 import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaFunction;
+import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.LuaValue;
 
 import com.mojang.datafixers.util.Pair;
 
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.Marker;
 import net.minecraft.world.entity.projectile.ProjectileUtil;
 import net.minecraft.world.level.ClipContext;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.BlockHitResult;
 import net.minecraft.world.phys.EntityHitResult;
+import net.minecraft.world.phys.HitResult;
+import net.minecraft.world.phys.Vec3;
 
 @LuaWhitelist
 @LuaTypeDoc(
@@ -33,6 +41,10 @@ import net.minecraft.world.phys.EntityHitResult;
 )
 public class RaycastAPI {
     
+    // how many rays a batch can have, and how much bigger than the rays the shared entity search can be
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final double SHARED_SEARCH_FACTOR = 4d;
+
     private final Avatar owner;
 
     public RaycastAPI(Avatar owner) {
@@ -70,21 +82,8 @@ public class RaycastAPI {
         start = pair.getFirst();
         end = pair.getSecond();
 
-        ClipContext.Block blockContext;
-        try{
-            blockContext = blockCastType != null ? ClipContext.Block.valueOf(blockCastType.toUpperCase()) : ClipContext.Block.COLLIDER;
-        }
-        catch(IllegalArgumentException e){
-            throw new LuaError("Invalid blockRaycastType provided");
-        }
-
-        ClipContext.Fluid fluidContext;
-        try{
-            fluidContext = fluidCastType != null ? ClipContext.Fluid.valueOf(fluidCastType.toUpperCase()) : ClipContext.Fluid.NONE;
-        }
-        catch(IllegalArgumentException e){
-            throw new LuaError("Invalid fluidRaycastType provided");
-        }
+        ClipContext.Block blockContext = parseBlockContext(blockCastType);
+        ClipContext.Fluid fluidContext = parseFluidContext(fluidCastType);
 
         BlockHitResult result = WorldAPI.getCurrentWorld().clip(new ClipContext(start.asVec3(), end.asVec3(), blockContext, fluidContext, new Marker(EntityType.MARKER, WorldAPI.getCurrentWorld())));
         return LuaUtils.parseBlockHitResult(result);
@@ -122,7 +121,7 @@ public class RaycastAPI {
 
         Predicate<Entity> entityPredicate = (entity) -> {
             if (predicate == null) return true;
-            LuaValue result = predicate.invoke(this.owner.luaRuntime.typeManager.javaToLua(EntityAPI.wrap(entity))).arg1();
+            LuaValue result = predicate.invoke(this.owner.luaRuntime.typeManager.wrapEntity(entity)).arg1();
             if ((result.isboolean() && result.checkboolean() == false) || result.isnil())
                 return false;
             return true;
@@ -131,8 +130,184 @@ public class RaycastAPI {
         EntityHitResult result = ProjectileUtil.getEntityHitResult(new Marker(EntityType.MARKER, WorldAPI.getCurrentWorld()), start.asVec3(), end.asVec3(), new AABB(start.asVec3(), end.asVec3()), entityPredicate, Double.MAX_VALUE);
 
         if (result != null)
-            return new Object[]{EntityAPI.wrap(result.getEntity()), FiguraVec3.fromVec3(result.getLocation())};
+            return new Object[]{result.getEntity(), FiguraVec3.fromVec3(result.getLocation())};
 
         return null;
     }
+
+    @LuaWhitelist
+    @LuaMethodDoc(
+            overloads = @LuaMethodOverload(
+                    argumentTypes = {String.class, String.class, LuaTable.class},
+                    argumentNames = {"blockCastType", "fluidCastType", "rays"}
+            ),
+            value = "raycast.blocks"
+    )
+    public List<Object> blocks(String blockCastType, String fluidCastType, @LuaNotNil LuaTable rays) {
+        ClipContext.Block blockContext = parseBlockContext(blockCastType);
+        ClipContext.Fluid fluidContext = parseFluidContext(fluidCastType);
+
+        Level world = WorldAPI.getCurrentWorld();
+        Marker marker = new Marker(EntityType.MARKER, world);
+
+        List<Object> hits = new ArrayList<>();
+        for (Vec3[] ray : parseRays(rays)) {
+            BlockHitResult result = world.clip(new ClipContext(ray[0], ray[1], blockContext, fluidContext, marker));
+            if (result.getType() == HitResult.Type.MISS) {
+                hits.add(false);
+                continue;
+            }
+
+            BlockPos pos = result.getBlockPos();
+            Map<String, Object> hit = new HashMap<>();
+            hit.put("block", new BlockStateAPI(world.getBlockState(pos), pos));
+            hit.put("pos", FiguraVec3.fromVec3(result.getLocation()));
+            hit.put("side", result.getDirection().getName());
+            hits.add(hit);
+        }
+        return hits;
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc(
+            overloads = {
+                    @LuaMethodOverload(
+                            argumentTypes = LuaTable.class,
+                            argumentNames = "rays"
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {LuaTable.class, LuaTable.class},
+                            argumentNames = {"rays", "filters"}
+                    )
+            },
+            value = "raycast.entities"
+    )
+    public List<Object> entities(@LuaNotNil LuaTable rays, LuaTable filters) {
+        List<Vec3[]> list = parseRays(rays);
+        Predicate<Entity> filter = parseEntityFilter(filters);
+
+        // rays longer than the max distance are shortened
+        if (filters != null && !filters.get("maxDistance").isnil()) {
+            double maxDistance = filters.get("maxDistance").checkdouble();
+            for (Vec3[] ray : list) {
+                if (ray[0].distanceToSqr(ray[1]) > maxDistance * maxDistance)
+                    ray[1] = ray[0].add(ray[1].subtract(ray[0]).normalize().scale(maxDistance));
+            }
+        }
+
+        // entities are gathered once for every ray, unless the rays are too spread apart
+        // compared with the searched boxes, so axis aligned rays still have a volume
+        AABB[] boxes = new AABB[list.size()];
+        AABB bounds = null;
+        double volume = 0d;
+        for (int i = 0; i < boxes.length; i++) {
+            AABB box = boxes[i] = new AABB(list.get(i)[0], list.get(i)[1]).inflate(1d);
+            bounds = bounds == null ? box : bounds.minmax(box);
+            volume += box.getXsize() * box.getYsize() * box.getZsize();
+        }
+
+        Level world = WorldAPI.getCurrentWorld();
+        List<Entity> shared = null;
+        if (bounds != null && bounds.getXsize() * bounds.getYsize() * bounds.getZsize() <= volume * SHARED_SEARCH_FACTOR)
+            shared = world.getEntities((Entity) null, bounds, filter);
+
+        List<Object> hits = new ArrayList<>();
+        for (int i = 0; i < boxes.length; i++) {
+            Vec3[] ray = list.get(i);
+            List<Entity> candidates = shared != null ? shared : world.getEntities((Entity) null, boxes[i], filter);
+
+            // same as ProjectileUtil.getEntityHitResult
+            Entity hitEntity = null;
+            Vec3 hitPos = null;
+            double distance = Double.MAX_VALUE;
+            for (Entity entity : candidates) {
+                AABB box = entity.getBoundingBox().inflate(entity.getPickRadius());
+                Optional<Vec3> clip = box.clip(ray[0], ray[1]);
+                if (box.contains(ray[0])) {
+                    // the ray starts inside the entity
+                    if (distance >= 0d) {
+                        hitEntity = entity;
+                        hitPos = clip.orElse(ray[0]);
+                        distance = 0d;
+                    }
+                } else if (clip.isPresent()) {
+                    double d = ray[0].distanceToSqr(clip.get());
+                    if (d < distance) {
+                        hitEntity = entity;
+                        hitPos = clip.get();
+                        distance = d;
+                    }
+                }
+            }
+
+            if (hitEntity == null) {
+                hits.add(false);
+                continue;
+            }
+
+            Map<String, Object> hit = new HashMap<>();
+            hit.put("entity", hitEntity);
+            hit.put("pos", FiguraVec3.fromVec3(hitPos));
+            hits.add(hit);
+        }
+        return hits;
+    }
+
+    private static ClipContext.Block parseBlockContext(String blockCastType) {
+        try {
+            return blockCastType != null ? ClipContext.Block.valueOf(blockCastType.toUpperCase()) : ClipContext.Block.COLLIDER;
+        } catch (IllegalArgumentException e) {
+            throw new LuaError("Invalid blockRaycastType provided");
+        }
+    }
+
+    private static ClipContext.Fluid parseFluidContext(String fluidCastType) {
+        try {
+            return fluidCastType != null ? ClipContext.Fluid.valueOf(fluidCastType.toUpperCase()) : ClipContext.Fluid.NONE;
+        } catch (IllegalArgumentException e) {
+            throw new LuaError("Invalid fluidRaycastType provided");
+        }
+    }
+
+    // a list of {start, end} pairs
+    private static List<Vec3[]> parseRays(LuaTable rays) {
+        int length = rays.length();
+        if (length > MAX_BATCH_SIZE)
+            throw new LuaError("Too many rays, the maximum is " + MAX_BATCH_SIZE);
+
+        List<Vec3[]> list = new ArrayList<>(length);
+        for (int i = 1; i <= length; i++) {
+            LuaValue ray = rays.get(i);
+            if (!ray.istable())
+                throw new LuaError("Invalid ray at index " + i + ", expected a table with a start and an end vector");
+
+            LuaValue start = ray.get(1), end = ray.get(2);
+            if (!start.isuserdata(FiguraVec3.class) || !end.isuserdata(FiguraVec3.class))
+                throw new LuaError("Invalid ray at index " + i + ", expected a table with a start and an end vector");
+
+            list.add(new Vec3[]{((FiguraVec3) start.checkuserdata(FiguraVec3.class)).asVec3(), ((FiguraVec3) end.checkuserdata(FiguraVec3.class)).asVec3()});
+        }
+        return list;
+    }
+
+    private static Predicate<Entity> parseEntityFilter(LuaTable filters) {
+        Predicate<Entity> predicate = entity -> true;
+        if (filters == null)
+            return predicate;
+
+        LuaValue type = filters.get("type");
+        if (!type.isnil()) {
+            EntityType<?> entityType = BuiltInRegistries.ENTITY_TYPE.getOptional(LuaUtils.parsePath(type.checkjstring()))
+                    .orElseThrow(() -> new LuaError("Invalid entity type \"" + type.tojstring() + "\""));
+            predicate = predicate.and(entity -> entity.getType() == entityType);
+        }
+
+        LuaValue team = filters.get("team");
+        if (!team.isnil()) {
+            String teamName = team.checkjstring();
+            predicate = predicate.and(entity -> entity.getTeam() != null && entity.getTeam().getName().equals(teamName));
+        }
+
+        return predicate;
+    }
 }
@@ -9,10 +9,13 @@ import org.figuramc.figura.lua.docs.LuaTypeDoc;
 import org.figuramc.figura.permissions.Permissions;
 import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.LuaValue;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
@@ -23,9 +26,11 @@ import java.util.Stack;
 @LuaTypeDoc(value = "buffer", name = "Buffer")
 public class FiguraBuffer implements AutoCloseable {
     private static final int CAPACITY_INCREASE_STEP = 512;
+    private static final int STREAM_CHUNK_SIZE = 8192;
     private final Avatar parent;
     private int length = 0, position = 0;
-    private byte[] buf;
+    // big endian, with a little endian view over the same memory
+    private ByteBuffer buf, bufLE;
     private boolean isClosed;
 
     public FiguraBuffer(Avatar parent) {
@@ -38,7 +43,7 @@ public class FiguraBuffer implements AutoCloseable {
             parent.noPermissions.add(Permissions.BUFFER_SIZE);
             throw new LuaError("Unable to create buffer because max capacity is less than default buffer size (512)");
         }
-        buf = new byte[CAPACITY_INCREASE_STEP];
+        setBuf(ByteBuffer.allocate(CAPACITY_INCREASE_STEP));
         parent.openBuffers.add(this);
     }
 
@@ -48,30 +53,60 @@ public class FiguraBuffer implements AutoCloseable {
             parent.noPermissions.add(Permissions.BUFFER_SIZE);
             throw new LuaError("Unable to create a buffer with capacity %s");
         }
-        buf = new byte[cap];
+        setBuf(ByteBuffer.allocate(Math.max(cap, 0)));
     }
 
-    private void ensureBufCapacity(int cap) {
-        if (cap > getMaxCapacity())
+    private void setBuf(ByteBuffer buf) {
+        this.buf = buf;
+        this.bufLE = buf.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void ensureBufCapacity(long cap) {
+        int max = getMaxCapacity();
+        if (cap > max)
             throw new LuaError("Can't increase this buffer capacity to %s, max capacity is %s"
-                    .formatted(cap, getMaxCapacity()));
-        if (cap > buf.length) {
-            buf = Arrays.copyOf(buf, Math.min(buf.length+CAPACITY_INCREASE_STEP, getMaxCapacity()));
+                    .formatted(cap, max));
+        if (cap > buf.capacity()) {
+            // double the capacity, so writing many values only copies the buffer a few times
+            int newCap = (int) Math.min(Math.max(cap, buf.capacity() * 2L), max);
+            setBuf(ByteBuffer.wrap(Arrays.copyOf(buf.array(), newCap)));
         }
     }
 
-    private byte[] readNBytes(int count) {
-        byte[] arr = new byte[Math.min(count, available())];
-        int b;
-        int i = 0;
-        for (; i < count && (b = this.read()) != -1; i++) {
-            arr[i] = (byte) b;
-        }
-        if (i < count) {
-            byte[] newArr = new byte[i];
-            System.arraycopy(arr, 0, newArr ,0, i);
-            arr = newArr;
+    // makes room for the bytes at the current position, and returns where to write them
+    private int beginWrite(int count) {
+        ensureBufCapacity((long) position + count);
+        int index = position;
+        position += count;
+        length = Math.max(length, position);
+        return index;
+    }
+
+    // returns where to read the bytes from, or -1 if there are not enough bytes left
+    private int beginRead(int count) {
+        checkIsClosed();
+        if (length - position < count)
+            return -1;
+        int index = position;
+        position += count;
+        return index;
+    }
+
+    // value from the bytes left at the end of the buffer, when there are less than the value size
+    private long readPartial(int size, boolean littleEndian) {
+        byte[] bytes = readNBytes(size);
+        long v = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[littleEndian ? i : (bytes.length - 1) - i] & 0xFF;
+            v |= (long) b << (i * 8);
         }
+        return v;
+    }
+
+    private byte[] readNBytes(int count) {
+        int amount = Math.max(Math.min(count, available()), 0);
+        byte[] arr = Arrays.copyOfRange(buf.array(), position, position + amount);
+        position += amount;
         return arr;
     }
 
@@ -82,57 +117,35 @@ public class FiguraBuffer implements AutoCloseable {
         if (position == length) {
             return -1;
         }
-        int v = buf[position] & 0xff;
-        position++;
-        return v;
+        return buf.get(position++) & 0xff;
     }
 
     @LuaWhitelist
     @LuaMethodDoc("buffer.read_short")
     public int readShort() {
-        checkIsClosed();
-        byte[] bytes = readNBytes(2);
-        short v = 0;
-        for (int i = 0; i < bytes.length; i++) {
-            v |= (short) ((bytes[((bytes.length - 1) - i)] & 0xFF) << (i * 8));
-        }
-        return v;
+        int index = beginRead(2);
+        return index == -1 ? (short) readPartial(2, false) : buf.getShort(index);
     }
 
     @LuaWhitelist
     @LuaMethodDoc("buffer.read_ushort")
     public int readUShort() {
-        checkIsClosed();
-        byte[] bytes = readNBytes(2);
-        int v = 0;
-        for (int i = 0; i < bytes.length; i++) {
-            v |= (bytes[((bytes.length - 1) - i)] & 0xFF) << (i * 8);
-        }
-        return v;
+        int index = beginRead(2);
+        return index == -1 ? (int) readPartial(2, false) : buf.getShort(index) & 0xFFFF;
     }
 
     @LuaWhitelist
     @LuaMethodDoc("buffer.read_int")
     public int readInt() {
-        checkIsClosed();
-        byte[] bytes = readNBytes(4);
-        int v = 0;
-        for (int i = 0; i < bytes.length; i++) {
-            v |= (bytes[((bytes.length - 1) - i)] & 0xFF) << (i * 8);
-        }
-        return v;
+        int index = beginRead(4);
+        return index == -1 ? (int) readPartial(4, false) : buf.getInt(index);
     }
 
     @LuaWhitelist
     @LuaMethodDoc("buffer.read_long")
     public long readLong() {
-        checkIsClosed();
-        byte[] bytes = readNBytes(8);
-        long v = 0;
-        for (int i = 0; i < bytes.length; i++) {
-            v |= (long) (bytes[((bytes.length - 1) - i)] & 0xFF) << (i * 8);
-        }
-        return v;
+        int index = beginRead(8);
+        return index == -1 ? readPartial(8, false) : buf.getLong(index);
     }
 
     @LuaWhitelist
@@ -152,49 +165,29 @@ public class FiguraBuffer implements AutoCloseable {
     @LuaWhitelist
     @LuaMethodDoc("buffer.read_short_le")
     public int readShortLE() {
-        checkIsClosed();
-        byte[] bytes = readNBytes(2);
-        short v = 0;
-        for (int i = 0; i < bytes.length; i++) {
-            v |= (short) ((bytes[i] & 0xFF) << (i * 8));
-        }
-        return v;
+        int index = beginRead(2);
+        return index == -1 ? (short) readPartial(2, true) : bufLE.getShort(index);
     }
 
     @LuaWhitelist
     @LuaMethodDoc("buffer.read_ushort_le")
     public int readUShortLE() {
-        checkIsClosed();
-        byte[] bytes = readNBytes(2);
-        int v = 0;
-        for (int i = 0; i < bytes.length; i++) {
-            v |= (bytes[i] & 0xFF) << (i * 8);
-        }
-        return v;
+        int index = beginRead(2);
+        return index == -1 ? (int) readPartial(2, true) : bufLE.getShort(index) & 0xFFFF;
     }
 
     @LuaWhitelist
     @LuaMethodDoc("buffer.read_int_le")
     public int readIntLE() {
-        checkIsClosed();
-        byte[] bytes = readNBytes(4);
-        int v = 0;
-        for (int i = 0; i < bytes.length; i++) {
-            v |= (bytes[i] & 0xFF) << (i * 8);
-        }
-        return v;
+        int index = beginRead(4);
+        return index == -1 ? (int) readPartial(4, true) : bufLE.getInt(index);
     }
 
     @LuaWhitelist
     @LuaMethodDoc("buffer.read_long_le")
     public long readLongLE() {
-        checkIsClosed();
-        byte[] bytes = readNBytes(8);
-        long v = 0;
-        for (int i = 0; i < bytes.length; i++) {
-            v |= (long) (bytes[i] & 0xFF) << (i * 8);
-        }
-        return v;
+        int index = beginRead(8);
+        return index == -1 ? readPartial(8, true) : bufLE.getLong(index);
     }
 
     @LuaWhitelist
@@ -295,18 +288,17 @@ public class FiguraBuffer implements AutoCloseable {
     )
     public void write(@LuaNotNil int val) {
         checkIsClosed();
-        if (position == length) {
-            length++;
-            ensureBufCapacity(length);
-        }
-        buf[position] = (byte) (val & 0xFF);
-        position++;
+        int index = beginWrite(1);
+        buf.put(index, (byte) (val & 0xFF));
     }
 
     private void writeBytes(byte[] bytes) {
-        for (byte aByte : bytes) {
-            write(aByte & 0xff);
-        }
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int count) {
+        int index = beginWrite(count);
+        System.arraycopy(bytes, offset, buf.array(), index, count);
     }
 
     @LuaWhitelist
@@ -320,9 +312,8 @@ public class FiguraBuffer implements AutoCloseable {
     public void writeShort(@LuaNotNil Integer val) {
         checkIsClosed();
         if (val >= Short.MIN_VALUE && val <= Short.MAX_VALUE) {
-            short s = (short) (int) val;
-            write((s >> 8) & 0xFF);
-            write(s & 0xFF);
+            int index = beginWrite(2);
+            buf.putShort(index, (short) (int) val);
         }
         else throw new LuaError("Value %s is out of range [%s; %s]".formatted(val, Short.MIN_VALUE, Short.MAX_VALUE));
     }
@@ -338,9 +329,8 @@ public class FiguraBuffer implements AutoCloseable {
     public void writeUShort(@LuaNotNil Integer val) {
         checkIsClosed();
         if (val >= 0 && val <= Character.MAX_VALUE) {
-            char s = (char) (int) val;
-            write((s >> 8) & 0xFF);
-            write(s & 0xFF);
+            int index = beginWrite(2);
+            buf.putChar(index, (char) (int) val);
         }
         else throw new LuaError("Value %s is out of range [%s; %s]".formatted(val, 0, (int) Character.MAX_VALUE));
     }
@@ -355,10 +345,8 @@ public class FiguraBuffer implements AutoCloseable {
     )
     public void writeInt(@LuaNotNil Integer val) {
         checkIsClosed();
-        write((val >> 24) & 0xFF);
-        write((val >> 16) & 0xFF);
-        write((val >> 8) & 0xFF);
-        write(val & 0xFF);
+        int index = beginWrite(4);
+        buf.putInt(index, val);
     }
 
     @LuaWhitelist
@@ -371,14 +359,8 @@ public class FiguraBuffer implements AutoCloseable {
     )
     public void writeLong(@LuaNotNil Long val) {
         checkIsClosed();
-        write((int) ((val >> 56) & 0xFF));
-        write((int) ((val >> 48) & 0xFF));
-        write((int) ((val >> 40) & 0xFF));
-        write((int) ((val >> 32) & 0xFF));
-        write((int) ((val >> 24) & 0xFF));
-        write((int) ((val >> 16) & 0xFF));
-        write((int) ((val >> 8) & 0xFF));
-        write((int) (val & 0xFF));
+        int index = beginWrite(8);
+        buf.putLong(index, val);
     }
 
     @LuaWhitelist
@@ -418,9 +400,8 @@ public class FiguraBuffer implements AutoCloseable {
     public void writeShortLE(@LuaNotNil Integer val) {
         checkIsClosed();
         if (val >= Short.MIN_VALUE && val <= Short.MAX_VALUE) {
-            short s = (short) (int) val;
-            write(s & 0xFF);
-            write((s >> 8) & 0xFF);
+            int index = beginWrite(2);
+            bufLE.putShort(index, (short) (int) val);
         }
         else throw new LuaError("Value %s is out of range [%s; %s]".formatted(val, Short.MIN_VALUE, Short.MAX_VALUE));
     }
@@ -436,9 +417,8 @@ public class FiguraBuffer implements AutoCloseable {
     public void writeUShortLE(@LuaNotNil Integer val) {
         checkIsClosed();
         if (val >= 0 && val <= Character.MAX_VALUE) {
-            char s = (char) (int) val;
-            write(s & 0xFF);
-            write((s >> 8) & 0xFF);
+            int index = beginWrite(2);
+            bufLE.putChar(index, (char) (int) val);
         }
         else throw new LuaError("Value %s is out of range [%s; %s]".formatted(val, 0, (int) Character.MAX_VALUE));
     }
@@ -453,10 +433,8 @@ public class FiguraBuffer implements AutoCloseable {
     )
     public void writeIntLE(@LuaNotNil Integer val) {
         checkIsClosed();
-        write(val & 0xFF);
-        write((val >> 8) & 0xFF);
-        write((val >> 16) & 0xFF);
-        write((val >> 24) & 0xFF);
+        int index = beginWrite(4);
+        bufLE.putInt(index, val);
     }
 
     @LuaWhitelist
@@ -469,14 +447,8 @@ public class FiguraBuffer implements AutoCloseable {
     )
     public void writeLongLE(@LuaNotNil Long val) {
         checkIsClosed();
-        write((int) (val & 0xFF));
-        write((int) ((val >> 8) & 0xFF));
-        write((int) ((val >> 16) & 0xFF));
-        write((int) ((val >> 24) & 0xFF));
-        write((int) ((val >> 32) & 0xFF));
-        write((int) ((val >> 40) & 0xFF));
-        write((int) ((val >> 48) & 0xFF));
-        write((int) ((val >> 56) & 0xFF));
+        int index = beginWrite(8);
+        bufLE.putLong(index, val);
     }
 
     @LuaWhitelist
@@ -571,11 +543,97 @@ public class FiguraBuffer implements AutoCloseable {
             throw new LuaError("Expected string, got %s".formatted(val.typename()));
         }
         else {
-            byte[] bytes = new byte[byteArray.length()];
-            byteArray.copyInto(0, bytes, 0, bytes.length);
-            writeBytes(bytes);
-            return bytes.length;
+            int count = byteArray.length();
+            int index = beginWrite(count);
+            byteArray.copyInto(0, buf.array(), index, count);
+            return count;
+        }
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc(
+            value = "buffer.write_buffer",
+            overloads = {
+                    @LuaMethodOverload(
+                            argumentTypes = FiguraBuffer.class,
+                            argumentNames = "buffer",
+                            returnType = Integer.class
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {FiguraBuffer.class, Integer.class},
+                            argumentNames = {"buffer", "amount"},
+                            returnType = Integer.class
+                    )
+            }
+    )
+    public int writeBuffer(@LuaNotNil FiguraBuffer buffer, Integer amount) {
+        checkIsClosed();
+        if (buffer == this) throw new LuaError("Can't write a buffer into itself");
+        int available = buffer.available();
+        amount = amount == null ? available : Math.max(Math.min(amount, available), 0);
+        int index = beginWrite(amount);
+        System.arraycopy(buffer.buf.array(), buffer.position, buf.array(), index, amount);
+        buffer.position += amount;
+        return amount;
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc(
+            value = "buffer.read_numbers",
+            overloads = {
+                    @LuaMethodOverload(
+                            argumentTypes = String.class,
+                            argumentNames = "type",
+                            returnType = LuaTable.class
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {String.class, Integer.class},
+                            argumentNames = {"type", "count"},
+                            returnType = LuaTable.class
+                    )
+            }
+    )
+    public LuaTable readNumbers(@LuaNotNil String type, Integer count) {
+        checkIsClosed();
+        NumberType numberType = NumberType.parse(type);
+        ByteBuffer view = NumberType.isLittleEndian(type) ? bufLE : buf;
+        int max = available() / numberType.size;
+        count = count == null ? max : Math.max(Math.min(count, max), 0);
+
+        LuaTable table = new LuaTable(count, 0);
+        for (int i = 1; i <= count; i++) {
+            table.rawset(i, numberType.get(view, position));
+            position += numberType.size;
+        }
+        return table;
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc(
+            value = "buffer.write_numbers",
+            overloads = @LuaMethodOverload(
+                    argumentTypes = {String.class, LuaTable.class},
+                    argumentNames = {"type", "values"},
+                    returnType = Integer.class
+            )
+    )
+    public int writeNumbers(@LuaNotNil String type, @LuaNotNil LuaTable values) {
+        checkIsClosed();
+        NumberType numberType = NumberType.parse(type);
+        int count = values.length();
+
+        // check the values first, so nothing is written on error
+        for (int i = 1; i <= count; i++)
+            numberType.check(values.get(i));
+
+        // the buffer is replaced when it grows, so the view is taken after
+        int index = beginWrite(count * numberType.size);
+        ByteBuffer view = NumberType.isLittleEndian(type) ? bufLE : buf;
+        for (int i = 1; i <= count; i++) {
+            numberType.put(view, index, values.get(i));
+            index += numberType.size;
         }
+        return count;
     }
 
     @LuaWhitelist
@@ -643,15 +701,24 @@ public class FiguraBuffer implements AutoCloseable {
     )
     public int readFromStream(@LuaNotNil FiguraInputStream stream, Integer amount) {
         checkIsClosed();
-        if (amount == null) amount = getMaxCapacity()-position;
+        if (amount == null) amount = Math.max(getMaxCapacity()-position, 0);
         else amount = Math.max(Math.min(amount, getMaxCapacity()-position), 0);
-        int i = 0;
-        for (; i < amount; i++) {
-            int b = stream.read();
-            if (b == -1) break;
-            write(b);
+        // grow the buffer only as much as the stream has data
+        byte[] chunk = new byte[Math.min(amount, STREAM_CHUNK_SIZE)];
+        int total = 0;
+        while (total < amount) {
+            int requested = Math.min(amount - total, chunk.length);
+            int count;
+            try {
+                count = stream.readNBytes(chunk, 0, requested);
+            } catch (IOException e) {
+                throw new LuaError(e);
+            }
+            writeBytes(chunk, 0, count);
+            total += count;
+            if (count < requested) break;
         }
-        return i;
+        return total;
     }
 
     @LuaWhitelist
@@ -669,8 +736,9 @@ public class FiguraBuffer implements AutoCloseable {
         checkIsClosed();
         if (amount == null) amount = available();
         else amount = Math.max(Math.min(amount, available()), -1);
-        for (int i = 0; i < amount; i++) {
-            stream.write(read());
+        if (amount > 0) {
+            stream.write(buf.array(), position, amount);
+            position += amount;
         }
         return amount;
     }
@@ -687,6 +755,7 @@ public class FiguraBuffer implements AutoCloseable {
         if (!isClosed) {
             isClosed = true;
             buf = null;
+            bufLE = null;
         }
     }
 
@@ -705,6 +774,77 @@ public class FiguraBuffer implements AutoCloseable {
         return "Buffer";
     }
 
+    private enum NumberType {
+        BYTE(1),
+        SHORT(2),
+        USHORT(2),
+        INT(4),
+        LONG(8),
+        FLOAT(4),
+        DOUBLE(8);
+
+        private final int size;
+
+        NumberType(int size) {
+            this.size = size;
+        }
+
+        // the type name, with an optional "_le" suffix for little endian
+        private static NumberType parse(String type) {
+            String name = type.toLowerCase();
+            if (isLittleEndian(name)) name = name.substring(0, name.length() - 3);
+            return switch (name) {
+                case "byte" -> BYTE;
+                case "short" -> SHORT;
+                case "ushort" -> USHORT;
+                case "int" -> INT;
+                case "long" -> LONG;
+                case "float" -> FLOAT;
+                case "double" -> DOUBLE;
+                default -> throw new LuaError("Unknown number type \"%s\"".formatted(type));
+            };
+        }
+
+        private static boolean isLittleEndian(String type) {
+            return type.toLowerCase().endsWith("_le");
+        }
+
+        private LuaValue get(ByteBuffer view, int index) {
+            return switch (this) {
+                case BYTE -> LuaValue.valueOf(view.get(index) & 0xFF);
+                case SHORT -> LuaValue.valueOf(view.getShort(index));
+                case USHORT -> LuaValue.valueOf(view.getShort(index) & 0xFFFF);
+                case INT -> LuaValue.valueOf(view.getInt(index));
+                case LONG -> LuaValue.valueOf(view.getLong(index));
+                case FLOAT -> LuaValue.valueOf(view.getFloat(index));
+                case DOUBLE -> LuaValue.valueOf(view.getDouble(index));
+            };
+        }
+
+        private void check(LuaValue value) {
+            if (!value.isnumber())
+                throw new LuaError("Expected number, got %s".formatted(value.typename()));
+            if (this == SHORT || this == USHORT) {
+                int val = value.toint();
+                int min = this == SHORT ? Short.MIN_VALUE : 0;
+                int max = this == SHORT ? Short.MAX_VALUE : Character.MAX_VALUE;
+                if (val < min || val > max)
+                    throw new LuaError("Value %s is out of range [%s; %s]".formatted(val, min, max));
+            }
+        }
+
+        private void put(ByteBuffer view, int index, LuaValue value) {
+            switch (this) {
+                case BYTE -> view.put(index, (byte) (value.toint() & 0xFF));
+                case SHORT, USHORT -> view.putShort(index, (short) value.toint());
+                case INT -> view.putInt(index, value.toint());
+                case LONG -> view.putLong(index, value.tolong());
+                case FLOAT -> view.putFloat(index, value.tofloat());
+                case DOUBLE -> view.putDouble(index, value.todouble());
+            }
+        }
+    }
+
     public FiguraBufferInputStream asInputStream() {
         return new FiguraBufferInputStream(this);
     }
@@ -1,5 +1,6 @@
 package org.figuramc.figura.lua.api.data;
 
+import org.figuramc.figura.avatar.Avatar;
 import org.figuramc.figura.lua.LuaWhitelist;
 import org.figuramc.figura.lua.docs.LuaMethodDoc;
 import org.figuramc.figura.lua.docs.LuaMethodOverload;
@@ -11,20 +12,21 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
-import java.util.concurrent.CompletableFuture;
 
 @LuaWhitelist
 @LuaTypeDoc(name = "InputStream", value = "input_stream")
 public class FiguraInputStream extends InputStream {
     private final InputStream sourceStream;
     private final boolean asyncOnly;
-    public FiguraInputStream(InputStream sourceStream) {
-        this(sourceStream, false);
+    private final Avatar parent;
+    public FiguraInputStream(InputStream sourceStream, Avatar parent) {
+        this(sourceStream, false, parent);
     }
 
-    public FiguraInputStream(InputStream sourceStream, boolean asyncOnly) {
+    public FiguraInputStream(InputStream sourceStream, boolean asyncOnly, Avatar parent) {
         this.sourceStream = sourceStream;
         this.asyncOnly = asyncOnly;
+        this.parent = parent;
     }
 
     @Override
@@ -39,28 +41,33 @@ public class FiguraInputStream extends InputStream {
         }
     }
 
+    @Override
+    public int read(byte[] b, int off, int len) {
+        try {
+            if (asyncOnly) throw new IOException("This stream supports only async read");
+            return sourceStream.read(b, off, len);
+        } catch (IOException e) {
+            throw new LuaError(e);
+        }
+    }
+
     @LuaWhitelist
     @LuaMethodDoc("input_stream.read_async")
     public FiguraFuture<LuaString> readAsync(Integer limit) {
         final int finalLimit = limit != null ? limit : available();
         // Future handle that will be returned
         FiguraFuture<LuaString> future = new FiguraFuture<>();
-        // Calling an async read that will be put in a future results
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                byte[] buf = new byte[finalLimit];
-                int len = sourceStream.read(buf);
-                // If nothing is read - returning an empty string
-                if (len == -1) return LuaString.valueOf("");
-                // Resizing a buffer if read length is less than expected
-                if (len < buf.length) buf = Arrays.copyOf(buf, len);
-                // Returning a string byte array
-                return LuaString.valueOf(buf);
-            } catch (IOException e) {
-                throw new LuaError(e);
-            }
-        }).whenCompleteAsync(future::handle);
-        return future;
+        // Calling an async read in the avatar io threads, the result is given to the future on tick
+        return parent.ioExecutor.submit(() -> {
+            byte[] buf = new byte[finalLimit];
+            int len = sourceStream.read(buf);
+            // If nothing is read - returning an empty string
+            if (len == -1) return LuaString.valueOf("");
+            // Resizing a buffer if read length is less than expected
+            if (len < buf.length) buf = Arrays.copyOf(buf, len);
+            // Returning a string byte array
+            return LuaString.valueOf(buf);
+        }, future);
     }
 
     @Override
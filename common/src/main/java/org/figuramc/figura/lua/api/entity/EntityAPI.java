@@ -18,10 +18,11 @@ import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.EntityHitResult;
 import net.minecraft.world.phys.HitResult;
 import net.minecraft.world.phys.Vec3;
+import org.figuramc.figura.FiguraMod;
 import org.figuramc.figura.avatar.Avatar;
 import org.figuramc.figura.avatar.AvatarManager;
+import org.figuramc.figura.lua.LazyNbtTable;
 import org.figuramc.figura.lua.LuaWhitelist;
-import org.figuramc.figura.lua.NbtToLua;
 import org.figuramc.figura.lua.ReadOnlyLuaTable;
 import org.figuramc.figura.lua.api.world.ItemStackAPI;
 import org.figuramc.figura.lua.docs.LuaMetamethodDoc;
@@ -54,6 +55,11 @@ public class EntityAPI<T extends Entity> {
     private boolean thingy = true;
     private String cacheType;
 
+    // saved nbt, kept for the rest of the tick
+    private CompoundTag nbtCache;
+    private Entity nbtCacheEntity;
+    private int nbtCacheTick;
+
     public EntityAPI(T entity) {
         this.entity = entity;
         entityUUID = entity.getUUID();
@@ -337,9 +343,12 @@ public class EntityAPI<T extends Entity> {
     @LuaMethodDoc("entity.get_nbt")
     public LuaTable getNbt() {
         checkEntity();
-        CompoundTag tag = new CompoundTag();
-        entity.saveWithoutId(tag);
-        return (LuaTable) NbtToLua.convert(tag);
+        if (nbtCache == null || nbtCacheEntity != entity || nbtCacheTick != FiguraMod.ticks) {
+            nbtCache = entity.saveWithoutId(new CompoundTag());
+            nbtCacheEntity = entity;
+            nbtCacheTick = FiguraMod.ticks;
+        }
+        return new LazyNbtTable(nbtCache);
     }
 
     @LuaWhitelist
@@ -453,7 +462,7 @@ public class EntityAPI<T extends Entity> {
         EntityHitResult entityHit = ProjectileUtil.getEntityHitResult(entity, vec3, vec33, aABB, e -> e != entity, distance);
 
         if (entityHit != null)
-            return new Object[]{EntityAPI.wrap(entityHit.getEntity()), FiguraVec3.fromVec3(entityHit.getLocation())};
+            return new Object[]{entityHit.getEntity(), FiguraVec3.fromVec3(entityHit.getLocation())};
 
         return null;
     }
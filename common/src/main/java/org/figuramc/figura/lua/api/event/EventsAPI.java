@@ -20,70 +20,75 @@ import java.util.Map;
 )
 public class EventsAPI {
 
+    // one bit per event, set while the event has registered functions
+    // lets the java side skip the whole event call (and its arguments conversion) when nothing is listening
+    private long listeners;
+    private int eventCount;
+
     // docs only :woozy:
     @LuaWhitelist
     @LuaFieldDoc("events.entity_init")
-    public final LuaEvent ENTITY_INIT = new LuaEvent();
+    public final LuaEvent ENTITY_INIT = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.tick")
-    public final LuaEvent TICK = new LuaEvent();
+    public final LuaEvent TICK = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.world_tick")
-    public final LuaEvent WORLD_TICK = new LuaEvent();
+    public final LuaEvent WORLD_TICK = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.render")
-    public final LuaEvent RENDER = new LuaEvent();
+    public final LuaEvent RENDER = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.post_render")
-    public final LuaEvent POST_RENDER = new LuaEvent();
+    public final LuaEvent POST_RENDER = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.world_render")
-    public final LuaEvent WORLD_RENDER = new LuaEvent();
+    public final LuaEvent WORLD_RENDER = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.post_world_render")
-    public final LuaEvent POST_WORLD_RENDER = new LuaEvent();
+    public final LuaEvent POST_WORLD_RENDER = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.chat_send_message")
-    public final LuaEvent CHAT_SEND_MESSAGE = new LuaEvent(true);
+    public final LuaEvent CHAT_SEND_MESSAGE = new LuaEvent(this, true);
     @LuaWhitelist
     @LuaFieldDoc("events.chat_receive_message")
-    public final LuaEvent CHAT_RECEIVE_MESSAGE = new LuaEvent();
+    public final LuaEvent CHAT_RECEIVE_MESSAGE = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.skull_render")
-    public final LuaEvent SKULL_RENDER = new LuaEvent();
+    public final LuaEvent SKULL_RENDER = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.mouse_scroll")
-    public final LuaEvent MOUSE_SCROLL = new LuaEvent();
+    public final LuaEvent MOUSE_SCROLL = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.mouse_move")
-    public final LuaEvent MOUSE_MOVE = new LuaEvent();
+    public final LuaEvent MOUSE_MOVE = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.mouse_press")
-    public final LuaEvent MOUSE_PRESS = new LuaEvent();
+    public final LuaEvent MOUSE_PRESS = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.key_press")
-    public final LuaEvent KEY_PRESS = new LuaEvent();
+    public final LuaEvent KEY_PRESS = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.char_typed")
-    public final LuaEvent CHAR_TYPED = new LuaEvent();
+    public final LuaEvent CHAR_TYPED = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.use_item")
-    public final LuaEvent USE_ITEM = new LuaEvent();
+    public final LuaEvent USE_ITEM = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.arrow_render")
-    public final LuaEvent ARROW_RENDER = new LuaEvent();
+    public final LuaEvent ARROW_RENDER = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.trident_render")
-    public final LuaEvent TRIDENT_RENDER = new LuaEvent();
+    public final LuaEvent TRIDENT_RENDER = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.item_render")
-    public final LuaEvent ITEM_RENDER = new LuaEvent();
+    public final LuaEvent ITEM_RENDER = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.on_play_sound")
-    public final LuaEvent ON_PLAY_SOUND = new LuaEvent();
+    public final LuaEvent ON_PLAY_SOUND = new LuaEvent(this);
     @LuaWhitelist
     @LuaFieldDoc("events.resource_reload")
-    public final LuaEvent RESOURCE_RELOAD = new LuaEvent();
+    public final LuaEvent RESOURCE_RELOAD = new LuaEvent(this);
 
     private final Map<String, LuaEvent> events = new HashMap<>() {{
             put("ENTITY_INIT", ENTITY_INIT);
@@ -109,6 +114,24 @@ public class EventsAPI {
             put("RESOURCE_RELOAD", RESOURCE_RELOAD);
     }};
 
+    {
+        // name the events, used by the avatar metrics
+        events.forEach((name, event) -> event.name = name);
+    }
+
+    long nextEventMask() {
+        return 1L << eventCount++;
+    }
+
+    void setListening(long mask, boolean listening) {
+        if (listening) listeners |= mask;
+        else listeners &= ~mask;
+    }
+
+    public boolean hasListeners(LuaEvent event) {
+        return (listeners & event.mask) != 0;
+    }
+
     @LuaWhitelist
     @LuaMethodDoc("events.get_events")
     public Map<String, LuaEvent> getEvents() {
@@ -11,10 +11,12 @@ import org.figuramc.figura.lua.docs.LuaMethodOverload;
 import org.figuramc.figura.lua.docs.LuaTypeDoc;
 import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaFunction;
-import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.Varargs;
 
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedDeque;
 
@@ -28,18 +30,27 @@ public class LuaEvent {
     private static final int MAX_FUNCTIONS = 1024;
 
     private final boolean piped;
+    private final EventsAPI owner;
+    final long mask;
+    String name = "EVENT";
 
     private final Deque<LuaFunction> functions = new ConcurrentLinkedDeque<>();
     private final Deque<LuaFunction> queue = new ConcurrentLinkedDeque<>();
     private final Deque<LuaFunction> removalQueue = new ConcurrentLinkedDeque<>();
     private final HashMultimap<String, LuaFunction> names = HashMultimap.create();
 
-    public LuaEvent() {
-        this(false);
+    public LuaEvent(EventsAPI owner) {
+        this(owner, false);
     }
 
-    public LuaEvent(boolean piped) {
+    public LuaEvent(EventsAPI owner, boolean piped) {
         this.piped = piped;
+        this.owner = owner;
+        this.mask = owner.nextEventMask();
+    }
+
+    public String getName() {
+        return name;
     }
 
     // Add all waiting functions from the queues
@@ -51,6 +62,8 @@ public class LuaEvent {
         for (LuaFunction function : queue)
             functions.addLast(function);
         queue.clear();
+
+        owner.setListening(mask, !functions.isEmpty());
     }
 
     // Calls all the functions in the order they were registered, using the given args for all calls.
@@ -61,15 +74,23 @@ public class LuaEvent {
         if (piped)
             return callPiped(args);
 
-        LuaTable result = new LuaTable();
+        // collect the non-nil returns of all functions
+        List<LuaValue> result = null;
         for (LuaFunction function : functions) {
             FiguraMod.pushProfiler(function.name());
             Varargs val = function.invoke(args);
-            for (int i = 0; i < val.narg(); i++)
-                result.insert(0, val.arg(i + 1));
+            int count = val.narg();
+            for (int i = 1; i <= count; i++) {
+                LuaValue value = val.arg(i);
+                if (value.isnil())
+                    continue;
+                if (result == null)
+                    result = new ArrayList<>(count);
+                result.add(value);
+            }
             FiguraMod.popProfiler();
         }
-        return result.unpack();
+        return result == null ? LuaValue.NONE : LuaValue.varargsOf(result.toArray(new LuaValue[0]));
     }
 
     private Varargs callPiped(Varargs args) {
@@ -100,6 +121,7 @@ public class LuaEvent {
         if (__len() >= MAX_FUNCTIONS)
             throw new LuaError("Reached maximum limit of " + MAX_FUNCTIONS + " functions in one event!");
         queue.addLast(func);
+        owner.setListening(mask, true);
         if (name != null)
             names.put(name, func);
         return this;
@@ -112,6 +134,7 @@ public class LuaEvent {
         queue.clear();
         removalQueue.clear();
         names.clear();
+        owner.setListening(mask, false);
     }
 
     @LuaWhitelist
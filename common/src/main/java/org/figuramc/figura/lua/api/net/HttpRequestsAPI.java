@@ -1,6 +1,7 @@
 package org.figuramc.figura.lua.api.net;
 
 import net.minecraft.network.chat.Component;
+import org.figuramc.figura.avatar.Avatar;
 import org.figuramc.figura.lua.api.data.FiguraBuffer;
 import org.figuramc.figura.lua.docs.LuaMethodOverload;
 import org.luaj.vm2.LuaError;
@@ -14,6 +15,7 @@ import org.figuramc.figura.lua.api.data.FiguraInputStream;
 import org.figuramc.figura.lua.docs.LuaMethodDoc;
 import org.figuramc.figura.lua.docs.LuaTypeDoc;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -54,7 +56,7 @@ public class HttpRequestsAPI {
             name = "HttpResponse",
             value = "http_response"
     )
-    public static class HttpResponse {
+    public static class HttpResponse implements AutoCloseable {
         private final FiguraInputStream data;
         private final int responseCode;
         private final ReadOnlyLuaTable headersTable;
@@ -107,6 +109,12 @@ public class HttpRequestsAPI {
             return headersTable;
         }
 
+        // closes the body of responses which never reached the script
+        @Override
+        public void close() throws IOException {
+            data.close();
+        }
+
         @Override
         public String toString() {
             return "HttpResponse(%s)".formatted(responseCode);
@@ -278,13 +286,11 @@ public class HttpRequestsAPI {
             parent.parent.log(NetworkingAPI.LogSource.HTTP, Component.literal("Sent %s request to %s".formatted(method, uri)));
             HttpRequest req = this.getRequest();
             FiguraFuture<HttpResponse> future = new FiguraFuture<>();
-            var asyncResponse = parent.httpClient.sendAsync(req, java.net.http.HttpResponse.BodyHandlers.ofInputStream());
-            asyncResponse.whenCompleteAsync((response, t) -> {
-                if (t != null) future.error(t);
-                else future.complete(new HttpResponse(new FiguraInputStream(response.body()),
-                        response.statusCode(), response.headers().map()));
-            });
-            return future;
+            Avatar owner = parent.parent.owner;
+            // only sent once the request fits in the pending limit
+            return owner.ioExecutor.await(() -> parent.httpClient.sendAsync(req, java.net.http.HttpResponse.BodyHandlers.ofInputStream())
+                    .thenApply(response -> new HttpResponse(new FiguraInputStream(response.body(), owner),
+                            response.statusCode(), response.headers().map())), future);
         }
 
         @Override
@@ -10,9 +10,6 @@ import org.figuramc.figura.lua.docs.LuaTypeDoc;
 import org.figuramc.figura.permissions.Permissions;
 import org.luaj.vm2.LuaError;
 
-import java.io.IOException;
-import java.util.concurrent.CompletableFuture;
-
 @LuaWhitelist
 @LuaTypeDoc(value = "socket_api", name = "SocketAPI")
 public class SocketAPI {
@@ -42,17 +39,12 @@ public class SocketAPI {
         if (parent.owner.openSockets.size() > maxSockets)
             throw new LuaError("You can't open more than %s sockets".formatted(maxSockets));
         FiguraFuture<FiguraSocket> future = new FiguraFuture<>();
-        CompletableFuture.supplyAsync(() -> {
-            try {
-                FiguraSocket socket = new FiguraSocket(host, port, parent.owner);
-                parent.owner.openSockets.add(socket);
-                parent.log(NetworkingAPI.LogSource.SOCKET, Component.literal("Established connection to host %s".formatted(host)));
-                return socket;
-            } catch (IOException e) {
-                throw new LuaError(e);
-            }
-        }).whenCompleteAsync(future::handle);
-        return future;
+        return parent.owner.ioExecutor.submit(() -> {
+            FiguraSocket socket = new FiguraSocket(host, port, parent.owner);
+            parent.owner.openSockets.add(socket);
+            parent.log(NetworkingAPI.LogSource.SOCKET, Component.literal("Established connection to host %s".formatted(host)));
+            return socket;
+        }, future);
     }
 
     @Override
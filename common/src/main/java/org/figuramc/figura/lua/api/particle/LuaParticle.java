@@ -39,8 +39,7 @@ public class LuaParticle {
     @LuaMethodDoc("particle.spawn")
     public LuaParticle spawn() {
         if (!Minecraft.getInstance().isPaused()) {
-            if (owner.particlesRemaining.use()) {
-                ParticleAPI.getParticleEngine().figura$spawnParticle(particle, owner.owner);
+            if (owner.particlesRemaining.use() && ParticleAPI.getParticleEngine().figura$spawnParticle(particle, owner.owner, owner.getMaxLiveParticles())) {
                 owner.noPermissions.remove(Permissions.PARTICLES);
             } else {
                 owner.noPermissions.add(Permissions.PARTICLES);
@@ -1,6 +1,7 @@
 package org.figuramc.figura.lua.api.particle;
 
 import com.mojang.brigadier.StringReader;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.datafixers.util.Pair;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.particle.Particle;
@@ -15,9 +16,13 @@ import org.figuramc.figura.lua.docs.LuaMethodDoc;
 import org.figuramc.figura.lua.docs.LuaMethodOverload;
 import org.figuramc.figura.lua.docs.LuaTypeDoc;
 import org.figuramc.figura.math.vector.FiguraVec3;
+import org.figuramc.figura.utils.FiguraResourceListener;
 import org.figuramc.figura.utils.LuaUtils;
 import org.luaj.vm2.LuaError;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @LuaWhitelist
 @LuaTypeDoc(
         name = "ParticleAPI",
@@ -25,7 +30,19 @@ import org.luaj.vm2.LuaError;
 )
 public class ParticleAPI {
 
+    // parsed particle ids, as scripts tend to use the same few ids over and over
+    private static final int CACHE_SIZE = 64;
+    private static int generation;
+    public static final FiguraResourceListener RESOURCE_LISTENER = FiguraResourceListener.createResourceListener("particles", manager -> generation++);
+
     private final Avatar owner;
+    private final Map<String, ParticleOptions> optionsCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ParticleOptions> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private int cacheGeneration = generation;
 
     public ParticleAPI(Avatar owner) {
         this.owner = owner;
@@ -35,9 +52,27 @@ public class ParticleAPI {
         return (ParticleEngineAccessor) Minecraft.getInstance().particleEngine;
     }
 
+    protected static int getGeneration() {
+        return generation;
+    }
+
+    protected ParticleOptions parseOptions(String id) throws CommandSyntaxException {
+        if (cacheGeneration != generation) {
+            optionsCache.clear();
+            cacheGeneration = generation;
+        }
+
+        ParticleOptions options = optionsCache.get(id);
+        if (options == null) {
+            options = ParticleArgument.readParticle(new StringReader(id), BuiltInRegistries.PARTICLE_TYPE.asLookup());
+            optionsCache.put(id, options);
+        }
+        return options;
+    }
+
     private LuaParticle generate(String id, double x, double y, double z, double w, double t, double h) {
         try {
-            ParticleOptions options = ParticleArgument.readParticle(new StringReader(id), BuiltInRegistries.PARTICLE_TYPE.asLookup());
+            ParticleOptions options = parseOptions(id);
             Particle p = getParticleEngine().figura$makeParticle(options, x, y, z, w, t, h);
             if (p == null) throw new LuaError("Could not parse particle \"" + id + "\"");
             return new LuaParticle(id, p, owner);
@@ -106,13 +141,34 @@ public class ParticleAPI {
     )
     public boolean isPresent(String id) {
         try {
-            ParticleOptions options = ParticleArgument.readParticle(new StringReader(id), BuiltInRegistries.PARTICLE_TYPE.asLookup());
+            ParticleOptions options = parseOptions(id);
             return getParticleEngine().figura$makeParticle(options, 0, 0, 0, 0, 0, 0) != null;
         } catch (Exception ignored) {
             return false;
         }
     }
 
+    @LuaWhitelist
+    @LuaMethodDoc(
+            overloads = @LuaMethodOverload(
+                    argumentTypes = String.class,
+                    argumentNames = "name"
+            ),
+            value = "particles.new_template"
+    )
+    public ParticleTemplate newTemplate(@LuaNotNil String id) {
+        try {
+            ParticleOptions options = parseOptions(id);
+            if (getParticleEngine().figura$makeParticle(options, 0, 0, 0, 0, 0, 0) == null)
+                throw new LuaError("Could not parse particle \"" + id + "\"");
+            return new ParticleTemplate(id, options, this, owner);
+        } catch (LuaError e) {
+            throw e;
+        } catch (Exception e) {
+            throw new LuaError(e.getMessage());
+        }
+    }
+
     @LuaWhitelist
     public LuaParticle __index(String id) {
         return generate(id, 0, 0, 0, 0, 0, 0);
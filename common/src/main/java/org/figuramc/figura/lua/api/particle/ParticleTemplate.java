@@ -0,0 +1,104 @@
+package org.figuramc.figura.lua.api.particle;
+
+import com.mojang.datafixers.util.Pair;
+import net.minecraft.client.particle.Particle;
+import net.minecraft.core.particles.ParticleOptions;
+import org.figuramc.figura.avatar.Avatar;
+import org.figuramc.figura.lua.LuaWhitelist;
+import org.figuramc.figura.lua.docs.LuaMethodDoc;
+import org.figuramc.figura.lua.docs.LuaMethodOverload;
+import org.figuramc.figura.lua.docs.LuaTypeDoc;
+import org.figuramc.figura.math.vector.FiguraVec3;
+import org.figuramc.figura.utils.LuaUtils;
+import org.luaj.vm2.LuaError;
+
+@LuaWhitelist
+@LuaTypeDoc(
+        name = "ParticleTemplate",
+        value = "particle_template"
+)
+public class ParticleTemplate {
+
+    private final String name;
+    private final ParticleAPI api;
+    private final Avatar owner;
+
+    private ParticleOptions options;
+    private int generation;
+
+    public ParticleTemplate(String name, ParticleOptions options, ParticleAPI api, Avatar owner) {
+        this.name = name;
+        this.options = options;
+        this.api = api;
+        this.owner = owner;
+        this.generation = ParticleAPI.getGeneration();
+    }
+
+    private ParticleOptions getOptions() {
+        // parse again after a resource reload
+        if (generation != ParticleAPI.getGeneration()) {
+            try {
+                options = api.parseOptions(name);
+            } catch (Exception e) {
+                throw new LuaError(e.getMessage());
+            }
+            generation = ParticleAPI.getGeneration();
+        }
+        return options;
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc("particle_template.get_name")
+    public String getName() {
+        return name;
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc(
+            overloads = {
+                    @LuaMethodOverload(
+                            argumentTypes = FiguraVec3.class,
+                            argumentNames = "pos"
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {FiguraVec3.class, FiguraVec3.class},
+                            argumentNames = {"pos", "vel"}
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {Double.class, Double.class, Double.class},
+                            argumentNames = {"posX", "posY", "posZ"}
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {FiguraVec3.class, Double.class, Double.class, Double.class},
+                            argumentNames = {"pos", "velX", "velY", "velZ"}
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {Double.class, Double.class, Double.class, FiguraVec3.class},
+                            argumentNames = {"posX", "posY", "posZ", "vel"}
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {Double.class, Double.class, Double.class, Double.class, Double.class, Double.class},
+                            argumentNames = {"posX", "posY", "posZ", "velX", "velY", "velZ"}
+                    )
+            },
+            value = "particle_template.spawn"
+    )
+    public LuaParticle spawn(Object x, Object y, Double z, Object w, Double t, Double h) {
+        Pair<FiguraVec3, FiguraVec3> pair = LuaUtils.parse2Vec3("spawn", x, y, z, w, t, h, 1);
+        FiguraVec3 pos = pair.getFirst();
+        FiguraVec3 vel = pair.getSecond();
+
+        Particle particle = ParticleAPI.getParticleEngine().figura$makeParticle(getOptions(), pos.x, pos.y, pos.z, vel.x, vel.y, vel.z);
+        if (particle == null)
+            throw new LuaError("Could not parse particle \"" + name + "\"");
+
+        LuaParticle luaParticle = new LuaParticle(name, particle, owner);
+        luaParticle.spawn();
+        return luaParticle;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (ParticleTemplate)";
+    }
+}
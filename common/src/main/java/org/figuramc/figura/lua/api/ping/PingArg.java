@@ -2,15 +2,22 @@ package org.figuramc.figura.lua.api.ping;
 
 import org.figuramc.figura.FiguraMod;
 import org.figuramc.figura.avatar.Avatar;
+import org.figuramc.figura.lua.LuaTypeManager;
 import org.figuramc.figura.math.matrix.FiguraMatrix;
 import org.figuramc.figura.math.vector.FiguraVector;
 import org.figuramc.figura.utils.MathUtils;
 import org.luaj.vm2.*;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
-
+import java.util.*;
+
+/**
+ * Encodes the arguments of a ping
+ * by default the old fixed size types are written, so every client can read them
+ * the compact codec is opt-in, as older clients cannot read it, and its pings start with a marker byte
+ * in it numbers are written as varints or floats when that loses nothing, and every string is written once per ping,
+ * later uses only refer to it, same for the key set of tables, so repeated tables only write their values
+ */
 public class PingArg {
 
     private static final int
@@ -21,7 +28,18 @@ public class PingArg {
             TABLE = 5,
             VECTOR_2 = 6, VECTOR_3 = 7, VECTOR_4 = 8,
             MATRIX_2 = 9, MATRIX_3 = 10, MATRIX_4 = 11,
-            INT_1B = 12, INT_2B = 13, INT_3B = 14, INT_4B = 15;
+            INT_1B = 12, INT_2B = 13, INT_3B = 14, INT_4B = 15,
+            VARINT = 16,
+            FLOAT = 17,
+            STRING_NEW = 18, STRING_REF = 19,
+            ARRAY = 20,
+            MAP = 21,
+            SHAPE_NEW = 22, SHAPE_REF = 23,
+            VECTOR_2F = 24, VECTOR_3F = 25, VECTOR_4F = 26,
+            MATRIX_2F = 27, MATRIX_3F = 28, MATRIX_4F = 29;
+
+    // first byte of the compact pings, old pings never start with it
+    private static final int COMPACT_MARKER = 0x7F;
 
     private final Varargs args;
 
@@ -29,16 +47,23 @@ public class PingArg {
         this.args = args;
     }
 
-    // -- writing -- // 
+    // -- writing -- //
 
-    public byte[] toByteArray() {
+    /**
+     * @param compact - if the compact codec should be used, which only clients with it can read
+     */
+    public byte[] toByteArray(boolean compact) {
         try {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             DataOutputStream dos = new DataOutputStream(baos);
+            if (compact)
+                dos.writeByte(COMPACT_MARKER);
+
+            Writer writer = new Writer(dos, compact);
 
             for (int i = 0; i < args.narg(); i++) {
                 LuaValue arg = args.arg(i + 1);
-                writeArg(arg, dos);
+                writer.writeArg(arg);
             }
 
             return baos.toByteArray();
@@ -47,178 +72,386 @@ public class PingArg {
         }
     }
 
-    private static void writeArg(LuaValue val, DataOutputStream dos) throws IOException {
-        if (val.isboolean()) {
-            writeBool(val.checkboolean(), dos);
-        } else if (val instanceof LuaString valStr) {
+    private static boolean isFloat(double value) {
+        return (double) (float) value == value;
+    }
+
+    private static class Writer {
+        private final DataOutputStream dos;
+        private final boolean compact;
+        // ids of the strings and table key sets already written in this ping
+        private final Map<LuaString, Integer> strings = new HashMap<>();
+        private final Map<List<LuaString>, Integer> shapes = new HashMap<>();
+
+        private Writer(DataOutputStream dos, boolean compact) {
+            this.dos = dos;
+            this.compact = compact;
+        }
+
+        private void writeArg(LuaValue val) throws IOException {
+            if (val.isboolean()) {
+                dos.writeByte(val.checkboolean() ? BOOL_TRUE : BOOL_FALSE);
+            } else if (val instanceof LuaString valStr) {
+                if (compact) writeString(valStr);
+                else writeLegacyString(valStr);
+            } else if (val.isint()) {
+                if (compact) {
+                    dos.writeByte(VARINT);
+                    writeVarInt(val.checkint());
+                } else {
+                    writeLegacyInt(val.checkint());
+                }
+            } else if (val.isnumber()) {
+                double value = val.checkdouble();
+                if (compact && isFloat(value)) {
+                    dos.writeByte(FLOAT);
+                    dos.writeFloat((float) value);
+                } else {
+                    dos.writeByte(DOUBLE);
+                    dos.writeDouble(value);
+                }
+            } else if (val.istable()) {
+                if (compact) writeTable(val.checktable());
+                else writeLegacyTable(val.checktable());
+            } else if (val.isuserdata(FiguraVector.class)) {
+                writeVec((FiguraVector<?, ?>) val.checkuserdata());
+            } else if (val.isuserdata(FiguraMatrix.class)) {
+                writeMat((FiguraMatrix<?, ?>) val.checkuserdata());
+            } else {
+                dos.writeByte(NIL);
+            }
+        }
+
+        private void writeLegacyInt(int value) throws IOException {
+            if (Byte.MIN_VALUE <= value && value <= Byte.MAX_VALUE) {
+                dos.writeByte(INT_1B);
+                dos.writeByte((byte) value);
+            } else if (Short.MIN_VALUE <= value && value <= Short.MAX_VALUE) {
+                dos.writeByte(INT_2B);
+                dos.writeShort((short) value);
+            } else if (-0x800000 <= value && value < 0x800000) {
+                dos.writeByte(INT_3B);
+                dos.writeShort((short) (value >> 8));
+                dos.writeByte((byte) (value & 0xFF));
+            } else {
+                dos.writeByte(INT_4B);
+                dos.writeInt(value);
+            }
+        }
+
+        private void writeLegacyString(LuaString string) throws IOException {
+            int strLen = Math.min(string.length(), Short.MAX_VALUE * 2 + 1);
             dos.writeByte(STRING);
-            writeString(valStr, dos);
-        } else if (val.isint()) {
-            writeInt(val.checkint(), dos);
-        } else if (val.isnumber()) {
-            dos.writeByte(DOUBLE);
-            dos.writeDouble(val.checkdouble());
-        } else if (val.istable()) {
+            dos.writeShort((short) strLen);
+            string.write(dos, 0, strLen);
+        }
+
+        private void writeLegacyTable(LuaTable table) throws IOException {
             dos.writeByte(TABLE);
-            writeTable(val.checktable(), dos);
-        } else if (val.isuserdata(FiguraVector.class)) {
-            writeVec((FiguraVector<?, ?>) val.checkuserdata(), dos);
-        } else if (val.isuserdata(FiguraMatrix.class)) {
-            writeMat((FiguraMatrix<?, ?>) val.checkuserdata(), dos);
-        } else {
-            dos.writeByte(NIL);
-            // dos.writeNull();
+            writeLegacyInt(table.keyCount());
+            for (LuaValue key : table.keys()) {
+                writeArg(key);
+                writeArg(table.get(key));
+            }
         }
-    }
 
-    private static void writeBool(boolean value, DataOutputStream dos) throws IOException {
-        dos.writeByte(value ? BOOL_TRUE : BOOL_FALSE);
-    }
+        // zigzag, so small negative numbers are small too
+        private void writeVarInt(int value) throws IOException {
+            writeUnsignedVarInt(value << 1 ^ value >> 31);
+        }
 
-    private static void writeInt(int value, DataOutputStream dos) throws IOException {
-        if (Byte.MIN_VALUE <= value && value <= Byte.MAX_VALUE) {
-            dos.writeByte(INT_1B);
-            dos.writeByte((byte) value);
-        } else if (Short.MIN_VALUE <= value && value <= Short.MAX_VALUE) {
-            dos.writeByte(INT_2B);
-            dos.writeShort((short) value);
-        } else if (-0x800000 <= value && value < 0x800000) {
-            dos.writeByte(INT_3B);
-            dos.writeShort((short) (value >> 8));
-            dos.writeByte((byte) (value & 0xFF));
-        } else {
-            dos.writeByte(INT_4B);
-            dos.writeInt(value);
+        private void writeUnsignedVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                dos.writeByte(value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            dos.writeByte(value);
         }
-    }
 
-    private static void writeString(LuaString string, DataOutputStream dos) throws IOException {
-        int strLen = Math.min(string.length(), Short.MAX_VALUE * 2 + 1);
-        dos.writeShort((short) strLen);
-        string.write(dos, 0, strLen);
-    }
+        private void writeString(LuaString string) throws IOException {
+            Integer id = strings.get(string);
+            if (id != null) {
+                dos.writeByte(STRING_REF);
+                writeUnsignedVarInt(id);
+                return;
+            }
+
+            strings.put(string, strings.size());
+            dos.writeByte(STRING_NEW);
+            writeUnsignedVarInt(string.length());
+            string.write(dos, 0, string.length());
+        }
+
+        private void writeTable(LuaTable table) throws IOException {
+            int size = table.keyCount();
+
+            // keys from 1 to size
+            if (size > 0 && table.rawlen() == size) {
+                dos.writeByte(ARRAY);
+                writeUnsignedVarInt(size);
+                for (int i = 1; i <= size; i++)
+                    writeArg(table.get(i));
+                return;
+            }
 
-    private static void writeTable(LuaTable table, DataOutputStream dos) throws IOException {
-        writeInt(table.keyCount(), dos);
+            // tables with only string keys share their key set
+            LuaValue[] keys = table.keys();
+            LuaString[] stringKeys = new LuaString[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                if (!(keys[i] instanceof LuaString key)) {
+                    writeMap(table, keys);
+                    return;
+                }
+                stringKeys[i] = key;
+            }
+            Arrays.sort(stringKeys, LuaString::strcmp);
+            List<LuaString> shape = Arrays.asList(stringKeys);
+
+            Integer id = shapes.get(shape);
+            if (id != null) {
+                dos.writeByte(SHAPE_REF);
+                writeUnsignedVarInt(id);
+            } else {
+                shapes.put(shape, shapes.size());
+                dos.writeByte(SHAPE_NEW);
+                writeUnsignedVarInt(stringKeys.length);
+                for (LuaString key : stringKeys)
+                    writeString(key);
+            }
 
-        for (LuaValue key : table.keys()) {
-            writeArg(key, dos);
-            writeArg(table.get(key), dos);
+            for (LuaString key : stringKeys)
+                writeArg(table.get(key));
         }
-    }
 
-    private static void writeVec(FiguraVector<?, ?> vector, DataOutputStream dos) throws IOException {
-        dos.writeByte(switch (vector.size()) {
-            case 2 -> VECTOR_2;
-            case 3 -> VECTOR_3;
-            case 4 -> VECTOR_4;
-            default -> throw new UnsupportedOperationException("Cannot write ping for vector size of " + vector.size());
-        });
+        private void writeMap(LuaTable table, LuaValue[] keys) throws IOException {
+            dos.writeByte(MAP);
+            writeUnsignedVarInt(keys.length);
+            for (LuaValue key : keys) {
+                writeArg(key);
+                writeArg(table.get(key));
+            }
+        }
 
-        for (int i = 0; i < vector.size(); i++)
-            dos.writeDouble(vector.index(i));
-    }
+        private void writeVec(FiguraVector<?, ?> vector) throws IOException {
+            int size = vector.size();
+            boolean floats = compact;
+            for (int i = 0; i < size && floats; i++)
+                floats = isFloat(vector.index(i));
+
+            dos.writeByte(switch (size) {
+                case 2 -> floats ? VECTOR_2F : VECTOR_2;
+                case 3 -> floats ? VECTOR_3F : VECTOR_3;
+                case 4 -> floats ? VECTOR_4F : VECTOR_4;
+                default -> throw new UnsupportedOperationException("Cannot write ping for vector size of " + size);
+            });
+
+            for (int i = 0; i < size; i++)
+                writeNumber(vector.index(i), floats);
+        }
+
+        private void writeMat(FiguraMatrix<?, ?> matrix) throws IOException {
+            int size = matrix.cols();
+            FiguraVector<?, ?>[] columns = new FiguraVector[size];
+            boolean floats = compact;
+            for (int i = 0; i < size; i++) {
+                columns[i] = matrix.getColumn(i + 1);
+                for (int o = 0; o < size && floats; o++)
+                    floats = isFloat(columns[i].index(o));
+            }
+
+            dos.writeByte(switch (size) {
+                case 2 -> floats ? MATRIX_2F : MATRIX_2;
+                case 3 -> floats ? MATRIX_3F : MATRIX_3;
+                case 4 -> floats ? MATRIX_4F : MATRIX_4;
+                default -> throw new UnsupportedOperationException("Cannot write ping for matrix column of size " + size);
+            });
 
-    private static void writeMat(FiguraMatrix<?, ?> matrix, DataOutputStream dos) throws IOException {
-        dos.writeByte(switch (matrix.cols()) {
-            case 2 -> MATRIX_2;
-            case 3 -> MATRIX_3;
-            case 4 -> MATRIX_4;
-            default -> throw new UnsupportedOperationException("Cannot write ping for matrix column of size " + matrix.cols());
-        });
-
-        for (int i = 0; i < matrix.cols(); i++) {
-            FiguraVector<?, ?> vec = matrix.getColumn(i + 1);
-            for (int o = 0; o < matrix.cols(); o++) {
-                dos.writeDouble(vec.index(o));
+            for (FiguraVector<?, ?> column : columns) {
+                for (int o = 0; o < size; o++)
+                    writeNumber(column.index(o), floats);
             }
         }
+
+        private void writeNumber(double value, boolean asFloat) throws IOException {
+            if (asFloat) dos.writeFloat((float) value);
+            else dos.writeDouble(value);
+        }
     }
 
-    // -- reading -- // 
+    // -- reading -- //
 
     public static LuaValue[] fromByteArray(byte[] bytes, Avatar owner) {
         try {
-            DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
-
-            List<LuaValue> luaValues = new ArrayList<>();
-            while (dis.available() > 0)
-                luaValues.add(readArg(dis, owner));
-
-            return luaValues.toArray(new LuaValue[0]);
+            return fromByteArray(bytes, owner.luaRuntime == null ? null : owner.luaRuntime.typeManager);
         } catch (Exception e) {
             FiguraMod.LOGGER.warn("Failed to read " + owner.owner + " ping!", e);
             return null;
         }
     }
 
-    private static LuaValue readArg(DataInputStream dis, Avatar owner) throws IOException {
-        byte type = dis.readByte();
-
-        return switch (type) {
-            case BOOL_TRUE -> LuaValue.valueOf(true);
-            case BOOL_FALSE -> LuaValue.valueOf(false);
-            case INT_1B, INT_2B, INT_3B, INT_4B -> LuaValue.valueOf(readInt(dis, type));
-            case DOUBLE -> LuaValue.valueOf(dis.readDouble());
-            case STRING -> LuaValue.valueOf(dis.readNBytes(dis.readUnsignedShort()));
-            case TABLE -> readTable(dis, owner);
-            case VECTOR_2, VECTOR_3, VECTOR_4 -> owner.luaRuntime.typeManager.javaToLua(readVec(dis, type)).arg1();
-            case MATRIX_2, MATRIX_3, MATRIX_4 -> owner.luaRuntime.typeManager.javaToLua(readMat(dis, type)).arg1();
-            default -> LuaValue.NIL;
-        };
-    }
+    public static LuaValue[] fromByteArray(byte[] bytes, LuaTypeManager typeManager) throws IOException {
+        boolean compact = bytes.length > 0 && bytes[0] == COMPACT_MARKER;
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes, compact ? 1 : 0, bytes.length));
+        Reader reader = new Reader(dis, typeManager, compact);
 
-    private static int readInt(DataInputStream dis, byte type) throws IOException {
-        return switch (type) {
-            case INT_1B -> dis.readByte();
-            case INT_2B -> dis.readShort();
-            case INT_3B -> (int) dis.readShort() << 8 | dis.readByte() & 0xFF;
-            case INT_4B -> dis.readInt();
-            default -> 0;
-        };
+        List<LuaValue> luaValues = new ArrayList<>();
+        while (dis.available() > 0)
+            luaValues.add(reader.readArg());
+
+        return luaValues.toArray(new LuaValue[0]);
     }
 
-    private static LuaValue readTable(DataInputStream dis, Avatar owner) throws IOException {
-        int size = readInt(dis, dis.readByte());
-        LuaTable table = new LuaTable();
+    private static class Reader {
+        private final DataInputStream dis;
+        private final LuaTypeManager typeManager;
+        private final boolean compact;
+        private final List<LuaValue> strings = new ArrayList<>();
+        private final List<LuaValue[]> shapes = new ArrayList<>();
+
+        private Reader(DataInputStream dis, LuaTypeManager typeManager, boolean compact) {
+            this.dis = dis;
+            this.typeManager = typeManager;
+            this.compact = compact;
+        }
+
+        private LuaValue readArg() throws IOException {
+            byte type = dis.readByte();
+            // old pings only have the old types
+            if (!compact && type > INT_4B)
+                throw new IOException("Unknown ping type " + type);
+
+            return switch (type) {
+                case NIL -> LuaValue.NIL;
+                case BOOL_TRUE -> LuaValue.valueOf(true);
+                case BOOL_FALSE -> LuaValue.valueOf(false);
+                case INT_1B, INT_2B, INT_3B, INT_4B -> LuaValue.valueOf(readInt(type));
+                case VARINT -> LuaValue.valueOf(readVarInt());
+                case DOUBLE -> LuaValue.valueOf(dis.readDouble());
+                case FLOAT -> LuaValue.valueOf(dis.readFloat());
+                case STRING -> LuaValue.valueOf(dis.readNBytes(dis.readUnsignedShort()));
+                case STRING_NEW -> {
+                    LuaValue string = LuaValue.valueOf(dis.readNBytes(readCount()));
+                    strings.add(string);
+                    yield string;
+                }
+                case STRING_REF -> get(strings, readUnsignedVarInt(), "string");
+                case TABLE -> readTable();
+                case ARRAY -> readArray();
+                case MAP -> readMap();
+                case SHAPE_NEW, SHAPE_REF -> readShape(type);
+                case VECTOR_2, VECTOR_3, VECTOR_4 -> typeManager.javaToLua(readVec(type - VECTOR_2 + 2, false)).arg1();
+                case VECTOR_2F, VECTOR_3F, VECTOR_4F -> typeManager.javaToLua(readVec(type - VECTOR_2F + 2, true)).arg1();
+                case MATRIX_2, MATRIX_3, MATRIX_4 -> typeManager.javaToLua(readMat(type - MATRIX_2 + 2, false)).arg1();
+                case MATRIX_2F, MATRIX_3F, MATRIX_4F -> typeManager.javaToLua(readMat(type - MATRIX_2F + 2, true)).arg1();
+                default -> throw new IOException("Unknown ping type " + type);
+            };
+        }
 
-        for (int i = 0; i < size; i++)
-            table.set(readArg(dis, owner), readArg(dis, owner));
+        private int readInt(byte type) throws IOException {
+            return switch (type) {
+                case INT_1B -> dis.readByte();
+                case INT_2B -> dis.readShort();
+                case INT_3B -> (int) dis.readShort() << 8 | dis.readByte() & 0xFF;
+                case INT_4B -> dis.readInt();
+                default -> throw new IOException("Unknown integer type " + type);
+            };
+        }
 
-        return table;
-    }
+        private int readVarInt() throws IOException {
+            int value = readUnsignedVarInt();
+            return value >>> 1 ^ -(value & 1);
+        }
 
-    private static FiguraVector<?, ?> readVec(DataInputStream dis, byte type) throws IOException {
-        byte size = switch (type) {
-            case VECTOR_2 -> 2;
-            case VECTOR_3 -> 3;
-            case VECTOR_4 -> 4;
-            default -> throw new UnsupportedOperationException("Cannot read vector of unknown type " + type);
-        };
+        private int readUnsignedVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = dis.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return value;
+            }
+            throw new IOException("Varint is too long");
+        }
 
-        double[] array = new double[size];
-        for (int i = 0; i < size; i++)
-            array[i] = dis.readDouble();
+        // amount of following values, each one takes at least one byte
+        private int readCount() throws IOException {
+            int count = readUnsignedVarInt();
+            if (count < 0 || count > dis.available())
+                throw new IOException("Invalid size " + count);
+            return count;
+        }
 
-        return MathUtils.sizedVector(array);
-    }
+        private static <T> T get(List<T> list, int id, String name) throws IOException {
+            if (id < 0 || id >= list.size())
+                throw new IOException("Unknown " + name + " reference " + id);
+            return list.get(id);
+        }
+
+        private LuaValue readTable() throws IOException {
+            int size = readInt(dis.readByte());
+            LuaTable table = new LuaTable();
+
+            for (int i = 0; i < size; i++)
+                table.set(readArg(), readArg());
+
+            return table;
+        }
+
+        private LuaValue readArray() throws IOException {
+            int size = readCount();
+            LuaTable table = new LuaTable(size, 0);
+            for (int i = 1; i <= size; i++)
+                table.set(i, readArg());
+            return table;
+        }
+
+        private LuaValue readMap() throws IOException {
+            int size = readCount();
+            LuaTable table = new LuaTable(0, size);
+            for (int i = 0; i < size; i++)
+                table.set(readArg(), readArg());
+            return table;
+        }
 
-    private static FiguraMatrix<?, ?> readMat(DataInputStream dis, byte type) throws IOException {
-        byte size = switch (type) {
-            case MATRIX_2 -> 2;
-            case MATRIX_3 -> 3;
-            case MATRIX_4 -> 4;
-            default -> throw new UnsupportedOperationException("Cannot read matrix of unknown type " + type);
-        };
+        private LuaValue readShape(byte type) throws IOException {
+            LuaValue[] keys;
+            if (type == SHAPE_REF) {
+                keys = get(shapes, readUnsignedVarInt(), "table");
+            } else {
+                keys = new LuaValue[readCount()];
+                for (int i = 0; i < keys.length; i++)
+                    keys[i] = readArg();
+                shapes.add(keys);
+            }
+
+            LuaTable table = new LuaTable(0, keys.length);
+            for (LuaValue key : keys)
+                table.set(key, readArg());
+            return table;
+        }
+
+        private double readNumber(boolean asFloat) throws IOException {
+            return asFloat ? dis.readFloat() : dis.readDouble();
+        }
 
-        FiguraVector<?, ?>[] vectors = new FiguraVector[size];
-        for (int i = 0; i < size; i++) {
+        private FiguraVector<?, ?> readVec(int size, boolean floats) throws IOException {
             double[] array = new double[size];
-            for (int o = 0; o < size; o++)
-                array[o] = dis.readDouble();
-            vectors[i] = MathUtils.sizedVector(array);
+            for (int i = 0; i < size; i++)
+                array[i] = readNumber(floats);
+
+            return MathUtils.sizedVector(array);
         }
 
-        return MathUtils.sizedMat(vectors);
+        private FiguraMatrix<?, ?> readMat(int size, boolean floats) throws IOException {
+            FiguraVector<?, ?>[] vectors = new FiguraVector[size];
+            for (int i = 0; i < size; i++) {
+                double[] array = new double[size];
+                for (int o = 0; o < size; o++)
+                    array[o] = readNumber(floats);
+                vectors[i] = MathUtils.sizedVector(array);
+            }
+
+            return MathUtils.sizedMat(vectors);
+        }
     }
 }
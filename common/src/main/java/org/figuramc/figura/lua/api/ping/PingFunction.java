@@ -1,6 +1,7 @@
 package org.figuramc.figura.lua.api.ping;
 
 import org.figuramc.figura.avatar.Avatar;
+import org.figuramc.figura.avatar.AvatarMetrics;
 import org.figuramc.figura.backend2.NetworkStuff;
 import org.figuramc.figura.config.Configs;
 import org.figuramc.figura.lua.LuaWhitelist;
@@ -58,9 +59,10 @@ public class PingFunction extends LuaFunction {
             return NIL;
 
         boolean sync = Configs.SYNC_PINGS.value;
-        byte[] data = new PingArg(args).toByteArray();
+        byte[] data = new PingArg(args).toByteArray(Configs.COMPACT_PINGS.value);
 
         NetworkStuff.sendPing(id, sync, data);
+        owner.metrics.record(AvatarMetrics.PING, "out", data.length);
         if (!sync) owner.runPing(id, data);
 
         return NIL;
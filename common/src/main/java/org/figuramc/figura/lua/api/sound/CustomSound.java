@@ -0,0 +1,69 @@
+package org.figuramc.figura.lua.api.sound;
+
+import com.mojang.blaze3d.audio.OggAudioStream;
+import com.mojang.blaze3d.audio.SoundBuffer;
+import net.minecraft.Util;
+import net.minecraft.client.sounds.AudioStream;
+import net.minecraft.client.sounds.LoopingAudioStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A custom sound of an avatar, decoded in the background instead of while the avatar loads
+ * long sounds are never fully decoded, they are streamed from their ogg data whenever played
+ */
+public class CustomSound {
+
+    // ogg size above which the sound is streamed
+    private static final int STREAM_THRESHOLD = 256 * 1024;
+
+    private final byte[] data;
+    private final CompletableFuture<SoundBuffer> buffer;
+
+    /**
+     * @param data - the ogg file, only its header is read right away
+     * @throws IOException - when the data is not a valid ogg file
+     */
+    public CustomSound(byte[] data) throws IOException {
+        // the header is checked now, so broken sounds still fail to load
+        new OggAudioStream(new ByteArrayInputStream(data)).close();
+
+        this.data = data;
+        this.buffer = isStreamed() ? null : CompletableFuture.supplyAsync(() -> decode(data), Util.backgroundExecutor());
+    }
+
+    private static SoundBuffer decode(byte[] data) {
+        try (OggAudioStream stream = new OggAudioStream(new ByteArrayInputStream(data))) {
+            return new SoundBuffer(stream.readAll(), stream.getFormat());
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    public boolean isStreamed() {
+        return data.length > STREAM_THRESHOLD;
+    }
+
+    // the decoded sound, only for sounds which are not streamed
+    public CompletableFuture<SoundBuffer> getBuffer() {
+        return buffer;
+    }
+
+    // a new stream of the sound, only for streamed sounds
+    public AudioStream openStream(boolean loop) throws IOException {
+        ByteArrayInputStream stream = new ByteArrayInputStream(data);
+        return loop ? new LoopingAudioStream(OggAudioStream::new, stream) : new OggAudioStream(stream);
+    }
+
+    public int getSize() {
+        return data.length;
+    }
+
+    public void release() {
+        if (buffer != null)
+            buffer.thenAccept(SoundBuffer::releaseAlBuffer);
+    }
+}
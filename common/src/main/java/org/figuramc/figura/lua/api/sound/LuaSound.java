@@ -2,12 +2,13 @@ package org.figuramc.figura.lua.api.sound;
 
 import com.mojang.blaze3d.audio.Channel;
 import com.mojang.blaze3d.audio.Library;
-import com.mojang.blaze3d.audio.SoundBuffer;
+import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.sounds.Sound;
 import net.minecraft.client.sounds.ChannelAccess;
 import net.minecraft.client.sounds.SoundBufferLibrary;
 import net.minecraft.network.chat.Component;
 import net.minecraft.sounds.SoundSource;
+import org.figuramc.figura.FiguraMod;
 import org.figuramc.figura.avatar.Avatar;
 import org.figuramc.figura.lua.LuaWhitelist;
 import org.figuramc.figura.lua.docs.LuaMethodDoc;
@@ -19,6 +20,9 @@ import org.figuramc.figura.utils.LuaUtils;
 import org.figuramc.figura.utils.TextUtils;
 import org.luaj.vm2.LuaError;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 @LuaWhitelist
 @LuaTypeDoc(
         name = "Sound",
@@ -28,11 +32,13 @@ public class LuaSound {
 
     private final Avatar owner;
     private final String id;
-    private final SoundBuffer buffer;
+    private final CustomSound buffer;
     private final Sound sound;
 
     private ChannelAccess.ChannelHandle handle;
-    private boolean playing = false;
+    // the channel being acquired, the sound starts once it arrives
+    private CompletableFuture<ChannelAccess.ChannelHandle> pendingHandle;
+    private volatile boolean playing = false;
 
     private FiguraVec3 pos = FiguraVec3.of();
     private float pitch = 1f;
@@ -42,7 +48,7 @@ public class LuaSound {
     private Component subtitleText;
     private String subtitle;
 
-    public LuaSound(SoundBuffer buffer, String id, Avatar owner) {
+    public LuaSound(CustomSound buffer, String id, Avatar owner) {
         this(null, buffer, id, Component.literal(id), owner);
     }
 
@@ -50,7 +56,7 @@ public class LuaSound {
         this(sound, null, id, subtitle, owner);
     }
 
-    private LuaSound(Sound sound, SoundBuffer buffer, String id, Component subtitle, Avatar owner) {
+    private LuaSound(Sound sound, CustomSound buffer, String id, Component subtitle, Avatar owner) {
         this.owner = owner;
         this.id = id;
         this.buffer = buffer;
@@ -91,67 +97,110 @@ public class LuaSound {
         if (handle != null) {
             handle.execute(Channel::unpause);
             this.playing = true;
+        } else if (pendingHandle != null) {
+            this.playing = true;
         } else if (buffer != null) {
             float vol = calculateVolume();
             if (vol <= 0)
                 return this;
 
-            this.handle = SoundAPI.getSoundEngine().figura$createHandle(owner.owner, id, Library.Pool.STATIC);
-            if (handle == null)
-                return this;
-
-            SoundAPI.getSoundEngine().figura$addSound(this);
-
-            handle.execute(channel -> {
-                channel.setPitch(pitch);
-                channel.setVolume(volume * vol);
-                channel.linearAttenuation(attenuation * 16f);
-                channel.setLooping(loop);
-                channel.setSelfPosition(pos.asVec3());
-                channel.setRelative(false);
-                channel.attachStaticBuffer(buffer);
-                channel.play();
+            boolean shouldStream = buffer.isStreamed();
+            acquireHandle(shouldStream ? Library.Pool.STREAMING : Library.Pool.STATIC, handle -> {
+                setupChannel(handle, vol, shouldStream);
+                if (!shouldStream) {
+                    buffer.getBuffer().thenAccept(soundBuffer -> handle.execute(channel -> {
+                        channel.attachStaticBuffer(soundBuffer);
+                        startChannel(channel);
+                    })).exceptionally(e -> failed(handle, e));
+                } else {
+                    handle.execute(channel -> {
+                        try {
+                            channel.attachBufferStream(buffer.openStream(loop));
+                            startChannel(channel);
+                        } catch (Exception e) {
+                            FiguraMod.LOGGER.warn("Failed to stream custom sound \"" + id + "\"", e);
+                            channel.stop();
+                        }
+                    });
+                }
             });
-
-            this.playing = true;
         } else if (sound != null) {
             float vol = calculateVolume();
             if (vol <= 0)
                 return this;
 
             boolean shouldStream = sound.shouldStream();
-            this.handle = SoundAPI.getSoundEngine().figura$createHandle(owner.owner, id, shouldStream ? Library.Pool.STREAMING : Library.Pool.STATIC);
-            if (handle == null)
-                return this;
+            acquireHandle(shouldStream ? Library.Pool.STREAMING : Library.Pool.STATIC, handle -> {
+                setupChannel(handle, vol, shouldStream);
+
+                SoundBufferLibrary lib = SoundAPI.getSoundEngine().figura$getSoundBuffers();
+                if (!shouldStream) {
+                    lib.getCompleteBuffer(sound.getPath()).thenAccept(buffer -> handle.execute(channel -> {
+                        channel.attachStaticBuffer(buffer);
+                        startChannel(channel);
+                    })).exceptionally(e -> failed(handle, e));
+                } else {
+                    lib.getStream(sound.getPath(), loop).thenAccept(stream -> handle.execute(channel -> {
+                        channel.attachBufferStream(stream);
+                        startChannel(channel);
+                    })).exceptionally(e -> failed(handle, e));
+                }
+            });
+        }
 
-            SoundAPI.getSoundEngine().figura$addSound(this);
+        return this;
+    }
 
-            handle.execute(channel -> {
-                channel.setPitch(pitch);
-                channel.setVolume(volume * vol);
-                channel.linearAttenuation(attenuation * 16f);
-                channel.setLooping(loop && !shouldStream);
-                channel.setSelfPosition(pos.asVec3());
-                channel.setRelative(false);
-            });
+    // gets a channel without waiting for the sound thread, and starts the sound on the client thread once it arrives
+    private void acquireHandle(Library.Pool pool, Consumer<ChannelAccess.ChannelHandle> start) {
+        CompletableFuture<ChannelAccess.ChannelHandle> future = SoundAPI.getSoundEngine().figura$createHandle(owner.owner, id, pool);
+        this.pendingHandle = future;
+        this.playing = true;
+
+        future.thenAcceptAsync(handle -> {
+            // stopped, or played again, while waiting
+            if (pendingHandle != future) {
+                if (handle != null)
+                    handle.execute(Channel::stop);
+                return;
+            }
 
-            SoundBufferLibrary lib = SoundAPI.getSoundEngine().figura$getSoundBuffers();
-            if (!shouldStream) {
-                lib.getCompleteBuffer(sound.getPath()).thenAccept(buffer -> handle.execute(channel -> {
-                    channel.attachStaticBuffer(buffer);
-                    channel.play();
-                }));
-            } else {
-                lib.getStream(sound.getPath(), loop).thenAccept(stream -> handle.execute(channel -> {
-                    channel.attachBufferStream(stream);
-                    channel.play();
-                }));
+            pendingHandle = null;
+            if (handle == null) {
+                this.playing = false;
+                return;
             }
 
-            this.playing = true;
-        }
+            this.handle = handle;
+            SoundAPI.getSoundEngine().figura$addSound(this, owner.getMaxVoices());
+            start.accept(handle);
+        }, Minecraft.getInstance());
+    }
 
-        return this;
+    // runs on the sound thread once the sound is loaded, which can be after a pause
+    // paused right after starting, so unpausing it later works
+    private void startChannel(Channel channel) {
+        channel.play();
+        if (!this.playing)
+            channel.pause();
+    }
+
+    // the sound could not be loaded, so the channel would never play
+    private Void failed(ChannelAccess.ChannelHandle handle, Throwable error) {
+        FiguraMod.LOGGER.warn("Failed to load sound \"" + id + "\"", error);
+        handle.execute(Channel::stop);
+        return null;
+    }
+
+    private void setupChannel(ChannelAccess.ChannelHandle handle, float vol, boolean stream) {
+        handle.execute(channel -> {
+            channel.setPitch(pitch);
+            channel.setVolume(volume * vol);
+            channel.linearAttenuation(attenuation * 16f);
+            channel.setLooping(loop && !stream);
+            channel.setSelfPosition(pos.asVec3());
+            channel.setRelative(false);
+        });
     }
 
     @LuaWhitelist
@@ -175,6 +224,7 @@ public class LuaSound {
     @LuaMethodDoc("sound.stop")
     public LuaSound stop() {
         this.playing = false;
+        pendingHandle = null;
         if (handle != null)
             handle.execute(Channel::stop);
         handle = null;
@@ -1,6 +1,5 @@
 package org.figuramc.figura.lua.api.sound;
 
-import com.mojang.blaze3d.audio.SoundBuffer;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.sounds.Sound;
 import net.minecraft.client.sounds.SoundManager;
@@ -178,7 +177,7 @@ public class SoundAPI {
 
     @LuaWhitelist
     public LuaSound __index(String id) {
-        SoundBuffer buffer = owner.customSounds.get(id);
+        CustomSound buffer = owner.customSounds.get(id);
         if (buffer != null) {
             if (owner.permissions.get(Permissions.CUSTOM_SOUNDS) == 1) {
                 return new LuaSound(buffer, id, owner);
@@ -25,6 +25,8 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.material.Fluid;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.shapes.VoxelShape;
+import org.figuramc.figura.FiguraMod;
+import org.figuramc.figura.lua.LazyNbtTable;
 import org.figuramc.figura.lua.LuaWhitelist;
 import org.figuramc.figura.lua.NbtToLua;
 import org.figuramc.figura.lua.ReadOnlyLuaTable;
@@ -50,6 +52,11 @@ public class BlockStateAPI {
     public final BlockState blockState;
     private BlockPos pos;
 
+    // saved block entity data, kept for the rest of the tick
+    private CompoundTag entityDataCache;
+    private BlockEntity entityDataCacheEntity;
+    private int entityDataCacheTick;
+
     @LuaWhitelist
     @LuaFieldDoc("blockstate.id")
     public final String id;
@@ -288,7 +295,15 @@ public class BlockStateAPI {
     @LuaMethodDoc("blockstate.get_entity_data")
     public LuaTable getEntityData() {
         BlockEntity entity = WorldAPI.getCurrentWorld().getBlockEntity(getBlockPos());
-        return (LuaTable) NbtToLua.convert(entity != null ? entity.saveWithoutMetadata() : null);
+        if (entity == null)
+            return null;
+
+        if (entityDataCache == null || entityDataCacheEntity != entity || entityDataCacheTick != FiguraMod.ticks) {
+            entityDataCache = entity.saveWithoutMetadata();
+            entityDataCacheEntity = entity;
+            entityDataCacheTick = FiguraMod.ticks;
+        }
+        return new LazyNbtTable(entityDataCache);
     }
 
     @LuaWhitelist
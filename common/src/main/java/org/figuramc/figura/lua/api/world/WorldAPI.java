@@ -38,7 +38,15 @@ import java.util.*;
 )
 public class WorldAPI {
 
-    public static final WorldAPI INSTANCE = new WorldAPI();
+    // largest region a snapshot can copy, and how many blocks cost one instruction
+    private static final int MAX_SNAPSHOT_SIZE = 64;
+    private static final int SNAPSHOT_BLOCKS_PER_INSTRUCTION = 32;
+
+    private final Avatar owner;
+
+    public WorldAPI(Avatar owner) {
+        this.owner = owner;
+    }
 
     public static Level getCurrentWorld() {
         return Minecraft.getInstance().level;
@@ -154,6 +162,52 @@ public class WorldAPI {
         return list;
     }
 
+    @LuaWhitelist
+    @LuaMethodDoc(
+            overloads = {
+                    @LuaMethodOverload(
+                            argumentTypes = {FiguraVec3.class, FiguraVec3.class},
+                            argumentNames = {"min", "max"}
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {Double.class, Double.class, Double.class, FiguraVec3.class},
+                            argumentNames = {"minX", "minY", "minZ", "max"}
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {FiguraVec3.class, Double.class, Double.class, Double.class},
+                            argumentNames = {"min", "maxX", "maxY", "maxZ"}
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {Double.class, Double.class, Double.class, Double.class, Double.class, Double.class},
+                            argumentNames = {"minX", "minY", "minZ", "maxX", "maxY", "maxZ"}
+                    )
+            },
+            value = "world.get_snapshot"
+    )
+    public WorldSnapshot getSnapshot(Object x, Object y, Double z, Double w, Double t, Double h) {
+        Pair<FiguraVec3, FiguraVec3> pair = LuaUtils.parse2Vec3("getSnapshot", x, y, z, w, t, h, 1);
+        Level world = getCurrentWorld();
+
+        BlockPos min = pair.getFirst().asBlockPos();
+        BlockPos max = pair.getSecond().asBlockPos();
+        min = new BlockPos(min.getX(), Math.max(min.getY(), world.getMinBuildHeight()), min.getZ());
+        max = new BlockPos(
+                Math.min(min.getX() + MAX_SNAPSHOT_SIZE - 1, max.getX()),
+                Math.min(Math.min(min.getY() + MAX_SNAPSHOT_SIZE - 1, max.getY()), world.getMaxBuildHeight() - 1),
+                Math.min(min.getZ() + MAX_SNAPSHOT_SIZE - 1, max.getZ())
+        );
+
+        if (max.getX() < min.getX() || max.getY() < min.getY() || max.getZ() < min.getZ() || !world.hasChunksAt(min, max))
+            return null;
+
+        // bigger snapshots take more of the avatar instruction limit
+        long volume = (long) (max.getX() - min.getX() + 1) * (max.getY() - min.getY() + 1) * (max.getZ() - min.getZ() + 1);
+        if (owner != null)
+            owner.punish((int) (volume / SNAPSHOT_BLOCKS_PER_INSTRUCTION));
+
+        return WorldSnapshot.capture(world, min, max);
+    }
+
     @LuaWhitelist
     @LuaMethodDoc(
             overloads = {
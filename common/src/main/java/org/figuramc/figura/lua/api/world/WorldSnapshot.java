@@ -0,0 +1,285 @@
+package org.figuramc.figura.lua.api.world;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.DataLayer;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.lighting.LayerLightEventListener;
+import org.figuramc.figura.lua.LuaWhitelist;
+import org.figuramc.figura.lua.docs.LuaMethodDoc;
+import org.figuramc.figura.lua.docs.LuaMethodOverload;
+import org.figuramc.figura.lua.docs.LuaTypeDoc;
+import org.figuramc.figura.math.vector.FiguraVec2;
+import org.figuramc.figura.math.vector.FiguraVec3;
+import org.figuramc.figura.utils.LuaUtils;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read only copy of a region of the world, stored as palette indices instead of one object per block
+ * the blocks are read section by section straight from the chunks, together with their light and the height map
+ */
+@LuaWhitelist
+@LuaTypeDoc(
+        name = "WorldSnapshot",
+        value = "world_snapshot"
+)
+public class WorldSnapshot {
+
+    private final int minX, minY, minZ;
+    private final int sizeX, sizeY, sizeZ;
+
+    private final List<BlockState> palette;
+    private final int[] indices;
+    private final byte[] light; // sky light << 4 | block light
+    private final int[] heights;
+
+    private WorldSnapshot(BlockPos min, int sizeX, int sizeY, int sizeZ, List<BlockState> palette, int[] indices, byte[] light, int[] heights) {
+        this.minX = min.getX();
+        this.minY = min.getY();
+        this.minZ = min.getZ();
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.palette = palette;
+        this.indices = indices;
+        this.light = light;
+        this.heights = heights;
+    }
+
+    /**
+     * Copies a region of the world
+     * the region must be inside loaded chunks and inside the build height
+     */
+    public static WorldSnapshot capture(Level world, BlockPos min, BlockPos max) {
+        int sizeX = max.getX() - min.getX() + 1;
+        int sizeY = max.getY() - min.getY() + 1;
+        int sizeZ = max.getZ() - min.getZ() + 1;
+
+        List<BlockState> palette = new ArrayList<>();
+        Map<BlockState, Integer> paletteIndex = new IdentityHashMap<>();
+        int[] indices = new int[sizeX * sizeY * sizeZ];
+        byte[] light = new byte[indices.length];
+        int[] heights = new int[sizeX * sizeZ];
+
+        // sections without block light data have no block light
+        boolean hasSky = world.dimensionType().hasSkyLight();
+        LayerLightEventListener skyListener = world.getLightEngine().getLayerListener(LightLayer.SKY);
+        LayerLightEventListener blockListener = world.getLightEngine().getLayerListener(LightLayer.BLOCK);
+        // sky light of the columns of a section without sky light data
+        int[] columnSky = new int[16 * 16];
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+        for (int cx = SectionPos.blockToSectionCoord(min.getX()); cx <= SectionPos.blockToSectionCoord(max.getX()); cx++) {
+            for (int cz = SectionPos.blockToSectionCoord(min.getZ()); cz <= SectionPos.blockToSectionCoord(max.getZ()); cz++) {
+                LevelChunk chunk = world.getChunk(cx, cz);
+
+                // the part of the region inside this chunk
+                int x0 = Math.max(min.getX(), SectionPos.sectionToBlockCoord(cx)), x1 = Math.min(max.getX(), SectionPos.sectionToBlockCoord(cx, 15));
+                int z0 = Math.max(min.getZ(), SectionPos.sectionToBlockCoord(cz)), z1 = Math.min(max.getZ(), SectionPos.sectionToBlockCoord(cz, 15));
+
+                for (int x = x0; x <= x1; x++)
+                    for (int z = z0; z <= z1; z++)
+                        heights[(z - min.getZ()) * sizeX + (x - min.getX())] = chunk.getHeight(Heightmap.Types.MOTION_BLOCKING, x, z);
+
+                for (int cy = SectionPos.blockToSectionCoord(min.getY()); cy <= SectionPos.blockToSectionCoord(max.getY()); cy++) {
+                    LevelChunkSection section = chunk.getSection(chunk.getSectionIndexFromSectionY(cy));
+                    int y0 = Math.max(min.getY(), SectionPos.sectionToBlockCoord(cy)), y1 = Math.min(max.getY(), SectionPos.sectionToBlockCoord(cy, 15));
+
+                    // light of the whole section, instead of looking it up per block
+                    SectionPos sectionPos = SectionPos.of(cx, cy, cz);
+                    DataLayer skyLight = hasSky ? skyListener.getDataLayerData(sectionPos) : null;
+                    DataLayer blockLight = blockListener.getDataLayerData(sectionPos);
+
+                    // the sky light engine takes it from the nearest section above with data, the same for every y of the column
+                    if (hasSky && skyLight == null) {
+                        for (int x = x0; x <= x1; x++)
+                            for (int z = z0; z <= z1; z++)
+                                columnSky[(z & 15) << 4 | (x & 15)] = skyListener.getLightValue(pos.set(x, y0, z));
+                    }
+
+                    // same state as the last block is the common case, so skip the palette lookup for it
+                    BlockState last = null;
+                    int lastIndex = 0;
+                    for (int y = y0; y <= y1; y++) {
+                        for (int z = z0; z <= z1; z++) {
+                            int i = ((y - min.getY()) * sizeZ + (z - min.getZ())) * sizeX + (x0 - min.getX());
+                            for (int x = x0; x <= x1; x++, i++) {
+                                BlockState state = section.getBlockState(x & 15, y & 15, z & 15);
+                                if (state != last) {
+                                    last = state;
+                                    lastIndex = paletteIndex.computeIfAbsent(state, s -> {
+                                        palette.add(s);
+                                        return palette.size() - 1;
+                                    });
+                                }
+                                indices[i] = lastIndex;
+
+                                int sky = skyLight != null ? skyLight.get(x & 15, y & 15, z & 15) : hasSky ? columnSky[(z & 15) << 4 | (x & 15)] : 0;
+                                int block = blockLight == null ? 0 : blockLight.get(x & 15, y & 15, z & 15);
+                                light[i] = (byte) (sky << 4 | block);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return new WorldSnapshot(min, sizeX, sizeY, sizeZ, palette, indices, light, heights);
+    }
+
+    // index of the position in the arrays, or -1 if outside of the snapshot
+    private int indexOf(FiguraVec3 pos) {
+        int x = (int) Math.floor(pos.x) - minX;
+        int y = (int) Math.floor(pos.y) - minY;
+        int z = (int) Math.floor(pos.z) - minZ;
+        if (x < 0 || y < 0 || z < 0 || x >= sizeX || y >= sizeY || z >= sizeZ)
+            return -1;
+        return (y * sizeZ + z) * sizeX + x;
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc("world_snapshot.get_min")
+    public FiguraVec3 getMin() {
+        return FiguraVec3.of(minX, minY, minZ);
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc("world_snapshot.get_max")
+    public FiguraVec3 getMax() {
+        return FiguraVec3.of(minX + sizeX - 1, minY + sizeY - 1, minZ + sizeZ - 1);
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc("world_snapshot.get_palette")
+    public List<BlockStateAPI> getPalette() {
+        List<BlockStateAPI> list = new ArrayList<>(palette.size());
+        for (BlockState state : palette)
+            list.add(new BlockStateAPI(state, null));
+        return list;
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc("world_snapshot.get_indices")
+    public LuaTable getIndices() {
+        LuaTable table = new LuaTable(indices.length, 0);
+        for (int i = 0; i < indices.length; i++)
+            table.rawset(i + 1, LuaValue.valueOf(indices[i] + 1));
+        return table;
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc(
+            overloads = {
+                    @LuaMethodOverload(
+                            argumentTypes = FiguraVec3.class,
+                            argumentNames = "pos"
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {Double.class, Double.class, Double.class},
+                            argumentNames = {"x", "y", "z"}
+                    )
+            },
+            value = "world_snapshot.get_index"
+    )
+    public Integer getIndex(Object x, Double y, Double z) {
+        int i = indexOf(LuaUtils.parseVec3("getIndex", x, y, z));
+        return i == -1 ? null : indices[i] + 1;
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc(
+            overloads = {
+                    @LuaMethodOverload(
+                            argumentTypes = FiguraVec3.class,
+                            argumentNames = "pos"
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {Double.class, Double.class, Double.class},
+                            argumentNames = {"x", "y", "z"}
+                    )
+            },
+            value = "world_snapshot.get_block_state"
+    )
+    public BlockStateAPI getBlockState(Object x, Double y, Double z) {
+        FiguraVec3 pos = LuaUtils.parseVec3("getBlockState", x, y, z);
+        int i = indexOf(pos);
+        return i == -1 ? null : new BlockStateAPI(palette.get(indices[i]), pos.asBlockPos());
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc(
+            overloads = {
+                    @LuaMethodOverload(
+                            argumentTypes = FiguraVec3.class,
+                            argumentNames = "pos"
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {Double.class, Double.class, Double.class},
+                            argumentNames = {"x", "y", "z"}
+                    )
+            },
+            value = "world_snapshot.get_sky_light_level"
+    )
+    public Integer getSkyLightLevel(Object x, Double y, Double z) {
+        int i = indexOf(LuaUtils.parseVec3("getSkyLightLevel", x, y, z));
+        return i == -1 ? null : light[i] >> 4 & 0xF;
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc(
+            overloads = {
+                    @LuaMethodOverload(
+                            argumentTypes = FiguraVec3.class,
+                            argumentNames = "pos"
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {Double.class, Double.class, Double.class},
+                            argumentNames = {"x", "y", "z"}
+                    )
+            },
+            value = "world_snapshot.get_block_light_level"
+    )
+    public Integer getBlockLightLevel(Object x, Double y, Double z) {
+        int i = indexOf(LuaUtils.parseVec3("getBlockLightLevel", x, y, z));
+        return i == -1 ? null : light[i] & 0xF;
+    }
+
+    @LuaWhitelist
+    @LuaMethodDoc(
+            overloads = {
+                    @LuaMethodOverload(
+                            argumentTypes = FiguraVec2.class,
+                            argumentNames = "pos"
+                    ),
+                    @LuaMethodOverload(
+                            argumentTypes = {Double.class, Double.class},
+                            argumentNames = {"x", "z"}
+                    )
+            },
+            value = "world_snapshot.get_height"
+    )
+    public Integer getHeight(Object x, Double z) {
+        FiguraVec2 pos = LuaUtils.parseVec2("getHeight", x, z);
+        int dx = (int) Math.floor(pos.x) - minX;
+        int dz = (int) Math.floor(pos.y) - minZ;
+        if (dx < 0 || dz < 0 || dx >= sizeX || dz >= sizeZ)
+            return null;
+        return heights[dz * sizeX + dx];
+    }
+
+    @Override
+    public String toString() {
+        return "WorldSnapshot (" + sizeX + "x" + sizeY + "x" + sizeZ + ")";
+    }
+}
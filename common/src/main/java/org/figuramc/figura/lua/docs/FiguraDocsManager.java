@@ -37,6 +37,7 @@ import org.figuramc.figura.lua.api.net.NetworkingAPI;
 import org.figuramc.figura.lua.api.net.SocketAPI;
 import org.figuramc.figura.lua.api.particle.LuaParticle;
 import org.figuramc.figura.lua.api.particle.ParticleAPI;
+import org.figuramc.figura.lua.api.particle.ParticleTemplate;
 import org.figuramc.figura.lua.api.ping.PingAPI;
 import org.figuramc.figura.lua.api.ping.PingFunction;
 import org.figuramc.figura.lua.api.sound.LuaSound;
@@ -49,6 +50,7 @@ import org.figuramc.figura.lua.api.world.BiomeAPI;
 import org.figuramc.figura.lua.api.world.BlockStateAPI;
 import org.figuramc.figura.lua.api.world.ItemStackAPI;
 import org.figuramc.figura.lua.api.world.WorldAPI;
+import org.figuramc.figura.lua.api.world.WorldSnapshot;
 import org.figuramc.figura.math.matrix.FiguraMat2;
 import org.figuramc.figura.math.matrix.FiguraMat3;
 import org.figuramc.figura.math.matrix.FiguraMat4;
@@ -137,6 +139,7 @@ public class FiguraDocsManager {
 
         put("world", List.of(
                 WorldAPI.class,
+                WorldSnapshot.class,
                 BiomeAPI.class,
                 BlockStateAPI.class,
                 ItemStackAPI.class
@@ -204,7 +207,8 @@ public class FiguraDocsManager {
 
         put("particles", List.of(
                 ParticleAPI.class,
-                LuaParticle.class
+                LuaParticle.class,
+                ParticleTemplate.class
         ));
 
         put("sounds", List.of(
@@ -19,6 +19,7 @@ import org.figuramc.figura.gui.PopupMenu;
 import org.figuramc.figura.gui.screens.WardrobeScreen;
 import org.figuramc.figura.lua.FiguraLuaPrinter;
 import org.figuramc.figura.utils.FiguraText;
+import org.figuramc.figura.utils.PersistenceManager;
 import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
@@ -152,4 +153,9 @@ public abstract class MinecraftMixin {
         FiguraMod.tick();
         FiguraMod.popProfiler();
     }
+
+    @Inject(at = @At("HEAD"), method = "close")
+    private void close(CallbackInfo ci) {
+        PersistenceManager.flush();
+    }
 }
@@ -36,23 +36,13 @@ public class PlayerTabOverlayMixin {
 
         // apply customization
         Component text = cir.getReturnValue();
-        Component name = Component.literal(playerInfo.getProfile().getName());
-
         UUID uuid = playerInfo.getProfile().getId();
         Avatar avatar = AvatarManager.getAvatarForPlayer(uuid);
         NameplateCustomization custom = avatar == null || avatar.luaRuntime == null ? null : avatar.luaRuntime.nameplate.LIST;
+        Component json = custom != null && avatar.permissions.get(Permissions.NAMEPLATE_EDIT) == 1 ? custom.getJson() : null;
 
-        Component replacement = custom != null && custom.getJson() != null && avatar.permissions.get(Permissions.NAMEPLATE_EDIT) == 1 ?
-                TextUtils.replaceInText(custom.getJson().copy(), "\n|\\\\n", " ") : name;
-
-        // name
-        replacement = TextUtils.replaceInText(replacement, "\\$\\{name\\}", name);
-
-        // badges
-        replacement = Badges.appendBadges(replacement, uuid, config > 1);
-
-        // trim
-        replacement = TextUtils.trim(replacement);
+        // name and badges, in a single line
+        Component replacement = Badges.nameplate(uuid, "list", json, playerInfo.getProfile().getName(), config > 1, true);
 
         text = TextUtils.replaceInText(text, "\\b" + Pattern.quote(playerInfo.getProfile().getName()) + "\\b", replacement);
 
@@ -84,4 +84,8 @@ public interface ParticleAccessor {
     @Intrinsic
     @Accessor
     double getZd();
+
+    @Intrinsic
+    @Accessor
+    int getAge();
 }
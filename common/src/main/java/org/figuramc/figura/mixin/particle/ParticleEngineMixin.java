@@ -1,18 +1,20 @@
 package org.figuramc.figura.mixin.particle;
 
+import com.google.common.collect.EvictingQueue;
+import net.minecraft.client.multiplayer.ClientLevel;
 import net.minecraft.client.particle.Particle;
 import net.minecraft.client.particle.ParticleEngine;
 import net.minecraft.client.particle.SpriteSet;
 import net.minecraft.core.particles.ParticleOptions;
 import net.minecraft.resources.ResourceLocation;
 import org.figuramc.figura.ducks.ParticleEngineAccessor;
+import org.figuramc.figura.ducks.ParticleOwnerAccessor;
 import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.*;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
-import org.spongepowered.asm.mixin.injection.ModifyVariable;
+import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
-import org.spongepowered.asm.mixin.injection.callback.LocalCapture;
 
 import java.util.*;
 
@@ -25,13 +27,25 @@ public abstract class ParticleEngineMixin implements ParticleEngineAccessor {
 
     @Shadow public abstract void add(Particle particle);
 
-    @Unique private final HashMap<Particle, UUID> particleMap = new HashMap<>();
+    // particles spawned by avatars, per avatar owner
+    // each particle knows its index in the list, so they can be swap-removed when they die
+    @Unique private final HashMap<UUID, ArrayList<Particle>> particlesByOwner = new HashMap<>();
 
-    // This fixes a conflict with Optifine having slightly different args + it should be more stable in general, capturing Locals is bad practice
-    @ModifyVariable(at = @At(value = "INVOKE", target = "Lnet/minecraft/client/particle/ParticleEngine;tickParticle(Lnet/minecraft/client/particle/Particle;)V"), method = "tickParticleList", ordinal = 0)
-    private Particle tickParticleList(Particle particle) {
-        particleMap.remove(particle);
-        return particle;
+    // the level particles are cleared without being removed
+    @Inject(at = @At("HEAD"), method = "setLevel")
+    private void setLevel(ClientLevel level, CallbackInfo ci) {
+        figura$clearParticles(null);
+    }
+
+    // vanilla drops the oldest particle of a full render type without removing it, so untrack it here
+    @Redirect(method = "tick", at = @At(value = "INVOKE", target = "Ljava/util/Queue;add(Ljava/lang/Object;)Z"))
+    private boolean addParticle(Queue<Particle> queue, Object particle) {
+        if (queue instanceof EvictingQueue<Particle> evicting && evicting.remainingCapacity() == 0) {
+            Particle evicted = evicting.peek();
+            if (evicted != null)
+                figura$untrackParticle(evicted);
+        }
+        return queue.add((Particle) particle);
     }
 
     @Override @Intrinsic
@@ -40,25 +54,85 @@ public abstract class ParticleEngineMixin implements ParticleEngineAccessor {
     }
 
     @Override @Intrinsic
-    public void figura$spawnParticle(Particle particle, UUID owner) {
-        particleMap.put(particle, owner);
+    public boolean figura$spawnParticle(Particle particle, UUID owner, int limit) {
+        ParticleOwnerAccessor accessor = (ParticleOwnerAccessor) particle;
+
+        // already tracked, spawned again
+        if (accessor.figura$getOwner() != null) {
+            this.add(particle);
+            return true;
+        }
+
+        ArrayList<Particle> list = particlesByOwner.computeIfAbsent(owner, uuid -> new ArrayList<>());
+        if (list.size() >= limit) {
+            // drop the particles that are no longer in the engine, or that are past their lifetime, before giving up
+            for (int i = list.size() - 1; i >= 0; i--) {
+                Particle p = list.get(i);
+                if (!p.isAlive() || ((ParticleAccessor) p).getAge() >= p.getLifetime())
+                    figura$untrackParticle(p);
+            }
+            if (list.size() >= limit)
+                return false;
+        }
+
+        accessor.figura$setOwner(owner, list.size());
+        list.add(particle);
         this.add(particle);
+        return true;
+    }
+
+    @Override @Intrinsic
+    public void figura$untrackParticle(Particle particle) {
+        ParticleOwnerAccessor accessor = (ParticleOwnerAccessor) particle;
+        UUID owner = accessor.figura$getOwner();
+        if (owner == null)
+            return;
+
+        int index = accessor.figura$getIndex();
+        accessor.figura$setOwner(null, -1);
+        ArrayList<Particle> list = particlesByOwner.get(owner);
+        if (list == null || index < 0 || index >= list.size() || list.get(index) != particle)
+            return;
+
+        // swap with the last one
+        Particle last = list.remove(list.size() - 1);
+        if (last != particle) {
+            list.set(index, last);
+            ((ParticleOwnerAccessor) last).figura$setIndex(index);
+        }
+
+        if (list.isEmpty())
+            particlesByOwner.remove(owner);
     }
 
     @Override @Intrinsic
     public void figura$clearParticles(UUID owner) {
-        Iterator<Map.Entry<Particle, UUID>> iterator = particleMap.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<Particle, UUID> entry = iterator.next();
-
-            if ((owner == null || entry.getValue().equals(owner))) {
-                if (entry.getKey() != null)
-                    entry.getKey().remove();
-                iterator.remove();
-            }
+        if (owner == null) {
+            for (ArrayList<Particle> list : particlesByOwner.values())
+                removeAll(list);
+            particlesByOwner.clear();
+        } else {
+            ArrayList<Particle> list = particlesByOwner.remove(owner);
+            if (list != null)
+                removeAll(list);
         }
     }
 
+    @Override @Intrinsic
+    public int figura$getParticleCount(UUID owner) {
+        ArrayList<Particle> list = particlesByOwner.get(owner);
+        return list == null ? 0 : list.size();
+    }
+
+    @Unique
+    private static void removeAll(List<Particle> particles) {
+        // untrack first, so removing does not touch the list
+        for (Particle particle : particles)
+            ((ParticleOwnerAccessor) particle).figura$setOwner(null, -1);
+        for (Particle particle : particles)
+            particle.remove();
+    }
+
     @Override @Intrinsic
     public SpriteSet figura$getParticleSprite(ResourceLocation particleID) {
         return spriteSets.get(particleID);
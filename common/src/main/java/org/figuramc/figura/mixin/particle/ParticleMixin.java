@@ -0,0 +1,49 @@
+package org.figuramc.figura.mixin.particle;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.particle.Particle;
+import org.figuramc.figura.ducks.ParticleEngineAccessor;
+import org.figuramc.figura.ducks.ParticleOwnerAccessor;
+import org.spongepowered.asm.mixin.Intrinsic;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.UUID;
+
+@Mixin(Particle.class)
+public abstract class ParticleMixin implements ParticleOwnerAccessor {
+
+    // the avatar which spawned this particle, and where it is in the avatar particle list
+    @Unique private UUID figura$owner;
+    @Unique private int figura$index;
+
+    @Inject(at = @At("HEAD"), method = "remove")
+    private void remove(CallbackInfo ci) {
+        if (figura$owner != null)
+            ((ParticleEngineAccessor) Minecraft.getInstance().particleEngine).figura$untrackParticle((Particle) (Object) this);
+    }
+
+    @Override @Intrinsic
+    public UUID figura$getOwner() {
+        return figura$owner;
+    }
+
+    @Override @Intrinsic
+    public void figura$setOwner(UUID owner, int index) {
+        this.figura$owner = owner;
+        this.figura$index = index;
+    }
+
+    @Override @Intrinsic
+    public int figura$getIndex() {
+        return figura$index;
+    }
+
+    @Override @Intrinsic
+    public void figura$setIndex(int index) {
+        this.figura$index = index;
+    }
+}
@@ -10,7 +10,6 @@ import net.minecraft.world.entity.projectile.AbstractArrow;
 import org.figuramc.figura.FiguraMod;
 import org.figuramc.figura.avatar.Avatar;
 import org.figuramc.figura.avatar.AvatarManager;
-import org.figuramc.figura.lua.api.entity.EntityAPI;
 import org.figuramc.figura.permissions.Permissions;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
@@ -39,7 +38,7 @@ public abstract class ArrowRendererMixin<T extends AbstractArrow> extends Entity
         FiguraMod.pushProfiler("arrowRender");
 
         FiguraMod.pushProfiler("event");
-        boolean bool = avatar.arrowRenderEvent(tickDelta, EntityAPI.wrap(abstractArrow));
+        boolean bool = avatar.arrowRenderEvent(tickDelta, abstractArrow);
 
         FiguraMod.popPushProfiler("render");
         if (bool || avatar.renderArrow(poseStack, multiBufferSource, tickDelta, light)) {
@@ -113,16 +113,8 @@ public abstract class PlayerRendererMixin extends LivingEntityRenderer<AbstractC
         stack.scale((float) scaleVec.x, (float) scaleVec.y, (float) scaleVec.z);
 
         // text
-        Component name = Component.literal(player.getName().getString());
         FiguraMod.popPushProfiler("text");
-        Component replacement = hasCustom && custom.getJson() != null ? custom.getJson().copy() : name;
-
-        // name
-        replacement = TextUtils.replaceInText(replacement, "\\$\\{name\\}", name);
-
-        // badges
-        FiguraMod.popPushProfiler("badges");
-        replacement = Badges.appendBadges(replacement, player.getUUID(), config > 1);
+        Component replacement = Badges.nameplate(player.getUUID(), "entity", hasCustom ? custom.getJson() : null, player.getName().getString(), config > 1, false);
 
         FiguraMod.popPushProfiler("applyName");
         text = TextUtils.replaceInText(text, "\\b" + Pattern.quote(player.getName().getString()) + "\\b", replacement);
@@ -17,7 +17,6 @@ import org.figuramc.figura.FiguraMod;
 import org.figuramc.figura.avatar.Avatar;
 import org.figuramc.figura.avatar.AvatarManager;
 import org.figuramc.figura.ducks.SkullBlockRendererAccessor;
-import org.figuramc.figura.lua.api.entity.EntityAPI;
 import org.figuramc.figura.lua.api.world.BlockStateAPI;
 import org.figuramc.figura.lua.api.world.ItemStackAPI;
 import org.figuramc.figura.permissions.Permissions;
@@ -65,13 +64,12 @@ public abstract class SkullBlockRendererMixin implements BlockEntityRenderer<Sku
         // event
         BlockStateAPI b = localBlock == null ? null : new BlockStateAPI(localBlock.getBlockState(), localBlock.getBlockPos());
         ItemStackAPI i = localItem != null ? ItemStackAPI.verify(localItem) : null;
-        EntityAPI<?> e = localEntity != null ? EntityAPI.wrap(localEntity) : null;
         String m = localMode.name();
 
         FiguraMod.pushProfiler(localBlock != null ? localBlock.getBlockPos().toString() : String.valueOf(i));
 
         FiguraMod.pushProfiler("event");
-        boolean bool = localAvatar.skullRenderEvent(Minecraft.getInstance().getFrameTime(), b, i, e, m);
+        boolean bool = localAvatar.skullRenderEvent(Minecraft.getInstance().getFrameTime(), b, i, localEntity, m);
 
         // render skull :3
         FiguraMod.popPushProfiler("render");
@@ -10,7 +10,6 @@ import net.minecraft.world.entity.projectile.ThrownTrident;
 import org.figuramc.figura.FiguraMod;
 import org.figuramc.figura.avatar.Avatar;
 import org.figuramc.figura.avatar.AvatarManager;
-import org.figuramc.figura.lua.api.entity.EntityAPI;
 import org.figuramc.figura.permissions.Permissions;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
@@ -39,7 +38,7 @@ public abstract class TridentRendererMixin<T extends ThrownTrident > extends Ent
         FiguraMod.pushProfiler("tridentRender");
 
         FiguraMod.pushProfiler("event");
-        boolean bool = avatar.tridentRenderEvent(tickDelta, EntityAPI.wrap(abstractTrident));
+        boolean bool = avatar.tridentRenderEvent(tickDelta, abstractTrident);
 
         FiguraMod.popPushProfiler("render");
         if (bool || avatar.renderTrident(poseStack, multiBufferSource, tickDelta, light)) {
@@ -20,6 +20,7 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Mixin(SoundEngine.class)
 public abstract class SoundEngineMixin implements SoundEngineAccessor {
@@ -97,7 +98,24 @@ public abstract class SoundEngineMixin implements SoundEngineAccessor {
     }
 
     @Override @Intrinsic
-    public void figura$addSound(LuaSound sound) {
+    public void figura$addSound(LuaSound sound, int maxVoices) {
+        // avatars at their voice limit lose their oldest sound
+        UUID owner = ((ChannelHandleAccessor) sound.getHandle()).getOwner();
+        LuaSound oldest = null;
+        int voices = 0;
+        for (LuaSound playing : figuraHandlers) {
+            ChannelHandleAccessor accessor = (ChannelHandleAccessor) playing.getHandle();
+            if (accessor != null && owner.equals(accessor.getOwner())) {
+                if (oldest == null)
+                    oldest = playing;
+                voices++;
+            }
+        }
+        if (oldest != null && voices >= maxVoices) {
+            oldest.stop();
+            figuraHandlers.remove(oldest);
+        }
+
         figuraHandlers.add(sound);
         for (SoundEventListener listener : this.listeners) {
             if (listener instanceof SubtitleOverlay overlay)
@@ -134,14 +152,14 @@ public abstract class SoundEngineMixin implements SoundEngineAccessor {
     }
 
     @Override @Intrinsic
-    public ChannelAccess.ChannelHandle figura$createHandle(UUID owner, String name, Library.Pool pool) {
+    public CompletableFuture<ChannelAccess.ChannelHandle> figura$createHandle(UUID owner, String name, Library.Pool pool) {
         return figuraChannel.createHandle(pool).thenApply(channelHandle -> {
             if (channelHandle != null) {
                 ((ChannelHandleAccessor) channelHandle).setOwner(owner);
                 ((ChannelHandleAccessor) channelHandle).setName(name);
             }
             return channelHandle;
-        }).join();
+        });
     }
 
     @Override @Intrinsic
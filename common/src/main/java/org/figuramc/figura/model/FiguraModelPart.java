@@ -45,6 +45,8 @@ public class FiguraModelPart implements Comparable<FiguraModelPart> {
     public final PartCustomization customization;
     public PartCustomization savedCustomization;
     public ParentType parentType = ParentType.None;
+    public long subtreeTypes = -1L; // parent types of this part and its children, as bits of their ordinals, updated by the renderer
+    public boolean subtreeHasFunctions = true; // if this part or its children have render functions, updated by the renderer
     public PartCustomization playerCustomization;
 
     private final Map<String, FiguraModelPart> childCache = new HashMap<>();
@@ -241,6 +243,7 @@ public class FiguraModelPart implements Comparable<FiguraModelPart> {
             value = "model_part.set_pre_render"
     )
     public FiguraModelPart setPreRender(LuaFunction function) {
+        renderFunctionChanged(this.preRender, function);
         this.preRender = function;
         return this;
     }
@@ -254,6 +257,7 @@ public class FiguraModelPart implements Comparable<FiguraModelPart> {
             value = "model_part.set_mid_render"
     )
     public FiguraModelPart setMidRender(LuaFunction function) {
+        renderFunctionChanged(this.midRender, function);
         this.midRender = function;
         return this;
     }
@@ -267,6 +271,7 @@ public class FiguraModelPart implements Comparable<FiguraModelPart> {
             value = "model_part.set_post_render"
     )
     public FiguraModelPart setPostRender(LuaFunction function) {
+        renderFunctionChanged(this.postRender, function);
         this.postRender = function;
         return this;
     }
@@ -1210,6 +1215,8 @@ public class FiguraModelPart implements Comparable<FiguraModelPart> {
 
         if ((oldParent.isSeparate || this.parentType.isSeparate) && oldParent != this.parentType)
             owner.renderer.sortParts();
+        else if (oldParent != this.parentType)
+            markPartsChanged();
 
         this.customization.vanillaVisible = null;
         this.customization.needsMatrixRecalculation = true;
@@ -1395,6 +1402,7 @@ public class FiguraModelPart implements Comparable<FiguraModelPart> {
         if(part.childCache.get(this.name) == null)
             part.childCache.put(this.name, this);
         this.parent = part;
+        markPartsChanged();
         return this;
     }
 
@@ -1420,6 +1428,7 @@ public class FiguraModelPart implements Comparable<FiguraModelPart> {
         if(this.childCache.get(part.name) == null)
             this.childCache.put(part.name, part);
         part.parent = this;
+        markPartsChanged();
         return this;
     }
 
@@ -1436,6 +1445,7 @@ public class FiguraModelPart implements Comparable<FiguraModelPart> {
             this.children.remove(part);
             this.childCache.remove(part.name);
             part.parent = null;
+            markPartsChanged();
         }
         return this;
     }
@@ -1492,6 +1502,17 @@ public class FiguraModelPart implements Comparable<FiguraModelPart> {
         return newer;
     }
 
+    // the renderer only needs to know if there are functions, not which
+    private void renderFunctionChanged(LuaFunction old, LuaFunction function) {
+        if ((old == null) != (function == null))
+            markPartsChanged();
+    }
+
+    private void markPartsChanged() {
+        if (owner != null && owner.renderer != null)
+            owner.renderer.markPartsChanged();
+    }
+
     // -- METAMETHODS --// 
     @LuaWhitelist
     public Object __index(String key) {
@@ -1519,9 +1540,9 @@ public class FiguraModelPart implements Comparable<FiguraModelPart> {
     @LuaWhitelist
     public void __newindex(@LuaNotNil String key, LuaFunction value) {
         switch (key) {
-            case "preRender" -> preRender = value;
-            case "midRender" -> midRender = value;
-            case "postRender" -> postRender = value;
+            case "preRender" -> setPreRender(value);
+            case "midRender" -> setMidRender(value);
+            case "postRender" -> setPostRender(value);
             default -> throw new LuaError("Cannot assign value on key \"" + key + "\"");
         }
     }
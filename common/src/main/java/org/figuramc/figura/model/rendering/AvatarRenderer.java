@@ -29,6 +29,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
  * Mainly exists as an abstract superclass for VAO-based and
@@ -42,6 +44,7 @@ public abstract class AvatarRenderer {
     protected final Map<ParentType, List<FiguraModelPart>> separatedParts = new ConcurrentHashMap<>();
 
     protected boolean isRendering, dirty;
+    private boolean partsChanged = true;
 
     // -- rendering data -- // 
 
@@ -75,6 +78,10 @@ public abstract class AvatarRenderer {
     public boolean ignoreVanillaVisibility = false;
     public FiguraModelPart itemToRender;
 
+    // game hooks, replaced by the headless harness where there is no render system or entity renderer
+    public Consumer<FiguraTexture> textureUploader = FiguraTexture::uploadIfDirty;
+    public BooleanSupplier hitboxesShown = () -> Minecraft.getInstance().getEntityRenderDispatcher().shouldRenderHitBoxes();
+
     public AvatarRenderer(Avatar avatar) {
         this.avatar = avatar;
 
@@ -155,6 +162,31 @@ public abstract class AvatarRenderer {
     public void sortParts() {
         separatedParts.clear();
         _sortParts(root);
+        partsChanged = true;
+    }
+
+    // the part tree changed, so the subtree types are updated before the next render
+    public void markPartsChanged() {
+        partsChanged = true;
+    }
+
+    protected void updatePartTypes() {
+        if (!partsChanged || root == null)
+            return;
+
+        partsChanged = false;
+        _updatePartTypes(root);
+    }
+
+    private static long _updatePartTypes(FiguraModelPart part) {
+        long types = 1L << part.parentType.ordinal();
+        boolean functions = part.preRender != null || part.midRender != null || part.postRender != null;
+        for (FiguraModelPart child : part.children) {
+            types |= _updatePartTypes(child);
+            functions |= child.subtreeHasFunctions;
+        }
+        part.subtreeHasFunctions = functions;
+        return part.subtreeTypes = types;
     }
 
     private void _sortParts(FiguraModelPart part) {
@@ -13,6 +13,7 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LightLayer;
 import org.figuramc.figura.FiguraMod;
 import org.figuramc.figura.avatar.Avatar;
+import org.figuramc.figura.avatar.AvatarMetrics;
 import org.figuramc.figura.config.Configs;
 import org.figuramc.figura.lua.api.ClientAPI;
 import org.figuramc.figura.math.matrix.FiguraMat3;
@@ -39,6 +40,8 @@ public class ImmediateAvatarRenderer extends AvatarRenderer {
     private static final PartCustomization pivotOffsetter = new PartCustomization();
     protected static final VertexBuffer VERTEX_BUFFER = new VertexBuffer();
 
+    private int renderedVertices, renderedFaces;
+
     public ImmediateAvatarRenderer(Avatar avatar) {
         super(avatar);
 
@@ -90,6 +93,9 @@ public class ImmediateAvatarRenderer extends AvatarRenderer {
     protected int commonRender(double vertOffset) {
         // flag rendering state
         this.isRendering = true;
+        long time = System.nanoTime();
+        renderedVertices = renderedFaces = 0;
+        updatePartTypes();
 
         // iris fix
         int irisConfig = UIHelper.paperdoll || !ClientAPI.hasShaderPackMod() ? 0 : Configs.IRIS_COMPATIBILITY_FIX.value;
@@ -98,13 +104,13 @@ public class ImmediateAvatarRenderer extends AvatarRenderer {
 
         // custom textures
         for (FiguraTextureSet set : textureSets)
-            set.uploadIfNeeded();
+            set.uploadIfNeeded(textureUploader);
         for (FiguraTexture texture : customTextures.values())
-            texture.uploadIfDirty();
+            textureUploader.accept(texture);
 
         // Set shouldRenderPivots
         int config = Configs.RENDER_DEBUG_PARTS_PIVOT.value;
-        if (!Minecraft.getInstance().getEntityRenderDispatcher().shouldRenderHitBoxes() || (!avatar.isHost && config < 2))
+        if (!hitboxesShown.getAsBoolean() || (!avatar.isHost && config < 2))
             shouldRenderPivots = 0;
         else
             shouldRenderPivots = config;
@@ -172,6 +178,14 @@ public class ImmediateAvatarRenderer extends AvatarRenderer {
         if (this.dirty)
             clean();
 
+        // metrics
+        if (AvatarMetrics.enabled) {
+            String scheme = currentFilterScheme.name();
+            avatar.metrics.record(AvatarMetrics.RENDER_TIME, scheme, System.nanoTime() - time);
+            avatar.metrics.record(AvatarMetrics.RENDER_VERTICES, scheme, renderedVertices);
+            avatar.metrics.record(AvatarMetrics.RENDER_FACES, scheme, renderedFaces);
+        }
+
         return prev - Math.max(remainingComplexity[0], 0);
     }
 
@@ -353,7 +367,12 @@ public class ImmediateAvatarRenderer extends AvatarRenderer {
 
         // render children
         FiguraMod.popPushProfiler("children");
-        for (FiguraModelPart child : List.copyOf(part.children)) {
+        List<FiguraModelPart> children = part.children.isEmpty() ? List.of() : List.copyOf(part.children);
+        for (FiguraModelPart child : children) {
+            // skip whole branches that cannot render on this pass, like the body when rendering the first person arms
+            if (currentFilterScheme.canSkip(child, thisPassedPredicate))
+                continue;
+
             if (!renderPart(child, remainingComplexity, thisPassedPredicate)) {
                 breakRender = true;
                 break;
@@ -529,6 +548,8 @@ public class ImmediateAvatarRenderer extends AvatarRenderer {
     private static final FiguraVec3 uv = FiguraVec3.of(0, 0, 1);
     private void pushToBuffer(int faceCount, VertexData vertexData, PartCustomization customization, FiguraTextureSet textureSet, List<Vertex> vertices) {
         int vertCount = faceCount * 4;
+        renderedFaces += faceCount;
+        renderedVertices += vertCount;
 
         FiguraVec3 uvFixer = FiguraVec3.of();
         uvFixer.set(textureSet.getWidth(), textureSet.getHeight(), 1); // Dividing by this makes uv 0 to 1
@@ -536,29 +557,38 @@ public class ImmediateAvatarRenderer extends AvatarRenderer {
         int overlay = customization.overlay;
         int light = vertexData.fullBright ? LightTexture.FULL_BRIGHT : customization.light;
 
-        VERTEX_BUFFER.getBufferFor(vertexData.renderType, vertexData.primary, vertexConsumer -> {
-            for (int i = 0; i < vertCount; i++) {
-                Vertex vertex = vertices.get(i);
-
-                pos.set(vertex.x, vertex.y, vertex.z, 1);
-                pos.transform(customization.positionMatrix);
-                pos.add(pos.normalized().scale(vertexData.vertexOffset));
-                normal.set(vertex.nx, vertex.ny, vertex.nz);
-                normal.transform(customization.normalMatrix);
-                uv.set(vertex.u, vertex.v, 1);
-                uv.divide(uvFixer);
-                uv.transform(customization.uvMatrix);
-
-                vertexConsumer
-                        .vertex(pos.x, pos.y, pos.z)
-                        .color((float) vertexData.color.x, (float) vertexData.color.y, (float) vertexData.color.z, customization.alpha)
-                        .uv((float) uv.x, (float) uv.y)
-                        .overlayCoords(overlay)
-                        .uv2(light)
-                        .normal((float) normal.x, (float) normal.y, (float) normal.z)
-                        .endVertex();
-            }
-        });
+        VERTEX_BUFFER.getBufferFor(vertexData.renderType, vertexData.primary, vertexConsumer ->
+                pushVertices(vertexConsumer, vertices, vertCount, customization, uvFixer, vertexData.color, vertexData.vertexOffset, overlay, light));
+    }
+
+    /**
+     * Transforms the vertices by the part matrices and writes them to the consumer
+     *
+     * @param uvFixer - the texture size, so the uvs are from 0 to 1
+     * @param vertexOffset - how much the vertices are pushed away from the origin, so layers do not z-fight
+     */
+    public static void pushVertices(VertexConsumer vertexConsumer, List<Vertex> vertices, int vertCount, PartCustomization customization, FiguraVec3 uvFixer, FiguraVec3 color, float vertexOffset, int overlay, int light) {
+        for (int i = 0; i < vertCount; i++) {
+            Vertex vertex = vertices.get(i);
+
+            pos.set(vertex.x, vertex.y, vertex.z, 1);
+            pos.transform(customization.positionMatrix);
+            pos.add(pos.normalized().scale(vertexOffset));
+            normal.set(vertex.nx, vertex.ny, vertex.nz);
+            normal.transform(customization.normalMatrix);
+            uv.set(vertex.u, vertex.v, 1);
+            uv.divide(uvFixer);
+            uv.transform(customization.uvMatrix);
+
+            vertexConsumer
+                    .vertex(pos.x, pos.y, pos.z)
+                    .color((float) color.x, (float) color.y, (float) color.z, customization.alpha)
+                    .uv((float) uv.x, (float) uv.y)
+                    .overlayCoords(overlay)
+                    .uv2(light)
+                    .normal((float) normal.x, (float) normal.y, (float) normal.z)
+                    .endVertex();
+        }
     }
 
     private static class VertexData {
@@ -1,5 +1,6 @@
 package org.figuramc.figura.model.rendering;
 
+import org.figuramc.figura.model.FiguraModelPart;
 import org.figuramc.figura.model.ParentType;
 
 public enum PartFilterScheme {
@@ -32,17 +33,39 @@ public enum PartFilterScheme {
     public final boolean initialValue;
     public final SchemeFunction predicate;
     public final ParentType parentType;
+    // parent types that can render after a failed predicate, or that need to be visited anyway, as bits of their ordinals
+    private final long typesToVisit;
 
     PartFilterScheme(boolean initialValue, SchemeFunction predicate, ParentType parentType) {
         this.initialValue = initialValue;
         this.predicate = predicate;
         this.parentType = parentType;
+
+        long types = 0;
+        for (ParentType type : ParentType.values()) {
+            // render layers save their customization even when not rendered
+            if (type.isRenderLayer || Boolean.TRUE.equals(predicate.test(type, false)))
+                types |= 1L << type.ordinal();
+        }
+        this.typesToVisit = types;
     }
 
     public Boolean test(ParentType toTest, boolean prevResult) {
         return predicate.test(toTest, prevResult);
     }
 
+    /**
+     * Checks if a part can be skipped, as nothing in it would render
+     * once the predicate fails, it can only pass again on the types allowed by this scheme
+     * parts with render functions are never skipped, as the scripts expect them to run on every pass
+     *
+     * @param part - the part to test, with its subtree types up to date
+     * @param prevResult - the predicate result of the part parent
+     */
+    public boolean canSkip(FiguraModelPart part, boolean prevResult) {
+        return !prevResult && !part.subtreeHasFunctions && (part.subtreeTypes & typesToVisit) == 0;
+    }
+
 
     /**
      * Return true: this part should render, and also continue and render children, and pass true to the scheme function next time
@@ -10,6 +10,7 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.ResourceManager;
 import org.figuramc.figura.FiguraMod;
 import org.figuramc.figura.avatar.Avatar;
+import org.figuramc.figura.avatar.AvatarMetrics;
 import org.figuramc.figura.lua.LuaNotNil;
 import org.figuramc.figura.lua.LuaWhitelist;
 import org.figuramc.figura.lua.docs.LuaMethodDoc;
@@ -118,6 +119,8 @@ public class FiguraTexture extends SimpleTexture {
 
         if (dirty && !isClosed) {
             dirty = false;
+            if (AvatarMetrics.enabled)
+                owner.metrics.record(AvatarMetrics.TEXTURE_UPLOAD, name, (long) texture.getWidth() * texture.getHeight() * 4);
 
             RenderCall runnable = () -> {
                 // Upload texture to GPU.
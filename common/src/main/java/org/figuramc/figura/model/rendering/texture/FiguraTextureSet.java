@@ -11,6 +11,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Type;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class FiguraTextureSet {
 
@@ -32,10 +33,10 @@ public class FiguraTextureSet {
         }
     }
 
-    public void uploadIfNeeded() {
+    public void uploadIfNeeded(Consumer<FiguraTexture> uploader) {
         for (FiguraTexture texture : textures) {
             if (texture != null)
-                texture.uploadIfDirty();
+                uploader.accept(texture);
         }
     }
 
@@ -0,0 +1,307 @@
+package org.figuramc.figura.model.rendertasks;
+
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.FormattedText;
+import net.minecraft.network.chat.Style;
+import org.figuramc.figura.FiguraMod;
+import org.figuramc.figura.utils.FiguraResourceListener;
+import org.joml.Matrix4f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Glyph quads of the lines of a text task, so unchanged text is replayed instead of shaped again every frame
+ * each line is drawn once into a recording buffer, in line space, and replayed with the current matrix and light
+ * when only the end of a line with a single style changes, the quads of the unchanged start are kept and only the rest is recorded
+ */
+public class GlyphRunCache {
+
+    private static final Matrix4f IDENTITY = new Matrix4f();
+    private static final Recorder RECORDER = new Recorder();
+
+    // glyphs might have moved in the font atlas after a reload
+    private static int generation;
+    public static final FiguraResourceListener RESOURCE_LISTENER = FiguraResourceListener.createResourceListener("glyph_runs", manager -> generation++);
+
+    private Settings settings;
+    private Line[] lines = new Line[0];
+
+    /**
+     * Prepares the cache for drawing a frame, dropping the recorded lines if the drawing settings changed
+     */
+    public void begin(Font font, int color, int outlineColor, boolean shadow, boolean outline, Font.DisplayMode displayMode, int lineCount) {
+        Settings current = new Settings(font, color, outlineColor, shadow, outline, displayMode, generation, Minecraft.getInstance().options.forceUnicodeFont().get());
+        if (!current.equals(settings)) {
+            settings = current;
+            Arrays.fill(lines, null);
+        }
+
+        if (lines.length != lineCount)
+            lines = Arrays.copyOf(lines, lineCount);
+    }
+
+    public void clear() {
+        settings = null;
+        lines = new Line[0];
+    }
+
+    /**
+     * Draws a line of text, replaying its recorded glyphs when possible
+     *
+     * @param index - the line index, as each line is recorded separately
+     */
+    public void draw(int index, Component text, float x, float y, Matrix4f matrix, MultiBufferSource buffer, int light) {
+        Line line = lines[index];
+        if (line == null || !line.isValid(text))
+            lines[index] = line = record(line, text);
+
+        // obfuscated glyphs change every frame
+        if (line.obfuscated)
+            drawText(text, x, y, matrix, buffer, light);
+        else
+            line.replay(matrix, buffer, x, y, light);
+    }
+
+    private Line record(Line old, Component text) {
+        if (isObfuscated(text))
+            return new Line(text, "", null, -1, true, Segment.EMPTY, Segment.EMPTY);
+
+        String string = text.getString();
+        Style style = getSingleStyle(text);
+        // animated emojis are recorded again every tick
+        int tick = hasAnimatedFont(text) ? FiguraMod.ticks : -1;
+
+        // incremental update, only possible when every glyph is drawn once and in order
+        if (old != null && !old.obfuscated && style != null && style.equals(old.style) && !settings.shadow && !settings.outline && !settings.font.isBidirectional() && tick == -1) {
+            Segment base = old.base;
+            if (!string.startsWith(base.text)) {
+                int prefix = commonPrefix(old.string, string);
+                base = prefix == 0 ? null : recordString(string.substring(0, prefix), style, 0f);
+            }
+
+            if (base != null) {
+                Segment tail = recordString(string.substring(base.text.length()), style, base.width);
+                return new Line(text, string, style, tick, false, base, tail);
+            }
+        }
+
+        // the width is only needed when the line can be updated later
+        Segment whole = recordText(text, string, 0f, style == null ? 0f : settings.font.width(text));
+        return new Line(text, string, style, tick, false, whole, Segment.EMPTY);
+    }
+
+    private Segment recordString(String string, Style style, float x) {
+        if (string.isEmpty())
+            return new Segment("", x, List.of());
+
+        Component component = Component.literal(string).setStyle(style);
+        return recordText(component, string, x, settings.font.width(FormattedText.of(string, style)));
+    }
+
+    private Segment recordText(Component text, String string, float x, float width) {
+        RECORDER.begin();
+        drawText(text, x, 0f, IDENTITY, RECORDER, 0);
+        return new Segment(string, x + width, RECORDER.finish());
+    }
+
+    private void drawText(Component text, float x, float y, Matrix4f matrix, MultiBufferSource buffer, int light) {
+        Font font = settings.font;
+        if (settings.outline) {
+            font.drawInBatch8xOutline(text.getVisualOrderText(), x, y, -1, settings.outlineColor, matrix, buffer, light);
+            if (settings.displayMode == Font.DisplayMode.SEE_THROUGH)
+                font.drawInBatch(text, x, y, settings.color, settings.shadow, matrix, buffer, settings.displayMode, 0, light);
+        } else {
+            font.drawInBatch(text, x, y, settings.color, settings.shadow, matrix, buffer, settings.displayMode, 0, light);
+        }
+    }
+
+    // the style of the text, if it is the same for all of it
+    private static Style getSingleStyle(Component text) {
+        Style[] style = {null};
+        Optional<Boolean> mixed = text.visit((s, str) -> {
+            if (str.isEmpty())
+                return Optional.empty();
+            if (style[0] != null && !style[0].equals(s))
+                return Optional.of(true);
+            style[0] = s;
+            return Optional.empty();
+        }, Style.EMPTY);
+
+        // lines and effects span the whole text
+        Style result = style[0];
+        if (mixed.isPresent() || result == null || result.isUnderlined() || result.isStrikethrough())
+            return null;
+        return result;
+    }
+
+    private static boolean isObfuscated(Component text) {
+        return text.visit((s, str) -> s.isObfuscated() ? Optional.of(true) : Optional.empty(), Style.EMPTY).isPresent();
+    }
+
+    private static boolean hasAnimatedFont(Component text) {
+        return text.visit((s, str) -> s.getFont().getNamespace().equals(FiguraMod.MOD_ID) ? Optional.of(true) : Optional.empty(), Style.EMPTY).isPresent();
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i))
+            i++;
+
+        // do not split surrogate pairs
+        if (i > 0 && Character.isHighSurrogate(a.charAt(i - 1)))
+            i--;
+        return i;
+    }
+
+    private record Settings(Font font, int color, int outlineColor, boolean shadow, boolean outline, Font.DisplayMode displayMode, int generation, boolean unicodeFont) {}
+
+    private record Line(Component component, String string, Style style, int tick, boolean obfuscated, Segment base, Segment tail) {
+        private boolean isValid(Component text) {
+            return (text == component || text.equals(component)) && (tick == -1 || tick == FiguraMod.ticks);
+        }
+
+        private void replay(Matrix4f matrix, MultiBufferSource buffer, float x, float y, int light) {
+            base.replay(matrix, buffer, x, y, light);
+            tail.replay(matrix, buffer, x, y, light);
+        }
+    }
+
+    /**
+     * Recorded glyphs of a piece of a line
+     *
+     * @param text - the text of this piece
+     * @param width - where the next piece starts
+     * @param runs - glyph quads, grouped by render type
+     */
+    private record Segment(String text, float width, List<Run> runs) {
+        private static final Segment EMPTY = new Segment("", 0f, List.of());
+
+        private void replay(Matrix4f matrix, MultiBufferSource buffer, float x, float y, int light) {
+            for (Run run : runs)
+                run.replay(matrix, buffer, x, y, light);
+        }
+    }
+
+    private record Run(RenderType renderType, float[] vertices, int[] colors) {
+        private void replay(Matrix4f matrix, MultiBufferSource buffer, float x, float y, int light) {
+            VertexConsumer consumer = buffer.getBuffer(renderType);
+            for (int i = 0, j = 0; i < colors.length; i++, j += 5) {
+                int color = colors[i];
+                consumer.vertex(matrix, vertices[j] + x, vertices[j + 1] + y, vertices[j + 2])
+                        .color(color >> 16 & 0xFF, color >> 8 & 0xFF, color & 0xFF, color >>> 24)
+                        .uv(vertices[j + 3], vertices[j + 4])
+                        .uv2(light)
+                        .endVertex();
+            }
+        }
+    }
+
+    // buffer source which keeps the text vertices instead of drawing them
+    private static class Recorder implements MultiBufferSource {
+
+        private final Map<RenderType, RunBuilder> builders = new LinkedHashMap<>();
+
+        private void begin() {
+            builders.clear();
+        }
+
+        private List<Run> finish() {
+            List<Run> runs = new ArrayList<>(builders.size());
+            for (Map.Entry<RenderType, RunBuilder> entry : builders.entrySet()) {
+                RunBuilder builder = entry.getValue();
+                if (builder.count > 0)
+                    runs.add(new Run(entry.getKey(), Arrays.copyOf(builder.vertices, builder.count * 5), Arrays.copyOf(builder.colors, builder.count)));
+            }
+            builders.clear();
+            return runs;
+        }
+
+        @Override
+        public VertexConsumer getBuffer(RenderType renderType) {
+            return builders.computeIfAbsent(renderType, type -> new RunBuilder());
+        }
+    }
+
+    private static class RunBuilder implements VertexConsumer {
+
+        private float[] vertices = new float[20 * 5];
+        private int[] colors = new int[20];
+        private int count;
+
+        private float x, y, z, u, v;
+        private int color = -1;
+
+        @Override
+        public VertexConsumer vertex(double x, double y, double z) {
+            this.x = (float) x;
+            this.y = (float) y;
+            this.z = (float) z;
+            return this;
+        }
+
+        @Override
+        public VertexConsumer color(int red, int green, int blue, int alpha) {
+            this.color = alpha << 24 | red << 16 | green << 8 | blue;
+            return this;
+        }
+
+        @Override
+        public VertexConsumer uv(float u, float v) {
+            this.u = u;
+            this.v = v;
+            return this;
+        }
+
+        @Override
+        public VertexConsumer overlayCoords(int u, int v) {
+            return this;
+        }
+
+        @Override
+        public VertexConsumer uv2(int u, int v) {
+            // the light is given when replaying
+            return this;
+        }
+
+        @Override
+        public VertexConsumer normal(float x, float y, float z) {
+            return this;
+        }
+
+        @Override
+        public void endVertex() {
+            if (count == colors.length) {
+                colors = Arrays.copyOf(colors, count * 2);
+                vertices = Arrays.copyOf(vertices, count * 2 * 5);
+            }
+
+            int i = count * 5;
+            vertices[i] = x;
+            vertices[i + 1] = y;
+            vertices[i + 2] = z;
+            vertices[i + 3] = u;
+            vertices[i + 4] = v;
+            colors[count++] = color;
+            color = -1;
+        }
+
+        @Override
+        public void defaultColor(int red, int green, int blue, int alpha) {
+        }
+
+        @Override
+        public void unsetDefaultColor() {
+        }
+    }
+}
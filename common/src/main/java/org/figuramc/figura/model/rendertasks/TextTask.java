@@ -45,6 +45,8 @@ public class TextTask extends RenderTask {
     private boolean wrap = true;
 
     private int cachedComplexity, cacheWidth, cacheHeight;
+    private int[] lineWidths;
+    private final GlyphRunCache glyphCache = new GlyphRunCache();
 
     public TextTask(String name, Avatar owner, FiguraModelPart parent) {
         super(name, owner, parent);
@@ -79,18 +81,11 @@ public class TextTask extends RenderTask {
             vertexConsumer.vertex(matrix, x2, -1f, vertexOffset).color(bg).uv2(l).endVertex();
         }
 
-        // text
+        // text, replayed from the glyph cache while it does not change
+        glyphCache.begin(font, op, out, shadow, outline, displayMode, text.size());
         for (int i = 0, j = 0; i < text.size(); i++, j += (font.lineHeight + 1)) {
-            Component text = this.text.get(i);
-            int x = -alignment.apply(font, text);
-
-            if (outline) {
-                font.drawInBatch8xOutline(text.getVisualOrderText(), x, j, -1, out, matrix, buffer, l);
-                if (seeThrough)
-                    font.drawInBatch(text, x, j, op, shadow, matrix, buffer, displayMode, 0, l);
-            } else {
-                font.drawInBatch(text, x, j, op, shadow, matrix, buffer, displayMode, 0, l);
-            }
+            int x = -alignment.apply(lineWidths[i]);
+            glyphCache.draw(i, this.text.get(i), x, j, matrix, buffer, l);
         }
     }
 
@@ -107,6 +102,7 @@ public class TextTask extends RenderTask {
     private void updateText() {
         if (this.textCached == null) {
             this.text = null;
+            glyphCache.clear();
             return;
         }
 
@@ -119,6 +115,10 @@ public class TextTask extends RenderTask {
         Font font = Minecraft.getInstance().font;
         cacheWidth = TextUtils.getWidth(this.text, font);
         cacheHeight = TextUtils.getHeight(this.text, font);
+
+        lineWidths = new int[this.text.size()];
+        for (int i = 0; i < lineWidths.length; i++)
+            lineWidths[i] = font.width(this.text.get(i));
     }
 
 
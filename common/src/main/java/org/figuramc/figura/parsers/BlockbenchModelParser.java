@@ -10,6 +10,8 @@ import org.figuramc.figura.FiguraMod;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.util.*;
@@ -17,25 +19,29 @@ import java.util.regex.Pattern;
 
 //main class to convert a blockbench model (json) into nbt
 //default fields are omitted from the nbt to save up space
-//note: use the same instance for parsing multiple models for the same avatar
+//ids start at 0 for every model, use relocate to move them after the models parsed before
 public class BlockbenchModelParser {
 
     private final static Gson GSON = new GsonBuilder().create();
 
-    //offsets for usage of diverse models
-    private int textureOffset = 0;
-    private int animationOffset = 0;
-
     //used during the parser
     private final HashMap<String, CompoundTag> elementMap = new HashMap<>();
     private final HashMap<String, ListTag> animationMap = new HashMap<>();
     private final HashMap<String, TextureData> textureMap = new HashMap<>();
     private final HashMap<Integer, String> textureIdMap = new HashMap<>();
+    private final List<Path> textureFiles = new ArrayList<>();
 
     //parser
     public ModelData parseModel(Path avatarFolder, Path sourceFile, String json, String modelName, String folders) throws Exception {
+        return parseModel(avatarFolder, sourceFile, new StringReader(json), modelName, folders);
+    }
+
+    //the reader is consumed as a stream, so big models never need to be fully loaded as a string
+    public ModelData parseModel(Path avatarFolder, Path sourceFile, Reader json, String modelName, String folders) throws Exception {
         // parse json -> object
         BlockbenchModel model = GSON.fromJson(json, BlockbenchModel.class);
+        if (model == null)
+            throw new Exception("Model \"" + modelName + "\" is empty");
 
         //meta check
         if (!model.meta.model_format.equals("free") && !model.meta.model_format.contains(FiguraMod.MOD_ID))
@@ -75,9 +81,11 @@ public class BlockbenchModelParser {
         animationMap.clear();
         textureMap.clear();
         textureIdMap.clear();
+        List<Path> files = List.copyOf(textureFiles);
+        textureFiles.clear();
 
         //return the parsed data
-        return new ModelData(textures, animationList, nbt);
+        return new ModelData(textures, animationList, nbt, files);
     }
 
     public static void parseParent(String name, CompoundTag nbt) {
@@ -86,6 +94,51 @@ public class BlockbenchModelParser {
             nbt.putString("pt", parentType.name());
     }
 
+    //shifts the texture and animation ids of a model parsed by its own parser
+    //so it can be merged with the other models of the avatar, without modifying the original data
+    public static ModelData relocate(ModelData data, int textureOffset, int animationOffset) {
+        CompoundTag model = data.modelNbt().copy();
+        if (textureOffset != 0 || animationOffset != 0)
+            relocateIds(model, textureOffset, animationOffset);
+
+        List<CompoundTag> animations = new ArrayList<>();
+        for (CompoundTag animation : data.animationList())
+            animations.add(animation.copy());
+
+        return new ModelData(data.textures().copy(), animations, model, data.textureFiles());
+    }
+
+    private static void relocateIds(CompoundTag part, int textureOffset, int animationOffset) {
+        if (textureOffset != 0) {
+            //cube faces store the id as is
+            if (part.contains("cube_data", Tag.TAG_COMPOUND)) {
+                CompoundTag faces = part.getCompound("cube_data");
+                for (String key : faces.getAllKeys()) {
+                    CompoundTag face = faces.getCompound(key);
+                    face.putInt("tex", face.getInt("tex") + textureOffset);
+                }
+            }
+
+            //mesh faces store the id together with the vertex count
+            if (part.contains("mesh_data", Tag.TAG_COMPOUND)) {
+                ListTag texes = part.getCompound("mesh_data").getList("tex", Tag.TAG_SHORT);
+                for (int i = 0; i < texes.size(); i++)
+                    texes.set(i, ShortTag.valueOf((short) (texes.getShort(i) + (textureOffset << 4))));
+            }
+        }
+
+        if (animationOffset != 0 && part.contains("anim", Tag.TAG_LIST)) {
+            for (Tag tag : part.getList("anim", Tag.TAG_COMPOUND)) {
+                CompoundTag anim = (CompoundTag) tag;
+                if (anim.contains("id"))
+                    anim.putInt("id", anim.getInt("id") + animationOffset);
+            }
+        }
+
+        for (Tag child : part.getList("chld", Tag.TAG_COMPOUND))
+            relocateIds((CompoundTag) child, textureOffset, animationOffset);
+    }
+
     // -- internal functions -- //
 
     private void parseTextures(Path avatar, Path sourceFile, String folders, String modelName, CompoundTag texturesNbt, BlockbenchModel.Texture[] textures, BlockbenchModel.Resolution resolution) throws Exception {
@@ -145,6 +198,7 @@ public class BlockbenchModelParser {
                 FiguraMod.debug("path is {}", p.toString());
                 //load texture
                 source = IOUtils.readFileBytes(p);
+                textureFiles.add(p);
                 path = avatar.relativize(p)
                         .toString()
                         .replace(p.getFileSystem().getSeparator(), ".");
@@ -194,7 +248,7 @@ public class BlockbenchModelParser {
             //generate the texture data
             if (!textureMap.containsKey(name)) {
                 //id is generated by the position of the name in the list
-                int id = textureIndex.indexOf(name) + textureOffset;
+                int id = textureIndex.indexOf(name);
 
                 //fix texture size for more speed
                 float[] fixedSize;
@@ -214,7 +268,6 @@ public class BlockbenchModelParser {
         for (Map.Entry<String, CompoundTag> entry : texturesTemp.entrySet())
             data.add(entry.getValue());
 
-        textureOffset += data.size();
         texturesNbt.put("src", src);
         texturesNbt.put("data", data);
     }
@@ -378,13 +431,14 @@ public class BlockbenchModelParser {
         return nbt;
     }
 
-    private static final FiguraVec3
+    //scratch vectors, per instance so multiple parsers can run at the same time
+    private final FiguraVec3
             v1 = FiguraVec3.of(),
             v2 = FiguraVec3.of(),
             v3 = FiguraVec3.of(),
             v4 = FiguraVec3.of();
 
-    private static void reorderVertices(String[] vertexNames, Map<String, Integer> nameToIndex, ListTag vertices) {
+    private void reorderVertices(String[] vertexNames, Map<String, Integer> nameToIndex, ListTag vertices) {
         //Fill in v1, v2, v3, v4 from the given vertices
         readVectors(vertexNames, nameToIndex, vertices);
 
@@ -401,7 +455,7 @@ public class BlockbenchModelParser {
 
     }
 
-    private static void readVectors(String[] vertexNames, Map<String, Integer> nameToIndex, ListTag vertices) {
+    private void readVectors(String[] vertexNames, Map<String, Integer> nameToIndex, ListTag vertices) {
         int i = nameToIndex.get(vertexNames[0]);
         v1.set(vertices.getFloat(3*i), vertices.getFloat(3*i+1), vertices.getFloat(3*i+2));
         i = nameToIndex.get(vertexNames[1]);
@@ -412,7 +466,7 @@ public class BlockbenchModelParser {
         v4.set(vertices.getFloat(3 * i), vertices.getFloat(3 * i + 1), vertices.getFloat(3 * i + 2));
     }
 
-    private static final FiguraVec3
+    private final FiguraVec3
             t1 = FiguraVec3.of(),
             t2 = FiguraVec3.of(),
             t3 = FiguraVec3.of(),
@@ -421,7 +475,7 @@ public class BlockbenchModelParser {
     /**
      * Checks whether the two points given are on opposite sides of the line given.
      */
-    private static boolean testOppositeSides(FiguraVec3 linePoint1, FiguraVec3 linePoint2, FiguraVec3 point1, FiguraVec3 point2) {
+    private boolean testOppositeSides(FiguraVec3 linePoint1, FiguraVec3 linePoint2, FiguraVec3 point1, FiguraVec3 point2) {
         t1.set(linePoint1);
         t2.set(linePoint2);
         t3.set(point1);
@@ -552,7 +606,7 @@ public class BlockbenchModelParser {
                         channels.put("scl", scaleData);
 
                     if (!channels.isEmpty()) {
-                        nbt.putInt("id", i + animationOffset);
+                        nbt.putInt("id", i);
                         nbt.put("data", channels);
                     }
                     if (!nbt.isEmpty())
@@ -566,8 +620,6 @@ public class BlockbenchModelParser {
             list.add(animNbt);
             i++;
         }
-
-        animationOffset += list.size();
     }
 
     private ListTag parseKeyFrameData(JsonObject object, String channel) {
@@ -750,5 +802,5 @@ public class BlockbenchModelParser {
     private record TextureData(int id, float[] fixedSize) {}
 
     //dummy class containing the return object of the parser
-    public record ModelData(CompoundTag textures, List<CompoundTag> animationList, CompoundTag modelNbt) {}
+    public record ModelData(CompoundTag textures, List<CompoundTag> animationList, CompoundTag modelNbt, List<Path> textureFiles) {}
 }
@@ -90,9 +90,9 @@ public class PermissionManager {
         }
     }
 
-    // saves a copy of permissions to disk
+    // schedules a copy of permissions to be saved to disk
     public static void saveToDisk() {
-        IOUtils.saveCacheFile("permissions", nbt -> {
+        IOUtils.scheduleCacheFile("permissions", nbt -> {
             // create dummy lists for later
             ListTag groupList = new ListTag();
             ListTag playerList = new ListTag();
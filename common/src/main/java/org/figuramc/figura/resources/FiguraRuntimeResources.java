@@ -20,7 +20,7 @@ import java.util.concurrent.CompletableFuture;
 
 public class FiguraRuntimeResources {
 
-    public static final String ASSETS_VERSION = FiguraMod.METADATA.getCustomValueAsString("assets_version");
+    public static final String ASSETS_VERSION = FiguraMod.getMetadataValue("assets_version");
     public static final PathPackResources PACK = new PathPackResources(FiguraMod.MOD_NAME + " runtime resource pack", getRootDirectory(), true);
 
     public static Path getRootDirectory() {
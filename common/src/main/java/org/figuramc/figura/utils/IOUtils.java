@@ -95,6 +95,16 @@ public class IOUtils {
         }
     }
 
+    // same as saveCacheFile, but coalesced and written in the background by the PersistenceManager
+    public static void scheduleCacheFile(String name, Consumer<CompoundTag> consumer) {
+        Path path = FiguraMod.getCacheDirectory().resolve(name + ".nbt");
+        PersistenceManager.markDirty(path, () -> {
+            CompoundTag nbt = new CompoundTag();
+            consumer.accept(nbt);
+            return os -> NbtIo.writeCompressed(nbt, os);
+        });
+    }
+
     public static void deleteCacheFile(String name) {
         Path path = FiguraMod.getCacheDirectory().resolve(name + ".nbt");
         deleteFile(path);
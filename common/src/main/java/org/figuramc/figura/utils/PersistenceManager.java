@@ -0,0 +1,140 @@
+package org.figuramc.figura.utils;
+
+import org.figuramc.figura.FiguraMod;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces file writes and performs them off the client thread.
+ * Callers mark a file as dirty with a snapshot supplier; the supplier is only called once the save window has passed,
+ * on the client thread, so it can safely read game state, while the (slow) serialization and disk write happen in the background.
+ */
+public class PersistenceManager {
+
+    // ticks to wait after the first change before saving, later changes are saved together with it
+    private static final int SAVE_DELAY = 20;
+
+    private static final Map<Path, PendingSave> PENDING = new LinkedHashMap<>();
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Figura Persistence");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // schedules a file to be saved, replacing the snapshot of any pending save for the same path but keeping its deadline
+    // so a file changed every tick is still saved once per window
+    public static void markDirty(Path path, Supplier<Snapshot> snapshot) {
+        synchronized (PENDING) {
+            PENDING.merge(path, new PendingSave(snapshot, FiguraMod.ticks + SAVE_DELAY), (old, save) -> new PendingSave(save.snapshot, old.deadline));
+        }
+    }
+
+    // drops the pending saves of every file inside the given folder, and waits for the writes already started
+    // so the folder can be deleted afterwards without a write recreating it
+    public static void discard(Path dir) {
+        Path absolute = dir.toAbsolutePath();
+        synchronized (PENDING) {
+            PENDING.keySet().removeIf(path -> path.toAbsolutePath().startsWith(absolute));
+        }
+        awaitWrites();
+    }
+
+    public static void tick() {
+        List<Map.Entry<Path, PendingSave>> ready = new ArrayList<>();
+        synchronized (PENDING) {
+            if (PENDING.isEmpty())
+                return;
+
+            Iterator<Map.Entry<Path, PendingSave>> iterator = PENDING.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Path, PendingSave> entry = iterator.next();
+                if (FiguraMod.ticks - entry.getValue().deadline >= 0) {
+                    ready.add(entry);
+                    iterator.remove();
+                }
+            }
+        }
+
+        for (Map.Entry<Path, PendingSave> entry : ready)
+            submit(entry.getKey(), entry.getValue().snapshot);
+    }
+
+    // saves everything pending right away and waits for the writes to finish
+    public static void flush() {
+        List<Map.Entry<Path, PendingSave>> all;
+        synchronized (PENDING) {
+            all = new ArrayList<>(PENDING.entrySet());
+            PENDING.clear();
+        }
+
+        for (Map.Entry<Path, PendingSave> entry : all)
+            submit(entry.getKey(), entry.getValue().snapshot);
+
+        awaitWrites();
+    }
+
+    private static void awaitWrites() {
+        try {
+            // the executor is single threaded, so this only finishes after every previous write
+            EXECUTOR.submit(() -> {}).get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            FiguraMod.LOGGER.error("Failed to wait for the pending saves", e);
+        }
+    }
+
+    private static void submit(Path path, Supplier<Snapshot> supplier) {
+        Snapshot snapshot;
+        try {
+            snapshot = supplier.get();
+        } catch (Exception e) {
+            FiguraMod.LOGGER.error("Failed to snapshot \"" + path + "\"", e);
+            return;
+        }
+
+        if (snapshot == null)
+            return;
+
+        EXECUTOR.execute(() -> {
+            try {
+                writeAtomic(path, snapshot);
+            } catch (Exception e) {
+                FiguraMod.LOGGER.error("Failed to save \"" + path + "\"", e);
+            }
+        });
+    }
+
+    // writes to a temporary file and then moves it over the target, so a crash never leaves a half written file
+    public static void writeAtomic(Path path, Snapshot snapshot) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream os = Files.newOutputStream(temp)) {
+            snapshot.write(os);
+        }
+
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Snapshot {
+        void write(OutputStream os) throws IOException;
+    }
+
+    private record PendingSave(Supplier<Snapshot> snapshot, int deadline) {}
+}
@@ -0,0 +1,115 @@
+package org.figuramc.figura.utils;
+
+import java.util.Arrays;
+
+/**
+ * Histogram with log-linear buckets, like HdrHistogram, so recording is constant time and the memory is small
+ * each power of two is split into 16 linear buckets, giving percentiles with at most ~6% of relative error
+ * values are recorded into the current window, and percentiles are calculated over the current and previous windows
+ */
+public class RollingHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    private Window current = new Window();
+    private Window previous = new Window();
+
+    public synchronized void record(long value) {
+        current.record(Math.max(value, 0));
+    }
+
+    // starts a new window, discarding the oldest one
+    public synchronized void rotate() {
+        Window old = previous;
+        old.clear();
+        previous = current;
+        current = old;
+    }
+
+    public synchronized void reset() {
+        current.clear();
+        previous.clear();
+    }
+
+    public synchronized Snapshot snapshot() {
+        long count = current.count + previous.count;
+        if (count == 0)
+            return Snapshot.EMPTY;
+
+        long min = Math.min(current.min, previous.min);
+        long max = Math.max(current.max, previous.max);
+        double mean = (double) (current.sum + previous.sum) / count;
+        return new Snapshot(count, min, max, mean, percentile(count, 0.5), percentile(count, 0.9), percentile(count, 0.99));
+    }
+
+    public synchronized long percentile(double percentile) {
+        long count = current.count + previous.count;
+        return count == 0 ? 0 : percentile(count, Math.min(Math.max(percentile, 0), 1));
+    }
+
+    private long percentile(long count, double percentile) {
+        long target = Math.max((long) Math.ceil(count * percentile), 1);
+        int length = Math.max(current.counts.length, previous.counts.length);
+
+        long seen = 0;
+        for (int i = 0; i < length; i++) {
+            seen += current.get(i) + previous.get(i);
+            if (seen >= target)
+                return Math.min(valueOf(i), Math.max(current.max, previous.max));
+        }
+        return Math.max(current.max, previous.max);
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_COUNT)
+            return (int) value;
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) (value >>> shift) - SUB_COUNT;
+    }
+
+    // middle value of the bucket
+    private static long valueOf(int index) {
+        int group = index / SUB_COUNT;
+        long low = index % SUB_COUNT;
+        if (group == 0)
+            return low;
+
+        long width = 1L << (group - 1);
+        return ((SUB_COUNT + low) << (group - 1)) + (width - 1) / 2;
+    }
+
+    private static class Window {
+        private long[] counts = new long[0];
+        private long count, sum;
+        private long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+
+        private void record(long value) {
+            int index = indexOf(value);
+            if (index >= counts.length)
+                counts = Arrays.copyOf(counts, (index / SUB_COUNT + 1) * SUB_COUNT);
+
+            counts[index]++;
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        private long get(int index) {
+            return index < counts.length ? counts[index] : 0;
+        }
+
+        private void clear() {
+            Arrays.fill(counts, 0);
+            count = sum = 0;
+            min = Long.MAX_VALUE;
+            max = Long.MIN_VALUE;
+        }
+    }
+
+    public record Snapshot(long count, long min, long max, double mean, long p50, long p90, long p99) {
+        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,33 @@
+package org.figuramc.figura;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import org.figuramc.figura.avatar.Avatar;
+import org.figuramc.figura.permissions.PermissionPack;
+import org.figuramc.figura.permissions.Permissions;
+
+import java.util.UUID;
+
+/**
+ * Avatars for tests, not tied to the client and with the max permissions
+ */
+public class TestAvatars {
+
+    private static boolean bootstrapped;
+
+    public static synchronized void bootstrap() {
+        if (bootstrapped)
+            return;
+
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+        bootstrapped = true;
+    }
+
+    public static Avatar create() {
+        bootstrap();
+        UUID owner = UUID.randomUUID();
+        PermissionPack.PlayerPermissionPack permissions = new PermissionPack.PlayerPermissionPack(new PermissionPack.CategoryPermissionPack(Permissions.Category.MAX), owner.toString());
+        return Avatar.createHeadless(owner, "test", permissions);
+    }
+}
@@ -0,0 +1,76 @@
+package org.figuramc.figura.avatar;
+
+import org.figuramc.figura.lua.api.data.FiguraFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.luaj.vm2.LuaError;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvatarIOExecutorTest {
+
+    // same as AvatarIOExecutor.MAX_PENDING
+    private static final int MAX_PENDING = 32;
+
+    private final AvatarIOExecutor executor = new AvatarIOExecutor("test");
+
+    @AfterEach
+    void close() {
+        executor.close();
+    }
+
+    private void fillPending() {
+        for (int i = 0; i < MAX_PENDING; i++)
+            executor.await(CompletableFuture::new, new FiguraFuture<>());
+    }
+
+    @Test
+    void workOverThePendingLimitIsNeverStarted() {
+        fillPending();
+
+        // like an http request, which must not be sent when it is refused
+        AtomicBoolean started = new AtomicBoolean();
+        assertThrows(LuaError.class, () -> executor.await(() -> {
+            started.set(true);
+            return new CompletableFuture<>();
+        }, new FiguraFuture<>()));
+        assertFalse(started.get());
+    }
+
+    @Test
+    void finishedWorkFreesItsSlot() {
+        CompletableFuture<String> work = new CompletableFuture<>();
+        executor.await(() -> work, new FiguraFuture<>());
+        for (int i = 1; i < MAX_PENDING; i++)
+            executor.await(CompletableFuture::new, new FiguraFuture<>());
+
+        work.complete("done");
+        AtomicBoolean started = new AtomicBoolean();
+        executor.await(() -> {
+            started.set(true);
+            return new CompletableFuture<>();
+        }, new FiguraFuture<>());
+        assertTrue(started.get());
+    }
+
+    @Test
+    void failedStartFreesItsSlot() {
+        for (int i = 0; i < MAX_PENDING; i++) {
+            assertThrows(IllegalStateException.class, () -> executor.await(() -> {
+                throw new IllegalStateException();
+            }, new FiguraFuture<>()));
+        }
+        fillPending();
+    }
+
+    @Test
+    void undeliveredResultsAreClosedOnUnload() {
+        AtomicBoolean closed = new AtomicBoolean();
+        executor.await(() -> CompletableFuture.completedFuture((AutoCloseable) () -> closed.set(true)), new FiguraFuture<>());
+        executor.close();
+        assertTrue(closed.get());
+    }
+}
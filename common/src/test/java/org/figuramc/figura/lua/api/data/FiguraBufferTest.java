@@ -0,0 +1,80 @@
+package org.figuramc.figura.lua.api.data;
+
+import org.figuramc.figura.TestAvatars;
+import org.figuramc.figura.avatar.Avatar;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiguraBufferTest {
+
+    // past the initial capacity of 512 bytes
+    private static final int COUNT = 1000;
+
+    private Avatar avatar;
+
+    @BeforeEach
+    void setup() {
+        avatar = TestAvatars.create();
+    }
+
+    @Test
+    void writeGrowsPastInitialCapacity() {
+        FiguraBuffer buffer = new FiguraBuffer(avatar);
+        for (int i = 0; i < COUNT; i++)
+            buffer.write(i);
+
+        assertEquals(COUNT, buffer.getLength());
+        buffer.setPosition(0);
+        for (int i = 0; i < COUNT; i++)
+            assertEquals(i & 0xFF, buffer.read());
+    }
+
+    @Test
+    void writeNumbersGrowsPastInitialCapacity() {
+        FiguraBuffer buffer = new FiguraBuffer(avatar);
+        for (int i = 0; i < COUNT; i++) {
+            buffer.writeInt(i);
+            buffer.writeLongLE((long) i << 32);
+        }
+
+        assertEquals(COUNT * 12, buffer.getLength());
+        buffer.setPosition(0);
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(i, buffer.readInt());
+            assertEquals((long) i << 32, buffer.readLongLE());
+        }
+    }
+
+    @Test
+    void bulkWritesGrowPastInitialCapacity() {
+        LuaTable values = new LuaTable();
+        for (int i = 1; i <= COUNT; i++)
+            values.set(i, LuaValue.valueOf(i));
+
+        FiguraBuffer buffer = new FiguraBuffer(avatar);
+        assertEquals(COUNT, buffer.writeNumbers("int_le", values));
+        buffer.setPosition(0);
+        LuaTable read = buffer.readNumbers("int_le", null);
+        assertEquals(COUNT, read.length());
+        for (int i = 1; i <= COUNT; i++)
+            assertEquals(i, read.get(i).toint());
+
+        byte[] bytes = new byte[COUNT];
+        for (int i = 0; i < COUNT; i++)
+            bytes[i] = (byte) i;
+
+        FiguraBuffer source = new FiguraBuffer(avatar);
+        assertEquals(COUNT, source.writeByteArray(LuaString.valueOf(bytes)));
+        source.setPosition(0);
+
+        FiguraBuffer target = new FiguraBuffer(avatar);
+        assertEquals(COUNT, target.writeBuffer(source, null));
+        target.setPosition(0);
+        assertEquals(LuaString.valueOf(bytes), target.readByteArray(COUNT));
+    }
+}
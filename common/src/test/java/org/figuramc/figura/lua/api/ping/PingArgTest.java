@@ -0,0 +1,109 @@
+package org.figuramc.figura.lua.api.ping;
+
+import org.figuramc.figura.lua.LuaTypeManager;
+import org.figuramc.figura.math.matrix.FiguraMat3;
+import org.figuramc.figura.math.vector.FiguraVec3;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PingArgTest {
+
+    private LuaTypeManager typeManager;
+
+    @BeforeEach
+    void setup() {
+        typeManager = new LuaTypeManager();
+        typeManager.generateMetatableFor(FiguraVec3.class);
+        typeManager.generateMetatableFor(FiguraMat3.class);
+    }
+
+    private Varargs args() {
+        LuaTable array = new LuaTable();
+        for (int i = 1; i <= 3; i++)
+            array.set(i, LuaValue.valueOf(i * 10));
+
+        // same key set twice, so the second one only refers to the first
+        LuaTable shapes = new LuaTable();
+        for (int i = 1; i <= 2; i++) {
+            LuaTable entry = new LuaTable();
+            entry.set("x", LuaValue.valueOf(i));
+            entry.set("name", LuaValue.valueOf("part"));
+            shapes.set(i, entry);
+        }
+
+        LuaTable map = new LuaTable();
+        map.set(1, LuaValue.valueOf("a"));
+        map.set(5, LuaValue.TRUE);
+        map.set("key", LuaValue.valueOf(0.1));
+
+        return LuaValue.varargsOf(new LuaValue[]{
+                LuaValue.TRUE, LuaValue.FALSE, LuaValue.NIL,
+                LuaValue.valueOf(0), LuaValue.valueOf(-1), LuaValue.valueOf(300), LuaValue.valueOf(-70000),
+                LuaValue.valueOf(Integer.MAX_VALUE), LuaValue.valueOf(Integer.MIN_VALUE),
+                LuaValue.valueOf(0.5), LuaValue.valueOf(0.1),
+                LuaValue.valueOf("wave"), LuaValue.valueOf("wave"),
+                array, shapes, map,
+                typeManager.javaToLua(FiguraVec3.of(1, 2.5, -3)).arg1(),
+                typeManager.javaToLua(FiguraVec3.of(0.1, 0.2, 0.3)).arg1(),
+                typeManager.javaToLua(FiguraMat3.of(1, 2, 3, 4, 5, 6, 7, 8, 0.1)).arg1()
+        });
+    }
+
+    private static void assertLuaEquals(LuaValue expected, LuaValue actual) {
+        if (expected.istable()) {
+            assertTrue(actual.istable(), "expected a table, got " + actual);
+            LuaTable table = expected.checktable();
+            assertEquals(table.keyCount(), actual.checktable().keyCount());
+            for (LuaValue key : table.keys())
+                assertLuaEquals(table.get(key), actual.get(key));
+        } else if (expected.isuserdata()) {
+            assertEquals(expected.checkuserdata(), actual.checkuserdata());
+        } else {
+            assertTrue(expected.raweq(actual), "expected " + expected + ", got " + actual);
+        }
+    }
+
+    private void assertRoundTrip(boolean compact) throws IOException {
+        Varargs args = args();
+        LuaValue[] read = PingArg.fromByteArray(new PingArg(args).toByteArray(compact), typeManager);
+        assertEquals(args.narg(), read.length);
+        for (int i = 0; i < read.length; i++)
+            assertLuaEquals(args.arg(i + 1), read[i]);
+    }
+
+    @Test
+    void legacyRoundTrip() throws IOException {
+        assertRoundTrip(false);
+    }
+
+    @Test
+    void compactRoundTrip() throws IOException {
+        assertRoundTrip(true);
+    }
+
+    @Test
+    void compactIsSmaller() {
+        Varargs args = args();
+        assertTrue(new PingArg(args).toByteArray(true).length < new PingArg(args).toByteArray(false).length);
+    }
+
+    @Test
+    void legacyPingsHaveNoCompactTypes() {
+        // a compact string without the compact marker
+        byte[] bytes = {18, 1, 'a'};
+        assertThrows(IOException.class, () -> PingArg.fromByteArray(bytes, typeManager));
+    }
+
+    @Test
+    void unknownTypesThrow() {
+        assertThrows(IOException.class, () -> PingArg.fromByteArray(new byte[]{100}, typeManager));
+        assertThrows(IOException.class, () -> PingArg.fromByteArray(new byte[]{0x7F, 100}, typeManager));
+    }
+}